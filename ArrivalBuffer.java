@@ -0,0 +1,161 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * A time-ordered buffer of arrivals that reads ahead from another source in a bounded window. The
+ * buffer holds the next cloudlets of the source, up to the size of the window, in a heap ordered
+ * by arrival time, and hands them out earliest first; each cloudlet handed out is replaced by the
+ * next one of the source. Cloudlets that arrive at the same time keep the order of the source.
+ *
+ * A source only roughly in order, such as a trace merged from several logs, comes out in order as
+ * long as no cloudlet is further from its place than the window. A cloudlet further out comes out
+ * as soon as it is read, with its own arrival time. Whatever the length of the source, no more
+ * than the window is held in memory.
+ */
+public class ArrivalBuffer implements CloudletSource {
+
+    private final CloudletSource source;
+
+    private final int window;
+
+    /** The buffered cloudlets, a binary heap on arrival time then read order. */
+    private Cloudlet[] cloudlets;
+
+    private double[] arrivalTimes;
+
+    private long[] sequences;
+
+    private int size;
+
+    /** The number of cloudlets read from the source. */
+    private long read;
+
+    /**
+     * Creates a buffer.
+     * @param source the source the cloudlets are read from
+     * @param window the most cloudlets read ahead
+     */
+    public ArrivalBuffer(CloudletSource source, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("The window holds at least one cloudlet");
+        }
+        this.source = source;
+        this.window = window;
+        int capacity = Math.min(window, 1024);
+        this.cloudlets = new Cloudlet[capacity];
+        this.arrivalTimes = new double[capacity];
+        this.sequences = new long[capacity];
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return size > 0;
+    }
+
+    @Override
+    public double peekSubmitTime() {
+        fill();
+        return size > 0 ? arrivalTimes[0] : Double.MAX_VALUE;
+    }
+
+    @Override
+    public Cloudlet next() {
+        fill();
+        if (size == 0) {
+            return null;
+        }
+        Cloudlet cloudlet = cloudlets[0];
+        size--;
+        if (size > 0) {
+            siftDown(0, cloudlets[size], arrivalTimes[size], sequences[size]);
+        }
+        cloudlets[size] = null;
+        return cloudlet;
+    }
+
+    @Override
+    public int readBatch(List<? super Cloudlet> batch, double until, int maxSize) {
+        int count = 0;
+        while (count < maxSize && peekSubmitTime() <= until) {
+            batch.add(next());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of cloudlets read ahead and not handed out yet.
+     * @return the number of cloudlets
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Reads from the source until the window is full or the source is exhausted.
+     */
+    private void fill() {
+        while (size < window && source.hasNext()) {
+            double arrivalTime = source.peekSubmitTime();
+            Cloudlet cloudlet = source.next();
+            if (size == cloudlets.length) {
+                int capacity = (int) Math.min(window, cloudlets.length * 2L);
+                cloudlets = Arrays.copyOf(cloudlets, capacity);
+                arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+                sequences = Arrays.copyOf(sequences, capacity);
+            }
+            siftUp(size++, cloudlet, arrivalTime, read++);
+        }
+    }
+
+    /**
+     * Tells whether an arrival comes before another: earlier, or at the same time and read first.
+     */
+    private static boolean before(double time, long sequence, double otherTime, long otherSequence) {
+        return time < otherTime || time == otherTime && sequence < otherSequence;
+    }
+
+    private void siftUp(int slot, Cloudlet cloudlet, double time, long sequence) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!before(time, sequence, arrivalTimes[parent], sequences[parent])) {
+                break;
+            }
+            set(slot, cloudlets[parent], arrivalTimes[parent], sequences[parent]);
+            slot = parent;
+        }
+        set(slot, cloudlet, time, sequence);
+    }
+
+    private void siftDown(int slot, Cloudlet cloudlet, double time, long sequence) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && before(arrivalTimes[right], sequences[right], arrivalTimes[child], sequences[child])) {
+                child = right;
+            }
+            if (!before(arrivalTimes[child], sequences[child], time, sequence)) {
+                break;
+            }
+            set(slot, cloudlets[child], arrivalTimes[child], sequences[child]);
+            slot = child;
+        }
+        set(slot, cloudlet, time, sequence);
+    }
+
+    private void set(int slot, Cloudlet cloudlet, double time, long sequence) {
+        cloudlets[slot] = cloudlet;
+        arrivalTimes[slot] = time;
+        sequences[slot] = sequence;
+    }
+}
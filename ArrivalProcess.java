@@ -0,0 +1,184 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.SplittableRandom;
+
+/**
+ * The times at which the cloudlets of a workload are submitted. A process only describes the
+ * arrivals; each {@link WorkloadGenerator} starts a {@link Clock} of its own from it, so one
+ * process can drive any number of generators.
+ *
+ * @see WorkloadGenerator
+ */
+public abstract class ArrivalProcess {
+
+    /** The arrival times of one workload, in increasing order. */
+    public interface Clock {
+
+        /**
+         * Gets the time of the next arrival.
+         * @return the arrival time, not before the previous one
+         */
+        double next();
+    }
+
+    /**
+     * Starts the arrivals of a workload.
+     * @param random the generator the arrivals are drawn from
+     * @return the clock of the workload
+     */
+    protected abstract Clock start(SplittableRandom random);
+
+    /**
+     * Gets the long-run number of arrivals per unit of time.
+     * @return the mean rate, or {@link Double#POSITIVE_INFINITY} if all cloudlets arrive at once
+     */
+    public abstract double getMeanRate();
+
+    /**
+     * Gets a process that submits every cloudlet at time 0, as the examples do.
+     * @return the process
+     */
+    public static ArrivalProcess batch() {
+        return new ArrivalProcess() {
+            @Override
+            protected Clock start(SplittableRandom random) {
+                return new Clock() {
+                    @Override
+                    public double next() {
+                        return 0.0;
+                    }
+                };
+            }
+
+            @Override
+            public double getMeanRate() {
+                return Double.POSITIVE_INFINITY;
+            }
+        };
+    }
+
+    /**
+     * Gets a process that submits a cloudlet at every multiple of an interval, starting at 0.
+     * @param interval the time between two arrivals
+     * @return the process
+     */
+    public static ArrivalProcess periodic(final double interval) {
+        if (!(interval > 0)) {
+            throw new IllegalArgumentException("The interval must be positive");
+        }
+        return new ArrivalProcess() {
+            @Override
+            protected Clock start(SplittableRandom random) {
+                return new Clock() {
+                    private long arrivals;
+
+                    @Override
+                    public double next() {
+                        return arrivals++ * interval;
+                    }
+                };
+            }
+
+            @Override
+            public double getMeanRate() {
+                return 1.0 / interval;
+            }
+        };
+    }
+
+    /**
+     * Gets a Poisson process, where the times between arrivals are exponential.
+     * @param rate the mean number of arrivals per unit of time
+     * @return the process
+     */
+    public static ArrivalProcess poisson(final double rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("The rate must be positive");
+        }
+        return new ArrivalProcess() {
+            @Override
+            protected Clock start(final SplittableRandom random) {
+                return new Clock() {
+                    private double time;
+
+                    @Override
+                    public double next() {
+                        time += WorkloadDistribution.exponentialSample(random, 1.0 / rate);
+                        return time;
+                    }
+                };
+            }
+
+            @Override
+            public double getMeanRate() {
+                return rate;
+            }
+        };
+    }
+
+    /**
+     * Gets a Markov-modulated Poisson process, which gives bursty arrivals. The process stays in
+     * each state for an exponential time and then moves on to the next one, going back to the
+     * first after the last; while in a state, arrivals are Poisson with the rate of that state.
+     * Two states, a quiet one and a short busy one, give the usual on/off bursts.
+     * @param rates the arrival rate of each state, which may be 0
+     * @param meanSojournTimes the mean time spent in each state
+     * @return the process
+     */
+    public static ArrivalProcess mmpp(double[] rates, double[] meanSojournTimes) {
+        if (rates.length == 0 || rates.length != meanSojournTimes.length) {
+            throw new IllegalArgumentException("Each state needs a rate and a mean sojourn time");
+        }
+        final double[] stateRates = rates.clone();
+        final double[] sojournTimes = meanSojournTimes.clone();
+        double arrivals = 0.0;
+        double time = 0.0;
+        for (int i = 0; i < stateRates.length; i++) {
+            if (!(stateRates[i] >= 0) || !(sojournTimes[i] > 0)) {
+                throw new IllegalArgumentException("Rates must not be negative and sojourn times must be positive");
+            }
+            arrivals += stateRates[i] * sojournTimes[i];
+            time += sojournTimes[i];
+        }
+        if (arrivals == 0) {
+            throw new IllegalArgumentException("At least one state must have arrivals");
+        }
+        final double meanRate = arrivals / time;
+
+        return new ArrivalProcess() {
+            @Override
+            protected Clock start(final SplittableRandom random) {
+                return new Clock() {
+                    private int state;
+
+                    private double time;
+
+                    private double stateEnd = WorkloadDistribution.exponentialSample(random, sojournTimes[0]);
+
+                    @Override
+                    public double next() {
+                        while (true) {
+                            // arrivals are memoryless, so one past the end of the state is redrawn in the next
+                            if (stateRates[state] > 0) {
+                                double arrival = time
+                                        + WorkloadDistribution.exponentialSample(random, 1.0 / stateRates[state]);
+                                if (arrival < stateEnd) {
+                                    time = arrival;
+                                    return time;
+                                }
+                            }
+                            time = stateEnd;
+                            state = (state + 1) % stateRates.length;
+                            stateEnd = time + WorkloadDistribution.exponentialSample(random, sojournTimes[state]);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public double getMeanRate() {
+                return meanRate;
+            }
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A {@link ProfiledDatacenter} that also takes cloudlets in batches: a
+ * {@link #CLOUDLET_SUBMIT_BATCH} event carries a list of cloudlets, which are admitted in one pass
+ * as if each had come in its own CLOUDLET_SUBMIT at the same time. The processing is updated once,
+ * the cloudlets are submitted in the order of the list, and one VM_DATACENTER_EVENT is scheduled
+ * per distinct estimated finish time, the duplicates being updates the guard of
+ * updateCloudletProcessing would skip. From then on, the cloudlets of the user that sent the batch
+ * are returned together: the cloudlets of a user that finish in the same check come back in one
+ * {@link #CLOUDLET_RETURN_BATCH} event, in the order CLOUDLET_RETURN events would have given them.
+ *
+ * Until a batch comes in, it behaves exactly as a ProfiledDatacenter.
+ */
+public class BatchingDatacenter extends ProfiledDatacenter {
+
+    /** Tag of the event that submits a list of cloudlets. */
+    public static final int CLOUDLET_SUBMIT_BATCH = 55101;
+
+    /** Tag of the event that returns a list of finished cloudlets to their user. */
+    public static final int CLOUDLET_RETURN_BATCH = 55102;
+
+    /** The users that submitted batches, whose cloudlets are returned in batches. */
+    private final Set<Integer> batchUsers = new HashSet<Integer>();
+
+    /**
+     * Creates a new BatchingDatacenter object.
+     * @param name the datacenter name
+     * @param characteristics the characteristics of the datacenter
+     * @param vmAllocationPolicy the policy placing VMs on hosts
+     * @param storageList the storage elements
+     * @param schedulingInterval the scheduling interval
+     * @throws Exception if the datacenter cannot be created
+     */
+    public BatchingDatacenter(String name, DatacenterCharacteristics characteristics,
+            VmAllocationPolicy vmAllocationPolicy, List<Storage> storageList, double schedulingInterval)
+            throws Exception {
+        super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval);
+    }
+
+    @Override
+    protected void processOtherEvent(SimEvent ev) {
+        if (ev.getTag() == CLOUDLET_SUBMIT_BATCH) {
+            @SuppressWarnings("unchecked")
+            List<Cloudlet> cloudlets = (List<Cloudlet>) ev.getData();
+            processCloudletSubmitBatch(cloudlets);
+            return;
+        }
+        super.processOtherEvent(ev);
+    }
+
+    /**
+     * Admits a batch of cloudlets, as processCloudletSubmit would admit each of them without an
+     * acknowledgement.
+     * @param cloudlets the cloudlets
+     */
+    protected void processCloudletSubmitBatch(List<Cloudlet> cloudlets) {
+        updateCloudletProcessing();
+
+        Set<Double> scheduledDelays = new HashSet<Double>();
+        Vm vm = null;
+        for (Cloudlet cloudlet : cloudlets) {
+            batchUsers.add(cloudlet.getUserId());
+            if (cloudlet.isFinished()) {
+                Log.printLine(getName() + ": Warning - Cloudlet #" + cloudlet.getCloudletId() + " owned by "
+                        + CloudSim.getEntityName(cloudlet.getUserId()) + " is already completed/finished.");
+                Log.printLine("Therefore, it is not being executed again");
+                Log.printLine();
+                sendNow(cloudlet.getUserId(), CloudSimTags.CLOUDLET_RETURN, cloudlet);
+                continue;
+            }
+
+            cloudlet.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(),
+                    getCharacteristics().getCostPerBw());
+            if (vm == null || vm.getId() != cloudlet.getVmId() || vm.getUserId() != cloudlet.getUserId()) {
+                Host host = getVmAllocationPolicy().getHost(cloudlet.getVmId(), cloudlet.getUserId());
+                vm = host.getVm(cloudlet.getVmId(), cloudlet.getUserId());
+            }
+            double fileTransferTime = predictFileTransferTime(cloudlet.getRequiredFiles());
+            double estimatedFinishTime = vm.getCloudletScheduler().cloudletSubmit(cloudlet, fileTransferTime);
+            if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+                estimatedFinishTime += fileTransferTime;
+                if (scheduledDelays.add(estimatedFinishTime)) {
+                    send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
+                }
+            }
+        }
+
+        checkCloudletCompletion();
+    }
+
+    /**
+     * Returns the finished cloudlets, in one {@link #CLOUDLET_RETURN_BATCH} per user for the users
+     * that submit batches.
+     */
+    @Override
+    protected void checkCloudletCompletion() {
+        if (batchUsers.isEmpty()) {
+            super.checkCloudletCompletion();
+            return;
+        }
+        Map<Integer, List<Cloudlet>> returns = null;
+        List<? extends Host> hosts = getVmAllocationPolicy().getHostList();
+        for (Host host : hosts) {
+            for (Vm vm : host.getVmList()) {
+                CloudletScheduler scheduler = vm.getCloudletScheduler();
+                while (scheduler.isFinishedCloudlets()) {
+                    Cloudlet cloudlet = scheduler.getNextFinishedCloudlet();
+                    if (cloudlet == null) {
+                        continue;
+                    }
+                    int userId = cloudlet.getUserId();
+                    if (!batchUsers.contains(userId)) {
+                        sendNow(userId, CloudSimTags.CLOUDLET_RETURN, cloudlet);
+                        continue;
+                    }
+                    if (returns == null) {
+                        returns = new LinkedHashMap<Integer, List<Cloudlet>>();
+                    }
+                    List<Cloudlet> batch = returns.get(userId);
+                    if (batch == null) {
+                        batch = new ArrayList<Cloudlet>();
+                        returns.put(userId, batch);
+                    }
+                    batch.add(cloudlet);
+                }
+            }
+        }
+        if (returns != null) {
+            for (Map.Entry<Integer, List<Cloudlet>> entry : returns.entrySet()) {
+                sendNow(entry.getKey(), CLOUDLET_RETURN_BATCH, entry.getValue());
+            }
+        }
+    }
+}
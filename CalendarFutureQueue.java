@@ -0,0 +1,522 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.cloudbus.cloudsim.core.FutureQueue;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A calendar queue of future events (R. Brown, 1988), in place of the tree of the FutureQueue it
+ * extends. Time is cut into days of a given width, and the events of a day go to the bucket of
+ * the day modulo the number of buckets, like the days of a year on a desk calendar. Each bucket
+ * keeps its events sorted. When the width fits the spacing of the events, a bucket holds a
+ * handful of them, so adding an event and taking the first one cost O(1) on average. The number
+ * of buckets follows the number of events, and the width is measured again from the events at
+ * the front of the queue each time the buckets are resized.
+ *
+ * Events with the same time come out in the order they were added, as in the tree, and
+ * {@link #addEventFirst(SimEvent)} puts an event before those already queued for the same time.
+ * The queue does its own ordering and does not use the serial number of the events.
+ *
+ * The buckets are arrays reused for the life of the queue, so unlike the tree, which allocates an
+ * entry per event, queuing an event allocates nothing once the buckets have grown.
+ *
+ * @see FutureEventList#CALENDAR
+ */
+public class CalendarFutureQueue extends FutureQueue {
+
+    /** The fewest buckets. */
+    private static final int MIN_BUCKETS = 16;
+
+    /** The number of events at the front of the queue sampled to measure their spacing. */
+    private static final int WIDTH_SAMPLE = 25;
+
+    private Bucket[] buckets;
+
+    /** The number of buckets minus one; the number of buckets is a power of two. */
+    private int mask;
+
+    /** The width of a day. */
+    private double width = 1.0;
+
+    private int size;
+
+    /** The day no event is before. */
+    private long firstDay;
+
+    /** The order of the next event added, which breaks ties between events at the same time. */
+    private long nextSerial;
+
+    /** The order of the next event added first; negative, so it comes before all others. */
+    private long nextFirstSerial = -1;
+
+    /**
+     * Creates an empty queue.
+     */
+    public CalendarFutureQueue() {
+        buckets = newBuckets(MIN_BUCKETS);
+        mask = MIN_BUCKETS - 1;
+    }
+
+    @Override
+    public void addEvent(SimEvent newEvent) {
+        add(newEvent, nextSerial++);
+    }
+
+    @Override
+    public void addEventFirst(SimEvent newEvent) {
+        add(newEvent, nextFirstSerial--);
+    }
+
+    @Override
+    public Iterator<SimEvent> iterator() {
+        return new CalendarIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean remove(SimEvent event) {
+        boolean removed = removeEvent(event);
+        if (removed) {
+            shrinkIfSparse();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<SimEvent> events) {
+        boolean removed = false;
+        for (SimEvent event : events) {
+            removed |= removeEvent(event);
+        }
+        if (removed) {
+            shrinkIfSparse();
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        for (Bucket bucket : buckets) {
+            bucket.clear();
+        }
+        size = 0;
+        firstDay = 0;
+    }
+
+    /**
+     * Gets the number of buckets, which is kept between half and twice the number of events.
+     * @return the number of buckets
+     */
+    public int getBucketCount() {
+        return buckets.length;
+    }
+
+    /**
+     * Gets the width of a day.
+     * @return the width
+     */
+    public double getDayWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the number of events added to the queue since it was created.
+     * @return the number of events
+     */
+    public long getAddedCount() {
+        return nextSerial - nextFirstSerial - 1;
+    }
+
+    private void add(SimEvent event, long serial) {
+        double time = event.eventTime();
+        long day = dayOf(time);
+        buckets[(int) (day & mask)].add(event, time, serial);
+        if (size == 0 || day < firstDay) {
+            firstDay = day;
+        }
+        size++;
+        if (size > 2 * buckets.length) {
+            resize(buckets.length * 2);
+        }
+    }
+
+    private boolean removeEvent(SimEvent event) {
+        if (event == null || size == 0) {
+            return false;
+        }
+        double time = event.eventTime();
+        Bucket bucket = buckets[(int) (dayOf(time) & mask)];
+        int index = bucket.indexOf(event, time);
+        if (index < 0) {
+            return false;
+        }
+        bucket.removeAt(index);
+        size--;
+        return true;
+    }
+
+    private void shrinkIfSparse() {
+        if (buckets.length > MIN_BUCKETS && size < buckets.length / 2) {
+            resize(buckets.length / 2);
+        }
+    }
+
+    private long dayOf(double time) {
+        return (long) Math.floor(time / width);
+    }
+
+    /**
+     * Moves the events to a new number of buckets, with a width measured from the spacing of the
+     * first events: three times their mean gap, leaving out gaps over twice the mean, as Brown
+     * suggests.
+     */
+    private void resize(int bucketCount) {
+        SimEvent[] events = new SimEvent[size];
+        long[] serials = new long[size];
+        int count = 0;
+        for (Bucket bucket : buckets) {
+            for (int i = bucket.start; i < bucket.end; i++) {
+                events[count] = bucket.events[i];
+                serials[count++] = bucket.serials[i];
+            }
+        }
+
+        double newWidth = measureWidth();
+        if (newWidth > 0) {
+            width = newWidth;
+        }
+        if (bucketCount == buckets.length) {
+            for (Bucket bucket : buckets) {
+                bucket.clear();
+            }
+        } else {
+            buckets = newBuckets(bucketCount);
+            mask = bucketCount - 1;
+        }
+
+        long first = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            double time = events[i].eventTime();
+            long day = dayOf(time);
+            buckets[(int) (day & mask)].add(events[i], time, serials[i]);
+            first = Math.min(first, day);
+        }
+        firstDay = count > 0 ? first : 0;
+    }
+
+    /**
+     * Measures the width of a day from the first events.
+     * @return the width, or 0 if the first events are all at the same time
+     */
+    private double measureWidth() {
+        int samples = Math.min(size, WIDTH_SAMPLE);
+        if (samples < 2) {
+            return 0.0;
+        }
+        double[] times = new double[samples];
+        Iterator<SimEvent> iterator = iterator();
+        for (int i = 0; i < samples; i++) {
+            times[i] = iterator.next().eventTime();
+        }
+
+        double total = times[samples - 1] - times[0];
+        double mean = total / (samples - 1);
+        double kept = 0.0;
+        int gaps = 0;
+        for (int i = 1; i < samples; i++) {
+            double gap = times[i] - times[i - 1];
+            if (gap <= 2 * mean) {
+                kept += gap;
+                gaps++;
+            }
+        }
+        return gaps > 0 ? 3.0 * kept / gaps : 0.0;
+    }
+
+    private static Bucket[] newBuckets(int count) {
+        Bucket[] buckets = new Bucket[count];
+        for (int i = 0; i < count; i++) {
+            buckets[i] = new Bucket();
+        }
+        return buckets;
+    }
+
+    /**
+     * The events of one bucket, sorted by time and then order, between {@link #start} and
+     * {@link #end}. Taking the first event moves the start, so it shifts nothing.
+     */
+    private static final class Bucket {
+
+        SimEvent[] events = new SimEvent[4];
+
+        double[] times = new double[4];
+
+        long[] serials = new long[4];
+
+        int start;
+
+        int end;
+
+        void add(SimEvent event, double time, long serial) {
+            int index = upperBound(time, serial);
+            if (index == start && start > 0) {
+                start--;
+                set(start, event, time, serial);
+                return;
+            }
+            if (end == events.length) {
+                makeRoom();
+                index = upperBound(time, serial);
+            }
+            int moved = end - index;
+            if (moved > 0) {
+                System.arraycopy(events, index, events, index + 1, moved);
+                System.arraycopy(times, index, times, index + 1, moved);
+                System.arraycopy(serials, index, serials, index + 1, moved);
+            }
+            set(index, event, time, serial);
+            end++;
+        }
+
+        /**
+         * Finds an event.
+         * @return its index, or -1 if it is not in the bucket
+         */
+        int indexOf(SimEvent event, double time) {
+            for (int i = lowerBound(time); i < end && times[i] == time; i++) {
+                if (events[i] == event) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Removes the event at an index.
+         * @return true if the events after it moved down by one, false if the start moved up
+         */
+        boolean removeAt(int index) {
+            if (index == start) {
+                events[start++] = null;
+                if (start == end) {
+                    start = 0;
+                    end = 0;
+                }
+                return false;
+            }
+            int moved = end - index - 1;
+            System.arraycopy(events, index + 1, events, index, moved);
+            System.arraycopy(times, index + 1, times, index, moved);
+            System.arraycopy(serials, index + 1, serials, index, moved);
+            events[--end] = null;
+            return true;
+        }
+
+        void clear() {
+            Arrays.fill(events, start, end, null);
+            start = 0;
+            end = 0;
+        }
+
+        /**
+         * Gets the index of the first event at or after a time.
+         */
+        int lowerBound(double time) {
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (times[middle] < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Gets the index of the first event on or after a day. Days are found by dividing the
+         * times, as when the events were put in the buckets, so rounding cannot tell them apart.
+         */
+        int firstOfDay(long day, double width) {
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if ((long) Math.floor(times[middle] / width) < day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Gets the index at which an event goes, after the events that come before it. Most events
+         * go at the end, which is checked first.
+         */
+        private int upperBound(double time, long serial) {
+            if (start == end || comesBefore(times[end - 1], serials[end - 1], time, serial)) {
+                return end;
+            }
+            int low = start;
+            int high = end - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comesBefore(times[middle], serials[middle], time, serial)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static boolean comesBefore(double time, long serial, double otherTime, long otherSerial) {
+            return time < otherTime || (time == otherTime && serial < otherSerial);
+        }
+
+        private void set(int index, SimEvent event, double time, long serial) {
+            events[index] = event;
+            times[index] = time;
+            serials[index] = serial;
+        }
+
+        /**
+         * Moves the events to the front of the arrays, or doubles the arrays if they are full.
+         */
+        private void makeRoom() {
+            int count = end - start;
+            if (start > 0) {
+                System.arraycopy(events, start, events, 0, count);
+                System.arraycopy(times, start, times, 0, count);
+                System.arraycopy(serials, start, serials, 0, count);
+                Arrays.fill(events, count, end, null);
+            } else {
+                events = Arrays.copyOf(events, events.length * 2);
+                times = Arrays.copyOf(times, times.length * 2);
+                serials = Arrays.copyOf(serials, serials.length * 2);
+            }
+            start = 0;
+            end = count;
+        }
+    }
+
+    /**
+     * Goes through the events in order, a day at a time from the first day, jumping straight to
+     * the next event when a whole year of days is empty. The events of a bucket that belong to
+     * later years are left for when the iterator comes round to them.
+     */
+    private final class CalendarIterator implements Iterator<SimEvent> {
+
+        /** The day being read. */
+        private long day;
+
+        /** The bucket of the day. */
+        private Bucket bucket;
+
+        /** The index in the bucket of the next event of the day. */
+        private int index;
+
+        /** The number of events returned and not removed. */
+        private int returned;
+
+        /** The number of days in a row without an event. */
+        private int emptyDays;
+
+        /** The bucket and index of the last event returned, or null if it was removed. */
+        private Bucket lastBucket;
+
+        private int lastIndex;
+
+        /** The size of the queue the iterator expects; any other change to the queue ends it. */
+        private int expectedSize = size;
+
+        CalendarIterator() {
+            enterDay(firstDay);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        @Override
+        public SimEvent next() {
+            if (expectedSize != size) {
+                throw new ConcurrentModificationException();
+            }
+            if (returned >= size) {
+                throw new NoSuchElementException();
+            }
+            while (index >= bucket.end || dayOf(bucket.times[index]) != day) {
+                if (++emptyDays > buckets.length) {
+                    enterDay(findNextDay());
+                } else {
+                    enterDay(day + 1);
+                }
+            }
+            if (returned == 0) {
+                // the first event is the first of the queue, whose day no later event is before
+                firstDay = day;
+            }
+            emptyDays = 0;
+            returned++;
+            lastBucket = bucket;
+            lastIndex = index;
+            return bucket.events[index++];
+        }
+
+        @Override
+        public void remove() {
+            if (lastBucket == null) {
+                throw new IllegalStateException();
+            }
+            if (expectedSize != size) {
+                throw new ConcurrentModificationException();
+            }
+            if (lastBucket.removeAt(lastIndex)) {
+                index--;
+            } else if (lastBucket.start == 0 && lastBucket.end == 0) {
+                index = 0;
+            }
+            lastBucket = null;
+            returned--;
+            size--;
+            expectedSize--;
+        }
+
+        private void enterDay(long newDay) {
+            day = newDay;
+            bucket = buckets[(int) (newDay & mask)];
+            // the earlier events of the bucket belong to days already read
+            index = bucket.firstOfDay(newDay, width);
+        }
+
+        /**
+         * Finds the first day after the current one that has an event, by looking at every bucket.
+         */
+        private long findNextDay() {
+            long next = Long.MAX_VALUE;
+            for (Bucket candidate : buckets) {
+                int i = candidate.firstOfDay(day + 1, width);
+                if (i < candidate.end) {
+                    next = Math.min(next, dayOf(candidate.times[i]));
+                }
+            }
+            emptyDays = 0;
+            return next;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Writes results in a compact big-endian binary format that {@link java.io.DataInputStream} can
+ * read: the int {@link #MAGIC}, then one 48-byte record per cloudlet holding the cloudlet id,
+ * status, datacenter id and VM id as ints, followed by the CPU, start, finish and submission times
+ * as doubles. Times keep their full precision.
+ */
+public class CloudletBinaryWriter extends CloudletResultSink {
+
+    /** The first four bytes of the output, "CRS1" in ASCII. */
+    public static final int MAGIC = 0x43525331;
+
+    /** The size of a record in bytes. */
+    public static final int RECORD_SIZE = 4 * 4 + 4 * 8;
+
+    /**
+     * Creates a writer.
+     * @param channel the channel the records are written to
+     */
+    public CloudletBinaryWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer.
+     * @param channel the channel the records are written to
+     * @param bufferSize the size of the buffer in bytes
+     */
+    public CloudletBinaryWriter(WritableByteChannel channel, int bufferSize) {
+        super(channel, bufferSize, DecimalFormatSymbols.getInstance(Locale.ROOT));
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        ensureRoom(4);
+        buffer.putInt(MAGIC);
+    }
+
+    @Override
+    public void writeRow(CloudletResultStore results, int row) throws IOException {
+        ensureRoom(RECORD_SIZE);
+        buffer.putInt(results.getCloudletId(row));
+        buffer.putInt(results.getStatus(row));
+        buffer.putInt(results.getResourceId(row));
+        buffer.putInt(results.getVmId(row));
+        buffer.putDouble(results.getActualCPUTime(row));
+        buffer.putDouble(results.getExecStartTime(row));
+        buffer.putDouble(results.getFinishTime(row));
+        buffer.putDouble(results.getSubmissionTime(row));
+    }
+}
@@ -0,0 +1,69 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Writes results as CSV, one line per cloudlet including the failed ones. Times are written with
+ * at most {@link #MAX_FAST_FRACTION_DIGITS} fraction digits and a dot as decimal separator.
+ */
+public class CloudletCsvWriter extends CloudletResultSink {
+
+    private static final byte[] HEADER = ("cloudlet_id,status,datacenter_id,vm_id,cpu_time,start_time,finish_time,"
+            + "submission_time,turnaround_time,waiting_time\n").getBytes();
+
+    private final int fractionDigits;
+
+    /**
+     * Creates a writer with two fraction digits, like the results table.
+     * @param channel the channel the CSV is written to
+     */
+    public CloudletCsvWriter(WritableByteChannel channel) {
+        this(channel, 2, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer.
+     * @param channel the channel the CSV is written to
+     * @param fractionDigits the most fraction digits of times, up to {@link #MAX_FAST_FRACTION_DIGITS}
+     * @param bufferSize the size of the buffer in bytes
+     */
+    public CloudletCsvWriter(WritableByteChannel channel, int fractionDigits, int bufferSize) {
+        super(channel, bufferSize, DecimalFormatSymbols.getInstance(Locale.ROOT));
+        if (fractionDigits < 0 || fractionDigits > MAX_FAST_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("Fraction digits must be between 0 and " + MAX_FAST_FRACTION_DIGITS);
+        }
+        this.fractionDigits = fractionDigits;
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        putBytes(HEADER);
+    }
+
+    @Override
+    public void writeRow(CloudletResultStore results, int row) throws IOException {
+        putLong(results.getCloudletId(row));
+        putByte((byte) ',');
+        putLong(results.getStatus(row));
+        putByte((byte) ',');
+        putLong(results.getResourceId(row));
+        putByte((byte) ',');
+        putLong(results.getVmId(row));
+        putByte((byte) ',');
+        putDecimal(results.getActualCPUTime(row), fractionDigits);
+        putByte((byte) ',');
+        putDecimal(results.getExecStartTime(row), fractionDigits);
+        putByte((byte) ',');
+        putDecimal(results.getFinishTime(row), fractionDigits);
+        putByte((byte) ',');
+        putDecimal(results.getSubmissionTime(row), fractionDigits);
+        putByte((byte) ',');
+        putDecimal(results.getTurnaroundTime(row), fractionDigits);
+        putByte((byte) ',');
+        putDecimal(results.getWaitingTime(row), fractionDigits);
+        putByte((byte) '\n');
+    }
+}
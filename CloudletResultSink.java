@@ -0,0 +1,252 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Writes the rows of a {@link CloudletResultStore} to a channel. Rows are encoded into one byte
+ * buffer that is reused for the whole output and handed to the channel only when it is full, so
+ * writing a row allocates nothing and costs no system call.
+ *
+ * Decimals are formatted like {@code new DecimalFormat("###.##")} would format them: rounded
+ * half-even on the exact value of the double, without trailing zeros in the fraction. Values too
+ * large for their fraction digits to be exact, infinities and NaN go through a DecimalFormat.
+ *
+ * @see CloudletTableWriter
+ * @see CloudletCsvWriter
+ * @see CloudletBinaryWriter
+ */
+public abstract class CloudletResultSink implements Closeable, Flushable {
+
+    /** The default buffer size in bytes. */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+
+    /** The most fraction digits {@link #putDecimal(double, int)} formats without a DecimalFormat. */
+    protected static final int MAX_FAST_FRACTION_DIGITS = 3;
+
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L };
+
+    /** The least n with 2^n above 10^digits, for each number of fraction digits. */
+    private static final int[] MIN_SHIFTS = { 1, 4, 7, 10 };
+
+    private final WritableByteChannel channel;
+
+    /** The buffer rows are encoded into. */
+    protected final ByteBuffer buffer;
+
+    /** Scratch space for the digits of a number, least significant first. */
+    private final byte[] digits = new byte[20];
+
+    private final DecimalFormatSymbols symbols;
+
+    private final byte decimalSeparator;
+
+    private final byte minusSign;
+
+    /** Whether the symbols are plain ASCII, so numbers can be encoded without a DecimalFormat. */
+    private final boolean asciiSymbols;
+
+    /** The format used for the values the fast path can't handle, created when first needed. */
+    private DecimalFormat fallbackFormat;
+
+    /**
+     * Creates a sink.
+     * @param channel the channel the output is written to
+     * @param bufferSize the size of the buffer in bytes
+     * @param symbols the symbols used to format decimals
+     */
+    protected CloudletResultSink(WritableByteChannel channel, int bufferSize, DecimalFormatSymbols symbols) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer size must be at least 64 bytes");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.symbols = symbols;
+        this.decimalSeparator = (byte) symbols.getDecimalSeparator();
+        this.minusSign = (byte) symbols.getMinusSign();
+        this.asciiSymbols = symbols.getDecimalSeparator() < 128 && symbols.getMinusSign() < 128
+                && symbols.getZeroDigit() == '0';
+    }
+
+    /**
+     * Writes what comes before the first row.
+     * @throws IOException if the channel fails
+     */
+    public abstract void writeHeader() throws IOException;
+
+    /**
+     * Writes one row of a store.
+     * @param results the store
+     * @param row the row to write
+     * @throws IOException if the channel fails
+     */
+    public abstract void writeRow(CloudletResultStore results, int row) throws IOException;
+
+    /**
+     * Writes the header and every row of a store, then flushes.
+     * @param results the store
+     * @throws IOException if the channel fails
+     */
+    public void writeAll(CloudletResultStore results) throws IOException {
+        writeHeader();
+        int size = results.size();
+        for (int row = 0; row < size; row++) {
+            writeRow(results, row);
+        }
+        flush();
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     * @throws IOException if the channel fails
+     */
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the buffer and closes the channel.
+     * @throws IOException if the channel fails
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Makes sure the buffer has room for a given number of bytes, flushing it if needed.
+     * @param bytes the number of bytes, at most the buffer size
+     * @throws IOException if the channel fails
+     */
+    protected void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    protected void putByte(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+    }
+
+    protected void putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(bytes.length - offset, buffer.remaining());
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Writes an integer the way {@link String#valueOf(long)} prints it.
+     * @param value the integer
+     * @throws IOException if the channel fails
+     */
+    protected void putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            putBytes(String.valueOf(value).getBytes());
+            return;
+        }
+        if (value < 0) {
+            putByte((byte) '-');
+            value = -value;
+        }
+        putDigits(value, 1);
+    }
+
+    /**
+     * Writes a decimal rounded half-even to at most a given number of fraction digits, with the
+     * trailing zeros of the fraction removed and no grouping.
+     * @param value the decimal
+     * @param maxFractionDigits the most fraction digits
+     * @throws IOException if the channel fails
+     */
+    protected void putDecimal(double value, int maxFractionDigits) throws IOException {
+        long bits = Double.doubleToRawLongBits(value);
+        int exponent = (int) ((bits >>> 52) & 0x7FF);
+        long mantissa = bits & 0xFFFFFFFFFFFFFL;
+        // the value is mantissa / 2^shift
+        int shift = 1075 - Math.max(exponent, 1);
+        // DecimalFormat never prints more digits than Double.toString, so the exact value can only
+        // be rounded when a unit in the last place is smaller than the last fraction digit
+        if (exponent == 0x7FF || maxFractionDigits > MAX_FAST_FRACTION_DIGITS
+                || shift < MIN_SHIFTS[maxFractionDigits] || !asciiSymbols) {
+            putFallbackDecimal(value, maxFractionDigits);
+            return;
+        }
+        if (exponent != 0) {
+            mantissa |= 1L << 52;
+        }
+
+        // round mantissa * 10^digits / 2^shift half-even; the product is below 2^63
+        long product = mantissa * POWERS_OF_TEN[maxFractionDigits];
+        long scaled;
+        if (shift >= 64) {
+            scaled = 0;
+        } else {
+            long half = 1L << (shift - 1);
+            long remainder = shift == 63 ? product : product & ((1L << shift) - 1);
+            scaled = shift == 63 ? 0 : product >>> shift;
+            if (remainder > half || (remainder == half && (scaled & 1) == 1)) {
+                scaled++;
+            }
+        }
+
+        int fractionDigits = maxFractionDigits;
+        while (fractionDigits > 0 && scaled % 10 == 0) {
+            scaled /= 10;
+            fractionDigits--;
+        }
+        if (bits < 0) {
+            // DecimalFormat keeps the sign of negative values that round to zero
+            putByte(minusSign);
+        }
+        putDigits(scaled, fractionDigits + 1);
+    }
+
+    /**
+     * Writes the digits of a non-negative number, with a decimal separator before the last
+     * fraction digits and at least one digit before it.
+     */
+    private void putDigits(long value, int minDigits) throws IOException {
+        int fractionDigits = minDigits - 1;
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0 || count < minDigits);
+
+        ensureRoom(count + 1);
+        for (int i = count - 1; i >= 0; i--) {
+            buffer.put(digits[i]);
+            if (i == fractionDigits && i > 0) {
+                buffer.put(decimalSeparator);
+            }
+        }
+    }
+
+    private void putFallbackDecimal(double value, int maxFractionDigits) throws IOException {
+        if (fallbackFormat == null) {
+            fallbackFormat = new DecimalFormat("###.##", symbols);
+        }
+        fallbackFormat.setMaximumFractionDigits(maxFractionDigits);
+        putBytes(fallbackFormat.format(value).getBytes());
+    }
+}
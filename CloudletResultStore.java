@@ -0,0 +1,253 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * Keeps the results of returned cloudlets in parallel primitive columns, one row per cloudlet, so
+ * the {@link Cloudlet} objects can be released as soon as they return. Holding a row costs 48
+ * bytes, and statistics over a column read one contiguous array.
+ *
+ * @see DatacenterBrokerSjf#setResultStore(CloudletResultStore)
+ */
+public class CloudletResultStore {
+
+    private int[] cloudletIds;
+
+    private int[] statuses;
+
+    private int[] resourceIds;
+
+    private int[] vmIds;
+
+    private double[] actualCpuTimes;
+
+    private double[] execStartTimes;
+
+    private double[] finishTimes;
+
+    private double[] submissionTimes;
+
+    /** The number of rows. */
+    private int size;
+
+    public CloudletResultStore() {
+        this(1024);
+    }
+
+    /**
+     * Creates a store.
+     * @param initialCapacity the number of rows to allocate up front
+     */
+    public CloudletResultStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        cloudletIds = new int[capacity];
+        statuses = new int[capacity];
+        resourceIds = new int[capacity];
+        vmIds = new int[capacity];
+        actualCpuTimes = new double[capacity];
+        execStartTimes = new double[capacity];
+        finishTimes = new double[capacity];
+        submissionTimes = new double[capacity];
+    }
+
+    /**
+     * Adds the results of a cloudlet as a new row.
+     * @param cloudlet the returned cloudlet
+     */
+    public void record(Cloudlet cloudlet) {
+        record(cloudlet, cloudlet.getSubmissionTime());
+    }
+
+    /**
+     * Adds the results of a cloudlet as a new row, with the time it arrived at its broker as the
+     * submission time, so its turnaround and waiting times count the time it was held there
+     * before its datacenter received it.
+     * @param cloudlet the returned cloudlet
+     * @param arrivalTime the time the cloudlet arrived
+     */
+    public void record(Cloudlet cloudlet, double arrivalTime) {
+        if (size == cloudletIds.length) {
+            grow();
+        }
+        int row = size++;
+        cloudletIds[row] = cloudlet.getCloudletId();
+        statuses[row] = cloudlet.getCloudletStatus();
+        resourceIds[row] = cloudlet.getResourceId();
+        vmIds[row] = cloudlet.getVmId();
+        // the time the cloudlet ran on its datacenter, summed over its runs if it was preempted;
+        // getActualCPUTime() only counts from the start of the last one
+        actualCpuTimes[row] = cloudlet.getActualCPUTime(cloudlet.getResourceId());
+        execStartTimes[row] = cloudlet.getExecStartTime();
+        finishTimes[row] = cloudlet.getFinishTime();
+        submissionTimes[row] = arrivalTime;
+    }
+
+    /**
+     * Adds a row of results read back from a file.
+     * @param cloudletId the cloudlet id
+     * @param status the cloudlet status
+     * @param resourceId the id of the datacenter that ran the cloudlet
+     * @param vmId the id of the VM that ran the cloudlet
+     * @param actualCpuTime the CPU time
+     * @param execStartTime the start time
+     * @param finishTime the finish time
+     * @param submissionTime the submission time
+     */
+    public void record(int cloudletId, int status, int resourceId, int vmId, double actualCpuTime,
+            double execStartTime, double finishTime, double submissionTime) {
+        if (size == cloudletIds.length) {
+            grow();
+        }
+        int row = size++;
+        cloudletIds[row] = cloudletId;
+        statuses[row] = status;
+        resourceIds[row] = resourceId;
+        vmIds[row] = vmId;
+        actualCpuTimes[row] = actualCpuTime;
+        execStartTimes[row] = execStartTime;
+        finishTimes[row] = finishTime;
+        submissionTimes[row] = submissionTime;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCloudletId(int row) {
+        return cloudletIds[row];
+    }
+
+    public int getStatus(int row) {
+        return statuses[row];
+    }
+
+    public int getResourceId(int row) {
+        return resourceIds[row];
+    }
+
+    public int getVmId(int row) {
+        return vmIds[row];
+    }
+
+    /**
+     * Gets the time a cloudlet ran, which leaves out the time it spent preempted.
+     * @param row the row
+     * @return the CPU time
+     */
+    public double getActualCPUTime(int row) {
+        return actualCpuTimes[row];
+    }
+
+    /**
+     * Gets the time a cloudlet first started, before any preemption.
+     * @param row the row
+     * @return the start time
+     */
+    public double getExecStartTime(int row) {
+        return execStartTimes[row];
+    }
+
+    public double getFinishTime(int row) {
+        return finishTimes[row];
+    }
+
+    public double getSubmissionTime(int row) {
+        return submissionTimes[row];
+    }
+
+    /**
+     * Gets the time from submission to finish of a cloudlet.
+     * @param row the row of the cloudlet
+     * @return the turnaround time
+     */
+    public double getTurnaroundTime(int row) {
+        return finishTimes[row] - submissionTimes[row];
+    }
+
+    /**
+     * Gets the time a cloudlet spent waiting rather than running.
+     * @param row the row of the cloudlet
+     * @return the waiting time
+     */
+    public double getWaitingTime(int row) {
+        return finishTimes[row] - submissionTimes[row] - actualCpuTimes[row];
+    }
+
+    /**
+     * Gets the number of cloudlets that finished successfully.
+     * @return the number of successful rows
+     */
+    public int countSuccessful() {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (statuses[row] == Cloudlet.SUCCESS) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the latest finish time of all successful cloudlets.
+     * @return the makespan
+     */
+    public double getMakespan() {
+        double makespan = 0.0;
+        for (int row = 0; row < size; row++) {
+            if (statuses[row] == Cloudlet.SUCCESS && finishTimes[row] > makespan) {
+                makespan = finishTimes[row];
+            }
+        }
+        return makespan;
+    }
+
+    /**
+     * Gets the mean turnaround time of successful cloudlets.
+     * @return the mean turnaround time, or 0 if none succeeded
+     */
+    public double getMeanTurnaroundTime() {
+        double total = 0.0;
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (statuses[row] == Cloudlet.SUCCESS) {
+                total += finishTimes[row] - submissionTimes[row];
+                count++;
+            }
+        }
+        return count > 0 ? total / count : 0.0;
+    }
+
+    /**
+     * Gets the mean waiting time of successful cloudlets.
+     * @return the mean waiting time, or 0 if none succeeded
+     */
+    public double getMeanWaitingTime() {
+        double total = 0.0;
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (statuses[row] == Cloudlet.SUCCESS) {
+                total += finishTimes[row] - submissionTimes[row] - actualCpuTimes[row];
+                count++;
+            }
+        }
+        return count > 0 ? total / count : 0.0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = cloudletIds.length + (cloudletIds.length >> 1);
+        cloudletIds = Arrays.copyOf(cloudletIds, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        resourceIds = Arrays.copyOf(resourceIds, capacity);
+        vmIds = Arrays.copyOf(vmIds, capacity);
+        actualCpuTimes = Arrays.copyOf(actualCpuTimes, capacity);
+        execStartTimes = Arrays.copyOf(execStartTimes, capacity);
+        finishTimes = Arrays.copyOf(finishTimes, capacity);
+        submissionTimes = Arrays.copyOf(submissionTimes, capacity);
+    }
+}
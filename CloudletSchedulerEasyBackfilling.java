@@ -0,0 +1,252 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.ResCloudlet;
+
+/**
+ * Space-shared Shortest Job First cloudlet scheduler with EASY backfilling, for cloudlets that
+ * need several PEs.
+ *
+ * Plain SJF starts the shortest waiting cloudlet only once enough PEs are free, leaving the others
+ * idle in the meantime. Here, when the shortest cloudlet does not fit, it gets a reservation: the
+ * earliest time at which the running cloudlets will have freed enough PEs for it, its shadow time.
+ * Shorter or narrower cloudlets are then started in the free PEs, shortest first, as long as they
+ * cannot delay that reservation: either they finish by the shadow time, or they only use PEs the
+ * reserved cloudlet will leave free, its extra PEs. The reserved cloudlet starts no later than it
+ * would have without backfilling, and no PE is left idle that a waiting cloudlet could use.
+ *
+ * All times are virtual, as in {@link CloudletSchedulerSjf}, so the running cloudlets form a
+ * free-PE profile: the PEs each one releases, keyed on the virtual time at which it finishes. The
+ * shadow time is found by walking the profile in order until enough PEs are released, and whether
+ * a cloudlet finishes by it is one comparison. Each finish time releases at least one PE, so the
+ * walk visits at most as many entries as the reserved cloudlet lacks PEs: O(p) for a VM of p PEs,
+ * however many cloudlets wait. No order-statistics tree is kept for it, as the running cloudlets,
+ * and so the entries of the profile, are never more than the PEs of the VM.
+ *
+ * Waiting cloudlets are kept in one heap per width, as the shortest cloudlet of a width is the
+ * only one of that width that can be started: a longer one would not finish sooner, and PEs only
+ * depend on the width. Choosing the next cloudlet to backfill thus costs O(w + log n) for w widths
+ * and n waiting cloudlets, however many cloudlets wait.
+ *
+ * Before dispatching, the cloudlets started at the current time that have not run yet go back to
+ * the waiting cloudlets. They are found in one pass over the running cloudlets and each removed
+ * through the index of the running heap, O(r + k log r) for r running cloudlets and k of them
+ * moved back.
+ *
+ * A cloudlet wider than the VM can never start. It gets no reservation, so it does not hold up the
+ * others.
+ */
+public class CloudletSchedulerEasyBackfilling extends CloudletSchedulerSjf {
+
+    /** The waiting cloudlets by number of PEs, keyed on {@link #getWaitingKey(double, int)}. */
+    private ResCloudletHeap[] widthHeaps = new ResCloudletHeap[2];
+
+    /** The number of cloudlets in the width heaps. */
+    private int waiting;
+
+    /** The PEs released by the running cloudlets, by the virtual time they finish at. */
+    private final TreeMap<Double, Integer> releases = new TreeMap<Double, Integer>();
+
+    /** The ids of the running cloudlets to move back, reused between dispatches. */
+    private int[] preemptable = new int[8];
+
+    /**
+     * Creates a new CloudletSchedulerEasyBackfilling object.
+     */
+    public CloudletSchedulerEasyBackfilling() {
+        super();
+    }
+
+    @Override
+    public Cloudlet cloudletCancel(int cloudletId) {
+        ResCloudlet rcl = removeWaiting(cloudletId);
+        if (rcl != null) {
+            rcl.setCloudletStatus(Cloudlet.CANCELED);
+            return rcl.getCloudlet();
+        }
+        return super.cloudletCancel(cloudletId);
+    }
+
+    @Override
+    public boolean cloudletPause(int cloudletId) {
+        ResCloudlet rcl = removeWaiting(cloudletId);
+        if (rcl != null) {
+            rcl.setCloudletStatus(Cloudlet.PAUSED);
+            getCloudletPausedList().add(rcl);
+            return true;
+        }
+        return super.cloudletPause(cloudletId);
+    }
+
+    @Override
+    public int getCloudletStatus(int cloudletId) {
+        for (ResCloudletHeap heap : widthHeaps) {
+            int slot = heap == null ? -1 : heap.indexOf(cloudletId);
+            if (slot >= 0) {
+                return heap.get(slot).getCloudletStatus();
+            }
+        }
+        return super.getCloudletStatus(cloudletId);
+    }
+
+    @Override
+    public int waitingCloudlets() {
+        return waiting + waitingHeap.size();
+    }
+
+    /**
+     * Starts the shortest waiting cloudlet while it fits in the free PEs, then backfills around
+     * its reservation. Cloudlets started at the current time that have not run yet are moved back
+     * first, so that cloudlets arriving at the same time are planned together.
+     */
+    @Override
+    protected void dispatch(double currentTime) {
+        int count = findPreemptable(currentTime);
+        for (int i = 0; i < count; i++) {
+            preempt(runningHeap.indexOf(preemptable[i]));
+        }
+        // cloudlets are queued in the single waiting heap by the superclass
+        while (!waitingHeap.isEmpty()) {
+            double key = waitingHeap.peekKey();
+            ResCloudlet rcl = waitingHeap.poll();
+            getWidthHeap(rcl.getNumberOfPes()).add(rcl, key);
+            waiting++;
+        }
+
+        int free = currentCpus - usedPes;
+        int head;
+        while ((head = findShortest(currentCpus, Double.POSITIVE_INFINITY, 0)) > 0 && head <= free) {
+            startWaiting(head);
+            free -= head;
+        }
+        if (head < 0) {
+            return;
+        }
+
+        // the head does not fit: reserve its PEs at the first time the running cloudlets release them
+        double shadowTime = Double.POSITIVE_INFINITY;
+        int extra = 0;
+        int available = free;
+        for (Map.Entry<Double, Integer> release : releases.entrySet()) {
+            available += release.getValue();
+            if (available >= head) {
+                shadowTime = release.getKey();
+                extra = available - head;
+                break;
+            }
+        }
+
+        int width;
+        while ((width = findShortest(free, shadowTime, extra)) > 0) {
+            boolean beforeShadow = getFinishKey(widthHeaps[width].peek()) <= shadowTime;
+            startWaiting(width);
+            free -= width;
+            if (!beforeShadow) {
+                extra -= width;
+            }
+        }
+    }
+
+    /**
+     * Gets the width of the shortest waiting cloudlet that fits in the free PEs and either
+     * finishes by the shadow time or uses no more than the extra PEs.
+     * @param free the free PEs, or the PEs of the VM to find the head of the queue
+     * @param shadowTime the virtual time of the reservation
+     * @param extra the PEs the reservation leaves free
+     * @return the width, or -1 if no cloudlet can start
+     */
+    private int findShortest(int free, double shadowTime, int extra) {
+        int best = -1;
+        double bestKey = Double.POSITIVE_INFINITY;
+        int widths = Math.min(free, widthHeaps.length - 1);
+        for (int width = 1; width <= widths; width++) {
+            ResCloudletHeap heap = widthHeaps[width];
+            if (heap == null || heap.isEmpty() || heap.peekKey() >= bestKey) {
+                continue;
+            }
+            if (width <= extra || getFinishKey(heap.peek()) <= shadowTime) {
+                best = width;
+                bestKey = heap.peekKey();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Starts the shortest waiting cloudlet of a width.
+     */
+    private void startWaiting(int width) {
+        ResCloudlet rcl = widthHeaps[width].poll();
+        waiting--;
+        startCloudlet(rcl);
+    }
+
+    @Override
+    protected void startCloudlet(ResCloudlet rcl) {
+        super.startCloudlet(rcl);
+        Double key = getFinishKey(rcl);
+        Integer pes = releases.get(key);
+        releases.put(key, pes == null ? rcl.getNumberOfPes() : pes + rcl.getNumberOfPes());
+    }
+
+    @Override
+    protected ResCloudlet removeRunning(int slot) {
+        Double key = runningHeap.keyAt(slot);
+        ResCloudlet rcl = super.removeRunning(slot);
+        int pes = releases.get(key) - rcl.getNumberOfPes();
+        if (pes == 0) {
+            releases.remove(key);
+        } else {
+            releases.put(key, pes);
+        }
+        return rcl;
+    }
+
+    /**
+     * Puts the ids of the running cloudlets that may go back to the waiting cloudlets in
+     * {@link #preemptable}, in the order of their slots.
+     * @return the number of cloudlets found
+     */
+    private int findPreemptable(double currentTime) {
+        int count = 0;
+        for (int i = 0; i < runningHeap.size(); i++) {
+            ResCloudlet rcl = runningHeap.get(i);
+            if (canPreempt(rcl, currentTime)) {
+                if (count == preemptable.length) {
+                    preemptable = Arrays.copyOf(preemptable, count * 2);
+                }
+                preemptable[count++] = rcl.getCloudletId();
+            }
+        }
+        return count;
+    }
+
+    private ResCloudletHeap getWidthHeap(int width) {
+        if (width >= widthHeaps.length) {
+            widthHeaps = Arrays.copyOf(widthHeaps, Math.max(width + 1, widthHeaps.length * 2));
+        }
+        if (widthHeaps[width] == null) {
+            widthHeaps[width] = new ResCloudletHeap();
+        }
+        return widthHeaps[width];
+    }
+
+    /**
+     * Removes a cloudlet from the width heaps.
+     * @return the cloudlet, or null if it is not waiting
+     */
+    private ResCloudlet removeWaiting(int cloudletId) {
+        for (ResCloudletHeap heap : widthHeaps) {
+            int slot = heap == null ? -1 : heap.indexOf(cloudletId);
+            if (slot >= 0) {
+                waiting--;
+                return heap.removeAt(slot);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,544 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.ResCloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * Time-shared cloudlet scheduler that runs every cloudlet at once, as
+ * {@link CloudletSchedulerTimeShared} does, in O(log n) per submission and completion.
+ *
+ * All running cloudlets share the PEs of the VM fairly: each PE of a cloudlet gets the total MIPS
+ * divided by the larger of the PEs in use and the PEs of the VM. That share changes with every
+ * arrival and departure, but it is the same for every cloudlet, so the cloudlets that use the same
+ * number of PEs all run the same amount of instructions between two updates. Each width thus has
+ * a virtual time, the instructions run by any of its cloudlets since the width was last idle, and
+ * a heap of its cloudlets keyed on the virtual time at which they finish, their tag, which never
+ * changes while they run. An update advances the virtual time of each width and pops the
+ * cloudlets whose tag has been reached, instead of updating every cloudlet and scanning them all
+ * for the next finisher, which makes the time-shared scheduler quadratic in the cloudlets of a VM.
+ *
+ * Virtual times count millionths of MI in a long, as the time-shared scheduler counts the
+ * instructions a cloudlet has run, and advance by the same rounded amounts, so cloudlets finish at
+ * exactly the same times and in the same order. As there, a submission does not advance the
+ * cloudlets: the time since the last update is shared at the next one among all the cloudlets
+ * then running.
+ */
+public class CloudletSchedulerFairShare extends CloudletScheduler {
+
+    /** The running cloudlets by number of PEs. */
+    private WidthQueue[] widths = new WidthQueue[2];
+
+    /** The number of running cloudlets. */
+    private int running;
+
+    /** The number of PEs used by running cloudlets. */
+    private int usedPes;
+
+    /** The number of PEs and the total MIPS of the last mips share. */
+    private int currentCpus;
+
+    private double totalMips;
+
+    /** The order in which the next cloudlet is started. */
+    private long nextSequence;
+
+    /**
+     * The millionths of MI each paused cloudlet has left, which its ResCloudlet only gives in whole
+     * MI, so that it resumes with the fraction the time-shared scheduler keeps.
+     */
+    private final Map<Integer, Long> pausedRemaining = new HashMap<Integer, Long>();
+
+    /**
+     * Creates a new CloudletSchedulerFairShare object.
+     */
+    public CloudletSchedulerFairShare() {
+        super();
+        cloudletWaitingList = new ArrayList<ResCloudlet>();
+        cloudletExecList = new ArrayList<ResCloudlet>();
+        cloudletPausedList = new ArrayList<ResCloudlet>();
+        cloudletFinishedList = new ArrayList<ResCloudlet>();
+    }
+
+    @Override
+    public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+        if (!SimulationProfiler.ENABLED) {
+            return update(currentTime, mipsShare);
+        }
+        long start = System.nanoTime();
+        double nextEvent = update(currentTime, mipsShare);
+        SimulationProfiler.recordSchedulerUpdate(start);
+        return nextEvent;
+    }
+
+    /**
+     * Updates the processing of cloudlets up to the current time.
+     * @see #updateVmProcessing(double, List)
+     */
+    private double update(double currentTime, List<Double> mipsShare) {
+        setCurrentMipsShare(mipsShare);
+        updateCapacity(mipsShare);
+        double timeSpan = currentTime - getPreviousTime();
+        double capacity = getShare(usedPes);
+        for (int pes = 1; pes < widths.length; pes++) {
+            if (widths[pes] != null && widths[pes].size > 0) {
+                widths[pes].virtualTime += (long) (capacity * timeSpan * pes * Consts.MILLION);
+            }
+        }
+        setPreviousTime(currentTime);
+        if (running == 0) {
+            return 0.0;
+        }
+
+        // cloudlets with less than one MI left are finished, in the order they started
+        List<ResCloudlet> finished = null;
+        long[] sequences = null;
+        for (int pes = 1; pes < widths.length; pes++) {
+            WidthQueue width = widths[pes];
+            while (width != null && width.size > 0 && width.getRemaining(0) < Consts.MILLION) {
+                if (finished == null) {
+                    finished = new ArrayList<ResCloudlet>();
+                    sequences = new long[4];
+                }
+                if (finished.size() == sequences.length) {
+                    sequences = Arrays.copyOf(sequences, sequences.length * 2);
+                }
+                sequences[finished.size()] = width.sequences[0];
+                finished.add(removeRunning(width, 0));
+            }
+        }
+        if (finished != null) {
+            finishInOrder(finished, sequences);
+        }
+
+        double nextEvent = Double.MAX_VALUE;
+        capacity = getShare(usedPes);
+        for (int pes = 1; pes < widths.length; pes++) {
+            WidthQueue width = widths[pes];
+            if (width == null || width.size == 0) {
+                continue;
+            }
+            long remainingLength = width.getRemaining(0) / Consts.MILLION;
+            double estimatedFinishTime = currentTime + remainingLength / (capacity * pes);
+            if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+                estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
+            }
+            if (estimatedFinishTime < nextEvent) {
+                nextEvent = estimatedFinishTime;
+            }
+        }
+        return nextEvent;
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+        ResCloudlet rcl = new ResCloudlet(cloudlet);
+        rcl.setCloudletStatus(Cloudlet.INEXEC);
+        for (int i = 0; i < cloudlet.getNumberOfPes(); i++) {
+            rcl.setMachineAndPeId(0, i);
+        }
+
+        // use the current capacity to estimate the extra amount of
+        // time to file transferring. It must be added to the cloudlet length
+        double capacity = getShare(usedPes + rcl.getNumberOfPes());
+        double extraSize = capacity * fileTransferTime;
+        long length = (long) (cloudlet.getCloudletLength() + extraSize);
+        cloudlet.setCloudletLength(length);
+
+        startCloudlet(rcl, rcl.getRemainingCloudletLength() * Consts.MILLION);
+        return cloudlet.getCloudletLength() / capacity;
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet) {
+        return cloudletSubmit(cloudlet, 0.0);
+    }
+
+    @Override
+    public Cloudlet cloudletCancel(int cloudletId) {
+        // First, looks in the finished queue
+        for (ResCloudlet rcl : getCloudletFinishedList()) {
+            if (rcl.getCloudletId() == cloudletId) {
+                getCloudletFinishedList().remove(rcl);
+                return rcl.getCloudlet();
+            }
+        }
+
+        // Then searches in the running cloudlets
+        ResCloudlet rcl = removeRunning(cloudletId);
+        if (rcl != null) {
+            if (rcl.getRemainingCloudletLength() == 0) {
+                cloudletFinish(rcl);
+            } else {
+                rcl.setCloudletStatus(Cloudlet.CANCELED);
+            }
+            return rcl.getCloudlet();
+        }
+
+        // Now, looks in the paused queue
+        for (ResCloudlet paused : getCloudletPausedList()) {
+            if (paused.getCloudletId() == cloudletId) {
+                getCloudletPausedList().remove(paused);
+                pausedRemaining.remove(cloudletId);
+                paused.setCloudletStatus(Cloudlet.CANCELED);
+                return paused.getCloudlet();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean cloudletPause(int cloudletId) {
+        for (WidthQueue width : widths) {
+            int slot = width == null ? -1 : width.indexOf(cloudletId);
+            if (slot < 0) {
+                continue;
+            }
+            long remaining = width.getRemaining(slot);
+            ResCloudlet rcl = removeRunning(width, slot);
+            if (rcl.getRemainingCloudletLength() == 0) {
+                cloudletFinish(rcl);
+            } else {
+                rcl.setCloudletStatus(Cloudlet.PAUSED);
+                getCloudletPausedList().add(rcl);
+                pausedRemaining.put(cloudletId, remaining);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public double cloudletResume(int cloudletId) {
+        List<ResCloudlet> pausedList = getCloudletPausedList();
+        for (int i = 0; i < pausedList.size(); i++) {
+            ResCloudlet rcl = pausedList.get(i);
+            if (rcl.getCloudletId() == cloudletId) {
+                pausedList.remove(i);
+                rcl.setCloudletStatus(Cloudlet.RESUMED);
+                startCloudlet(rcl, pausedRemaining.remove(cloudletId));
+                double remainingLength = rcl.getRemainingCloudletLength();
+                return CloudSim.clock() + remainingLength / (getShare(usedPes) * rcl.getNumberOfPes());
+            }
+        }
+        return 0.0;
+    }
+
+    @Override
+    public void cloudletFinish(ResCloudlet rcl) {
+        rcl.setCloudletStatus(Cloudlet.SUCCESS);
+        rcl.finalizeCloudlet();
+        getCloudletFinishedList().add(rcl);
+    }
+
+    @Override
+    public int getCloudletStatus(int cloudletId) {
+        for (WidthQueue width : widths) {
+            int slot = width == null ? -1 : width.indexOf(cloudletId);
+            if (slot >= 0) {
+                return width.cloudlets[slot].getCloudletStatus();
+            }
+        }
+        for (ResCloudlet rcl : getCloudletPausedList()) {
+            if (rcl.getCloudletId() == cloudletId) {
+                return rcl.getCloudletStatus();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public double getTotalUtilizationOfCpu(double time) {
+        double totalUtilization = 0;
+        for (WidthQueue width : widths) {
+            for (int i = 0; width != null && i < width.size; i++) {
+                totalUtilization += CloudletTemplate.getUtilizationOfCpu(width.cloudlets[i].getCloudlet(), time);
+            }
+        }
+        return totalUtilization;
+    }
+
+    @Override
+    public boolean isFinishedCloudlets() {
+        return getCloudletFinishedList().size() > 0;
+    }
+
+    @Override
+    public Cloudlet getNextFinishedCloudlet() {
+        if (getCloudletFinishedList().size() > 0) {
+            return getCloudletFinishedList().remove(0).getCloudlet();
+        }
+        return null;
+    }
+
+    @Override
+    public int runningCloudlets() {
+        return running;
+    }
+
+    /**
+     * Migrates the running cloudlet that started first, as the time-shared scheduler does.
+     */
+    @Override
+    public Cloudlet migrateCloudlet() {
+        WidthQueue first = null;
+        int firstSlot = -1;
+        for (WidthQueue width : widths) {
+            for (int i = 0; width != null && i < width.size; i++) {
+                if (first == null || width.sequences[i] < first.sequences[firstSlot]) {
+                    first = width;
+                    firstSlot = i;
+                }
+            }
+        }
+        if (first == null) {
+            return null;
+        }
+        ResCloudlet rcl = removeRunning(first, firstSlot);
+        rcl.finalizeCloudlet();
+        return rcl.getCloudlet();
+    }
+
+    @Override
+    public List<Double> getCurrentRequestedMips() {
+        List<Double> mipsShare = new ArrayList<Double>();
+        if (getCurrentMipsShare() != null) {
+            for (Double mips : getCurrentMipsShare()) {
+                mipsShare.add(mips);
+            }
+        }
+        return mipsShare;
+    }
+
+    @Override
+    public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+        return getShare(usedPes);
+    }
+
+    @Override
+    public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+        return 0.0;
+    }
+
+    @Override
+    public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+        return 0.0;
+    }
+
+    @Override
+    public double getCurrentRequestedUtilizationOfRam() {
+        return 0;
+    }
+
+    @Override
+    public double getCurrentRequestedUtilizationOfBw() {
+        return 0;
+    }
+
+    /**
+     * Gets the MIPS each PE of a cloudlet gets when the running cloudlets use a given number of
+     * PEs, computed as the time-shared scheduler does.
+     * @param pesInUse the PEs used by the running cloudlets
+     * @return the MIPS per PE
+     */
+    protected double getShare(int pesInUse) {
+        return totalMips / Math.max(pesInUse, currentCpus);
+    }
+
+    /**
+     * Sets the number of available PEs and their total MIPS from a mips share.
+     * @param mipsShare the mips share
+     */
+    protected void updateCapacity(List<Double> mipsShare) {
+        double mipsSum = 0.0;
+        int cpus = 0;
+        for (Double mips : mipsShare) {
+            mipsSum += mips;
+            if (mips > 0.0) {
+                cpus++;
+            }
+        }
+        totalMips = mipsSum;
+        currentCpus = cpus;
+    }
+
+    /**
+     * Starts running a cloudlet.
+     * @param remaining the millionths of MI it has left
+     */
+    private void startCloudlet(ResCloudlet rcl, long remaining) {
+        int pes = rcl.getNumberOfPes();
+        if (pes >= widths.length) {
+            widths = Arrays.copyOf(widths, Math.max(pes + 1, widths.length * 2));
+        }
+        if (widths[pes] == null) {
+            widths[pes] = new WidthQueue();
+        }
+        widths[pes].add(rcl, remaining, nextSequence++);
+        running++;
+        usedPes += pes;
+    }
+
+    /**
+     * Removes a running cloudlet, recording the instructions it has run since it started.
+     */
+    private ResCloudlet removeRunning(WidthQueue width, int slot) {
+        long executed = width.virtualTime - width.startTimes[slot];
+        ResCloudlet rcl = width.removeAt(slot);
+        if (width.size == 0) {
+            // an idle width has no tags to keep, so its virtual time starts over
+            width.virtualTime = 0;
+        }
+        rcl.updateCloudletFinishedSoFar(executed);
+        running--;
+        usedPes -= rcl.getNumberOfPes();
+        return rcl;
+    }
+
+    private ResCloudlet removeRunning(int cloudletId) {
+        for (WidthQueue width : widths) {
+            int slot = width == null ? -1 : width.indexOf(cloudletId);
+            if (slot >= 0) {
+                return removeRunning(width, slot);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finishes cloudlets in the order they started, which is the order of the execution list of
+     * the time-shared scheduler.
+     */
+    private void finishInOrder(List<ResCloudlet> finished, long[] sequences) {
+        Integer[] order = new Integer[finished.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        final long[] keys = sequences;
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+        for (Integer i : order) {
+            cloudletFinish(finished.get(i));
+        }
+    }
+
+    /**
+     * The running cloudlets of one width, in a binary heap on their tag then start order.
+     */
+    private static final class WidthQueue {
+
+        /** The millionths of MI run by each cloudlet of the width since it was last idle. */
+        long virtualTime;
+
+        /** The virtual time at which each cloudlet has no instruction left. */
+        long[] tags = new long[8];
+
+        /** The virtual time at which each cloudlet started. */
+        long[] startTimes = new long[8];
+
+        long[] sequences = new long[8];
+
+        ResCloudlet[] cloudlets = new ResCloudlet[8];
+
+        int size;
+
+        /**
+         * Gets the millionths of MI a cloudlet has left.
+         */
+        long getRemaining(int slot) {
+            return Math.max(tags[slot] - virtualTime, 0);
+        }
+
+        void add(ResCloudlet rcl, long remaining, long sequence) {
+            if (size == tags.length) {
+                int capacity = size * 2;
+                tags = Arrays.copyOf(tags, capacity);
+                startTimes = Arrays.copyOf(startTimes, capacity);
+                sequences = Arrays.copyOf(sequences, capacity);
+                cloudlets = Arrays.copyOf(cloudlets, capacity);
+            }
+            int slot = size++;
+            set(slot, virtualTime + remaining, virtualTime, sequence, rcl);
+            siftUp(slot);
+        }
+
+        ResCloudlet removeAt(int slot) {
+            ResCloudlet rcl = cloudlets[slot];
+            int last = --size;
+            if (slot != last) {
+                set(slot, tags[last], startTimes[last], sequences[last], cloudlets[last]);
+                cloudlets[last] = null;
+                siftDown(slot);
+                siftUp(slot);
+            } else {
+                cloudlets[last] = null;
+            }
+            return rcl;
+        }
+
+        int indexOf(int cloudletId) {
+            for (int i = 0; i < size; i++) {
+                if (cloudlets[i].getCloudletId() == cloudletId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean before(int slot, int other) {
+            return tags[slot] < tags[other] || tags[slot] == tags[other] && sequences[slot] < sequences[other];
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (!before(slot, parent)) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int child = 2 * slot + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && before(child + 1, child)) {
+                    child++;
+                }
+                if (!before(child, slot)) {
+                    return;
+                }
+                swap(slot, child);
+                slot = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tag = tags[a];
+            long startTime = startTimes[a];
+            long sequence = sequences[a];
+            ResCloudlet rcl = cloudlets[a];
+            set(a, tags[b], startTimes[b], sequences[b], cloudlets[b]);
+            set(b, tag, startTime, sequence, rcl);
+        }
+
+        private void set(int slot, long tag, long startTime, long sequence, ResCloudlet rcl) {
+            tags[slot] = tag;
+            startTimes[slot] = startTime;
+            sequences[slot] = sequence;
+            cloudlets[slot] = rcl;
+        }
+    }
+}
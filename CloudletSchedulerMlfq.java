@@ -0,0 +1,659 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.ResCloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * Space-shared, preemptive multi-level feedback queue cloudlet scheduler, for cloudlets whose
+ * length is not known up front.
+ *
+ * {@link CloudletSchedulerSjf} orders cloudlets on their exact length. This scheduler never reads
+ * it: every cloudlet starts in the top level, and a cloudlet that uses up the quantum of its level
+ * drops to the next one. Short cloudlets thus finish in the upper levels while long ones sink, and
+ * a cloudlet in a higher level takes the PEs of one in a lower level, so the order approaches
+ * shortest first as the cloudlets run. Cloudlets of the same level take turns, each running for
+ * the quantum of the level while others of its level or above wait; a quantum of
+ * {@link Double#POSITIVE_INFINITY} runs them in the order they reached the level instead. Every
+ * boost interval, all cloudlets go back to the top level with a fresh quantum, so the long ones
+ * are not starved by a steady flow of short ones. A boost sends every waiting cloudlet through the
+ * finite quanta again, so the interval should be well above their sum times the cloudlets waiting.
+ *
+ * Demoting on run time favours short cloudlets the more the lengths vary: with a few long
+ * cloudlets among many short ones, as in a heavy-tailed workload, the mean turnaround time is close
+ * to that of SJF, while with lengths spread evenly, long cloudlets of similar length share the
+ * upper levels and it can be worse than running them in order.
+ *
+ * Each level is a circular doubly-linked queue threaded through the cloudlets themselves, so
+ * queueing, preempting, demoting and cancelling a cloudlet cost O(1), and a boost moves each level
+ * onto the top one in O(1) rather than each cloudlet. Running cloudlets are bounded by the number
+ * of PEs and are updated one by one. The scheduler asks for an event at the first completion,
+ * quantum expiry or boost, never one per time slice.
+ */
+public class CloudletSchedulerMlfq extends CloudletScheduler {
+
+    /** The quanta of the default levels, in seconds of run time. */
+    private static final double[] DEFAULT_QUANTA = { 2, 4, Double.POSITIVE_INFINITY };
+
+    /** The default time between boosts, in seconds. */
+    private static final double DEFAULT_BOOST_INTERVAL = 10000;
+
+    /** The run time a cloudlet gets in each level before it is demoted, top level first. */
+    private final double[] quanta;
+
+    /** The time between two boosts, or 0 for none. */
+    private final double boostInterval;
+
+    /** The waiting cloudlets of each level, in the order they run. */
+    private final Job[] levels;
+
+    /** The running cloudlets, in the order they started. */
+    private final Job running = new Job(null);
+
+    /** The waiting and running cloudlets, by id. */
+    private final Map<Integer, Job> jobs = new HashMap<Integer, Job>();
+
+    /** The number of cloudlets in the levels. */
+    private int waiting;
+
+    /** The number of running cloudlets. */
+    private int runningCount;
+
+    /** The number of PEs currently available for the VM using the scheduler. */
+    private int currentCpus;
+
+    /** The number of PEs currently used by running cloudlets. */
+    private int usedPes;
+
+    /** The average MIPS of each PE in the last mips share. */
+    private double capacity;
+
+    /** The number of boosts so far, which tells the cloudlets that still have to start over. */
+    private long epoch;
+
+    /** The time of the next boost. */
+    private double nextBoost;
+
+    /**
+     * Creates a new CloudletSchedulerMlfq object with quanta of 2 and 4 seconds above a last level
+     * that runs the cloudlets in order, and a boost every 10000 seconds.
+     */
+    public CloudletSchedulerMlfq() {
+        this(DEFAULT_QUANTA, DEFAULT_BOOST_INTERVAL);
+    }
+
+    /**
+     * Creates a new CloudletSchedulerMlfq object.
+     * @param quanta the quantum of each level in seconds of run time, top level first; the last
+     *            may be {@link Double#POSITIVE_INFINITY}
+     * @param boostInterval the time between boosts in seconds, or 0 for none
+     */
+    public CloudletSchedulerMlfq(double[] quanta, double boostInterval) {
+        super();
+        if (quanta.length == 0) {
+            throw new IllegalArgumentException("The scheduler needs at least one level");
+        }
+        for (double quantum : quanta) {
+            if (!(quantum > 0)) {
+                throw new IllegalArgumentException("Quanta must be positive");
+            }
+        }
+        if (boostInterval < 0) {
+            throw new IllegalArgumentException("The boost interval must not be negative");
+        }
+        cloudletWaitingList = new ArrayList<ResCloudlet>();
+        cloudletExecList = new ArrayList<ResCloudlet>();
+        cloudletPausedList = new ArrayList<ResCloudlet>();
+        cloudletFinishedList = new ArrayList<ResCloudlet>();
+        this.quanta = quanta.clone();
+        this.boostInterval = boostInterval;
+        this.nextBoost = boostInterval > 0 ? boostInterval : Double.MAX_VALUE;
+        levels = new Job[quanta.length];
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = new Job(null);
+        }
+    }
+
+    @Override
+    public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+        if (!SimulationProfiler.ENABLED) {
+            return update(currentTime, mipsShare);
+        }
+        long start = System.nanoTime();
+        double nextEvent = update(currentTime, mipsShare);
+        SimulationProfiler.recordSchedulerUpdate(start);
+        return nextEvent;
+    }
+
+    /**
+     * Updates the processing of cloudlets up to the current time.
+     * @see #updateVmProcessing(double, List)
+     */
+    private double update(double currentTime, List<Double> mipsShare) {
+        setCurrentMipsShare(mipsShare);
+        updateCapacity(mipsShare);
+        advanceTo(currentTime);
+
+        // no more cloudlets in this scheduler
+        if (jobs.isEmpty()) {
+            return 0.0;
+        }
+
+        if (currentTime >= nextBoost - CloudSim.getMinTimeBetweenEvents()) {
+            boost(currentTime);
+        }
+
+        Job next;
+        for (Job job = running.next; job != running; job = next) {
+            next = job.next;
+            // finished anyway if less than one MI is left, as in the other schedulers
+            if (job.remaining < 1.0) {
+                removeRunning(job);
+                jobs.remove(job.rcl.getCloudletId());
+                cloudletFinish(job.rcl);
+            } else if (quanta[job.level] - job.used < CloudSim.getMinTimeBetweenEvents()) {
+                demote(job);
+            }
+        }
+
+        dispatch();
+        return getNextEventTime(currentTime);
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+        double currentTime = CloudSim.clock();
+        advanceTo(currentTime);
+
+        // use the current capacity to estimate the extra amount of
+        // time to file transferring. It must be added to the cloudlet length
+        double extraSize = capacity * fileTransferTime;
+        long length = cloudlet.getCloudletLength();
+        length += extraSize;
+        cloudlet.setCloudletLength(length);
+
+        ResCloudlet rcl = new ResCloudlet(cloudlet);
+        rcl.setCloudletStatus(Cloudlet.QUEUED);
+        queue(new Job(rcl));
+        dispatch();
+
+        // a queued cloudlet needs no event of its own: it starts when a running one stops
+        if (rcl.getCloudletStatus() != Cloudlet.INEXEC || capacity <= 0.0) {
+            return 0.0;
+        }
+        return getNextEventTime(currentTime) - currentTime;
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet) {
+        return cloudletSubmit(cloudlet, 0.0);
+    }
+
+    @Override
+    public Cloudlet cloudletCancel(int cloudletId) {
+        // First, looks in the finished queue
+        for (ResCloudlet rcl : getCloudletFinishedList()) {
+            if (rcl.getCloudletId() == cloudletId) {
+                getCloudletFinishedList().remove(rcl);
+                return rcl.getCloudlet();
+            }
+        }
+
+        // Then searches in the running and waiting cloudlets
+        Job job = jobs.remove(cloudletId);
+        if (job != null) {
+            if (job.rcl.getCloudletStatus() == Cloudlet.INEXEC) {
+                advanceTo(CloudSim.clock());
+                removeRunning(job);
+                if (job.rcl.getRemainingCloudletLength() == 0) {
+                    cloudletFinish(job.rcl);
+                    return job.rcl.getCloudlet();
+                }
+            } else {
+                unlink(job);
+                waiting--;
+            }
+            job.rcl.setCloudletStatus(Cloudlet.CANCELED);
+            return job.rcl.getCloudlet();
+        }
+
+        // Now, looks in the paused queue
+        for (ResCloudlet rcl : getCloudletPausedList()) {
+            if (rcl.getCloudletId() == cloudletId) {
+                getCloudletPausedList().remove(rcl);
+                rcl.setCloudletStatus(Cloudlet.CANCELED);
+                return rcl.getCloudlet();
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean cloudletPause(int cloudletId) {
+        Job job = jobs.remove(cloudletId);
+        if (job == null) {
+            return false;
+        }
+        if (job.rcl.getCloudletStatus() == Cloudlet.INEXEC) {
+            advanceTo(CloudSim.clock());
+            removeRunning(job);
+        } else {
+            unlink(job);
+            waiting--;
+        }
+        job.rcl.setCloudletStatus(Cloudlet.PAUSED);
+        getCloudletPausedList().add(job.rcl);
+        return true;
+    }
+
+    /**
+     * Resumes a paused cloudlet in the top level, as a new arrival.
+     */
+    @Override
+    public double cloudletResume(int cloudletId) {
+        List<ResCloudlet> pausedList = getCloudletPausedList();
+        for (int i = 0; i < pausedList.size(); i++) {
+            ResCloudlet rcl = pausedList.get(i);
+            if (rcl.getCloudletId() == cloudletId) {
+                pausedList.remove(i);
+                double currentTime = CloudSim.clock();
+                advanceTo(currentTime);
+                rcl.setCloudletStatus(Cloudlet.QUEUED);
+                queue(new Job(rcl));
+                dispatch();
+
+                if (rcl.getCloudletStatus() != Cloudlet.INEXEC || capacity <= 0.0) {
+                    return 0.0;
+                }
+                return getNextEventTime(currentTime);
+            }
+        }
+        return 0.0;
+    }
+
+    @Override
+    public void cloudletFinish(ResCloudlet rcl) {
+        rcl.setCloudletStatus(Cloudlet.SUCCESS);
+        rcl.finalizeCloudlet();
+        getCloudletFinishedList().add(rcl);
+    }
+
+    @Override
+    public int getCloudletStatus(int cloudletId) {
+        Job job = jobs.get(cloudletId);
+        if (job != null) {
+            return job.rcl.getCloudletStatus();
+        }
+
+        for (ResCloudlet rcl : getCloudletPausedList()) {
+            if (rcl.getCloudletId() == cloudletId) {
+                return rcl.getCloudletStatus();
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public double getTotalUtilizationOfCpu(double time) {
+        double totalUtilization = 0;
+        for (Job job = running.next; job != running; job = job.next) {
+            totalUtilization += CloudletTemplate.getUtilizationOfCpu(job.rcl.getCloudlet(), time);
+        }
+        return totalUtilization;
+    }
+
+    @Override
+    public boolean isFinishedCloudlets() {
+        return getCloudletFinishedList().size() > 0;
+    }
+
+    @Override
+    public Cloudlet getNextFinishedCloudlet() {
+        if (getCloudletFinishedList().size() > 0) {
+            return getCloudletFinishedList().remove(0).getCloudlet();
+        }
+        return null;
+    }
+
+    @Override
+    public int runningCloudlets() {
+        return runningCount;
+    }
+
+    /**
+     * Migrates the running cloudlet that started first.
+     */
+    @Override
+    public Cloudlet migrateCloudlet() {
+        Job job = running.next;
+        if (job == running) {
+            return null;
+        }
+        advanceTo(CloudSim.clock());
+        removeRunning(job);
+        jobs.remove(job.rcl.getCloudletId());
+        job.rcl.finalizeCloudlet();
+        return job.rcl.getCloudlet();
+    }
+
+    @Override
+    public List<Double> getCurrentRequestedMips() {
+        List<Double> mipsShare = new ArrayList<Double>();
+        if (getCurrentMipsShare() != null) {
+            for (Double mips : getCurrentMipsShare()) {
+                mipsShare.add(mips);
+            }
+        }
+        return mipsShare;
+    }
+
+    @Override
+    public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+        double totalMips = 0.0;
+        int cpus = 0;
+        for (Double mips : mipsShare) {
+            totalMips += mips;
+            if (mips > 0) {
+                cpus++;
+            }
+        }
+        return cpus > 0 ? totalMips / cpus : 0.0;
+    }
+
+    @Override
+    public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+        return 0.0;
+    }
+
+    @Override
+    public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+        return 0.0;
+    }
+
+    @Override
+    public double getCurrentRequestedUtilizationOfRam() {
+        return 0;
+    }
+
+    @Override
+    public double getCurrentRequestedUtilizationOfBw() {
+        return 0;
+    }
+
+    /**
+     * Gets the number of cloudlets waiting for free PEs.
+     * @return the number of waiting cloudlets
+     */
+    public int waitingCloudlets() {
+        return waiting;
+    }
+
+    /**
+     * Gets the quantum of each level.
+     * @return the quanta in seconds, top level first
+     */
+    public double[] getQuanta() {
+        return quanta.clone();
+    }
+
+    public double getBoostInterval() {
+        return boostInterval;
+    }
+
+    /**
+     * Starts the head of the highest waiting level while it fits in the free PEs, taking the PEs
+     * of running cloudlets of lower levels, lowest first, when that frees enough of them.
+     */
+    private void dispatch() {
+        while (waiting > 0) {
+            int level = 0;
+            while (levels[level].next == levels[level]) {
+                level++;
+            }
+            Job head = levels[level].next;
+            int free = currentCpus - usedPes;
+            if (head.rcl.getNumberOfPes() <= free) {
+                unlink(head);
+                waiting--;
+                startJob(head, level);
+                continue;
+            }
+
+            // the running cloudlets are bounded by the number of PEs, so they are scanned
+            Job victim = null;
+            int reclaimable = free;
+            for (Job job = running.next; job != running; job = job.next) {
+                if (job.level > level) {
+                    reclaimable += job.rcl.getNumberOfPes();
+                    if (victim == null || job.level > victim.level) {
+                        victim = job;
+                    }
+                }
+            }
+            if (victim == null || reclaimable < head.rcl.getNumberOfPes()) {
+                return;
+            }
+            removeRunning(victim);
+            // pausing first accounts for the time the cloudlet has already run
+            victim.rcl.setCloudletStatus(Cloudlet.PAUSED);
+            victim.rcl.setCloudletStatus(Cloudlet.QUEUED);
+            // a preempted cloudlet keeps what is left of its quantum and runs first in its level
+            victim.epoch = epoch;
+            linkAfter(levels[victim.level], victim);
+            waiting++;
+        }
+    }
+
+    /**
+     * Moves a running cloudlet whose quantum has expired one level down. It keeps its PEs unless
+     * a cloudlet of that level or above is waiting for them.
+     */
+    private void demote(Job job) {
+        job.level = Math.min(job.level + 1, levels.length - 1);
+        job.used = 0.0;
+        for (int level = 0; level <= job.level; level++) {
+            if (levels[level].next != levels[level]) {
+                removeRunning(job);
+                job.rcl.setCloudletStatus(Cloudlet.PAUSED);
+                job.rcl.setCloudletStatus(Cloudlet.QUEUED);
+                job.epoch = epoch;
+                linkAfter(levels[job.level].prev, job);
+                waiting++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves every cloudlet to the top level with a fresh quantum. The waiting levels are appended
+     * to the top one whole; their cloudlets learn of the boost from the epoch when they start.
+     */
+    private void boost(double currentTime) {
+        Job top = levels[0];
+        for (int level = 1; level < levels.length; level++) {
+            Job queue = levels[level];
+            if (queue.next != queue) {
+                Job first = queue.next;
+                Job last = queue.prev;
+                first.prev = top.prev;
+                top.prev.next = first;
+                last.next = top;
+                top.prev = last;
+                queue.next = queue;
+                queue.prev = queue;
+            }
+        }
+        epoch++;
+        for (Job job = running.next; job != running; job = job.next) {
+            job.level = 0;
+            job.used = 0.0;
+            job.epoch = epoch;
+        }
+        nextBoost = currentTime + boostInterval;
+    }
+
+    /**
+     * Queues a new cloudlet at the end of the top level.
+     */
+    private void queue(Job job) {
+        job.epoch = epoch;
+        jobs.put(job.rcl.getCloudletId(), job);
+        linkAfter(levels[0].prev, job);
+        waiting++;
+    }
+
+    /**
+     * Starts a waiting cloudlet on the free PEs.
+     * @param job the cloudlet
+     * @param level the level it was taken from
+     */
+    private void startJob(Job job, int level) {
+        if (job.epoch != epoch) {
+            // boosted while waiting
+            job.used = 0.0;
+            job.epoch = epoch;
+        }
+        job.level = level;
+        job.remaining = job.rcl.getRemainingCloudletLength();
+        ResCloudlet rcl = job.rcl;
+        // a cloudlet that has run before keeps the time it first started, which setting it in
+        // execution again would overwrite; CloudSim sums the time of each run on its own
+        double firstStart = rcl.getCloudlet().getExecStartTime();
+        rcl.setCloudletStatus(Cloudlet.INEXEC);
+        if (job.remaining < rcl.getCloudletTotalLength()) {
+            rcl.getCloudlet().setExecStartTime(firstStart);
+        }
+        for (int i = 0; i < rcl.getNumberOfPes(); i++) {
+            rcl.setMachineAndPeId(0, i);
+        }
+        linkAfter(running.prev, job);
+        runningCount++;
+        usedPes += rcl.getNumberOfPes();
+    }
+
+    /**
+     * Stops a running cloudlet, recording the MI it has run since it started.
+     */
+    private void removeRunning(Job job) {
+        unlink(job);
+        runningCount--;
+        usedPes -= job.rcl.getNumberOfPes();
+        double executed = job.rcl.getRemainingCloudletLength() - job.remaining;
+        if (executed > 0) {
+            job.rcl.updateCloudletFinishedSoFar((long) (executed * Consts.MILLION));
+        }
+    }
+
+    /**
+     * Gets the time of the first completion, quantum expiry or boost.
+     * @param currentTime the current simulation time
+     * @return the time or {@link Double#MAX_VALUE} if nothing is running
+     */
+    private double getNextEventTime(double currentTime) {
+        if (runningCount == 0 || capacity <= 0.0) {
+            return Double.MAX_VALUE;
+        }
+        double nextEvent = Double.MAX_VALUE;
+        boolean demoted = false;
+        for (Job job = running.next; job != running; job = job.next) {
+            double finishTime = job.remaining / (capacity * job.rcl.getNumberOfPes());
+            nextEvent = Math.min(nextEvent, currentTime + Math.min(finishTime, quanta[job.level] - job.used));
+            demoted |= job.level > 0;
+        }
+        for (int level = 1; level < levels.length && !demoted; level++) {
+            demoted = levels[level].next != levels[level];
+        }
+        // a boost only matters once a cloudlet has left the top level
+        if (demoted) {
+            nextEvent = Math.min(nextEvent, nextBoost);
+        }
+        if (nextEvent - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+            nextEvent = currentTime + CloudSim.getMinTimeBetweenEvents();
+        }
+        return nextEvent;
+    }
+
+    /**
+     * Advances the running cloudlets to the given simulation time at the current capacity.
+     * @param currentTime the current simulation time
+     */
+    private void advanceTo(double currentTime) {
+        double timeSpan = currentTime - getPreviousTime();
+        if (timeSpan > 0) {
+            for (Job job = running.next; job != running; job = job.next) {
+                job.used += timeSpan;
+                job.remaining -= capacity * timeSpan * job.rcl.getNumberOfPes();
+            }
+        }
+        setPreviousTime(currentTime);
+    }
+
+    /**
+     * Sets the number of available PEs and their average capacity from a mips share.
+     * @param mipsShare the mips share
+     */
+    private void updateCapacity(List<Double> mipsShare) {
+        double totalMips = 0.0;
+        int cpus = 0;
+        for (Double mips : mipsShare) {
+            totalMips += mips;
+            if (mips > 0) {
+                cpus++;
+            }
+        }
+        currentCpus = cpus;
+        capacity = cpus > 0 ? totalMips / cpus : 0.0;
+    }
+
+    private static void linkAfter(Job previous, Job job) {
+        job.prev = previous;
+        job.next = previous.next;
+        previous.next.prev = job;
+        previous.next = job;
+    }
+
+    private static void unlink(Job job) {
+        job.prev.next = job.next;
+        job.next.prev = job.prev;
+        job.prev = null;
+        job.next = null;
+    }
+
+    /**
+     * A cloudlet with the links of the queue it is in. A job without a cloudlet is the head of a
+     * circular queue, linked to itself when the queue is empty.
+     */
+    private static final class Job {
+
+        final ResCloudlet rcl;
+
+        Job prev = this;
+
+        Job next = this;
+
+        /** The level of a running cloudlet; a waiting one is at the level of its queue. */
+        int level;
+
+        /** The run time used of the quantum of the level. */
+        double used;
+
+        /** The MI a running cloudlet has left. */
+        double remaining;
+
+        /** The boosts done when the cloudlet last ran or was queued. */
+        long epoch;
+
+        Job(ResCloudlet rcl) {
+            this.rcl = rcl;
+        }
+    }
+}
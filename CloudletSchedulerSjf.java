@@ -0,0 +1,518 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.ResCloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * Space-shared, non-preemptive Shortest Job First cloudlet scheduler.
+ *
+ * Waiting cloudlets are kept in a {@link ResCloudletHeap} keyed on their remaining length, so the
+ * next cloudlet to run is always the head of the heap. Running cloudlets are kept in a second heap
+ * keyed on the virtual time at which they finish, where virtual time counts the MI delivered to
+ * each PE since the VM was last idle. Since every running cloudlet advances at the same rate
+ * per PE, those keys never change while the cloudlet runs: an update only advances the virtual
+ * time and pops the cloudlets that have reached their key. Submissions and completions cost
+ * O(log n) however many cloudlets are queued on the VM.
+ *
+ * Cloudlets that arrive at the same simulation time are ordered by length: a cloudlet that was
+ * started at the current time but has not run yet gives its PEs back to a shorter arrival.
+ */
+public class CloudletSchedulerSjf extends CloudletScheduler {
+
+    /** The number of PEs currently available for the VM using the scheduler. */
+    protected int currentCpus;
+
+    /** The number of PEs currently used by running cloudlets. */
+    protected int usedPes;
+
+    /** The average MIPS of each PE in the last mips share. */
+    protected double capacity;
+
+    /** The MI delivered to each PE since the VM was last idle. */
+    protected double virtualTime;
+
+    /** The running cloudlets, keyed on the virtual time at which they finish. */
+    protected final ResCloudletHeap runningHeap;
+
+    /** The waiting cloudlets, keyed on {@link #getWaitingKey(double, int)}. */
+    protected final ResCloudletHeap waitingHeap;
+
+    /**
+     * Creates a new CloudletSchedulerSjf object.
+     */
+    public CloudletSchedulerSjf() {
+        super();
+        cloudletWaitingList = new ArrayList<ResCloudlet>();
+        cloudletExecList = new ArrayList<ResCloudlet>();
+        cloudletPausedList = new ArrayList<ResCloudlet>();
+        cloudletFinishedList = new ArrayList<ResCloudlet>();
+        runningHeap = new ResCloudletHeap();
+        waitingHeap = new ResCloudletHeap();
+        usedPes = 0;
+        currentCpus = 0;
+    }
+
+    @Override
+    public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+        if (!SimulationProfiler.ENABLED) {
+            return update(currentTime, mipsShare);
+        }
+        long start = System.nanoTime();
+        double nextEvent = update(currentTime, mipsShare);
+        SimulationProfiler.recordSchedulerUpdate(start);
+        return nextEvent;
+    }
+
+    /**
+     * Updates the processing of cloudlets up to the current time.
+     * @see #updateVmProcessing(double, List)
+     */
+    private double update(double currentTime, List<Double> mipsShare) {
+        setCurrentMipsShare(mipsShare);
+        updateCapacity(mipsShare);
+        advanceTo(currentTime);
+
+        // no more cloudlets in this scheduler
+        if (runningHeap.isEmpty() && waitingCloudlets() == 0) {
+            return 0.0;
+        }
+
+        // finished anyway if less than one MI is left, as in the other schedulers
+        while (!runningHeap.isEmpty() && getRemainingLength(0) < 1.0) {
+            cloudletFinish(removeRunning(0));
+        }
+
+        dispatch(currentTime);
+        return getNextFinishTime(currentTime);
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+        double currentTime = CloudSim.clock();
+        advanceTo(currentTime);
+
+        // use the current capacity to estimate the extra amount of
+        // time to file transferring. It must be added to the cloudlet length
+        double extraSize = capacity * fileTransferTime;
+        long length = cloudlet.getCloudletLength();
+        length += extraSize;
+        cloudlet.setCloudletLength(length);
+
+        ResCloudlet rcl = new ResCloudlet(cloudlet);
+        rcl.setCloudletStatus(Cloudlet.QUEUED);
+        waitingHeap.add(rcl, getWaitingKey(rcl.getRemainingCloudletLength(), rcl.getNumberOfPes()));
+        dispatch(currentTime);
+
+        // a queued cloudlet needs no event of its own: it starts when a running one finishes
+        if (rcl.getCloudletStatus() != Cloudlet.INEXEC || capacity <= 0.0) {
+            return 0.0;
+        }
+        return (double) rcl.getRemainingCloudletLength() / rcl.getNumberOfPes() / capacity;
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet) {
+        return cloudletSubmit(cloudlet, 0.0);
+    }
+
+    @Override
+    public Cloudlet cloudletCancel(int cloudletId) {
+        // First, looks in the finished queue
+        for (ResCloudlet rcl : getCloudletFinishedList()) {
+            if (rcl.getCloudletId() == cloudletId) {
+                getCloudletFinishedList().remove(rcl);
+                return rcl.getCloudlet();
+            }
+        }
+
+        // Then searches in the running heap
+        int slot = runningHeap.indexOf(cloudletId);
+        if (slot >= 0) {
+            advanceTo(CloudSim.clock());
+            ResCloudlet rcl = removeRunning(slot);
+            if (rcl.getRemainingCloudletLength() == 0) {
+                cloudletFinish(rcl);
+            } else {
+                rcl.setCloudletStatus(Cloudlet.CANCELED);
+            }
+            return rcl.getCloudlet();
+        }
+
+        // Now, looks in the paused queue
+        for (ResCloudlet rcl : getCloudletPausedList()) {
+            if (rcl.getCloudletId() == cloudletId) {
+                getCloudletPausedList().remove(rcl);
+                rcl.setCloudletStatus(Cloudlet.CANCELED);
+                return rcl.getCloudlet();
+            }
+        }
+
+        // Finally, looks in the waiting heap
+        slot = waitingHeap.indexOf(cloudletId);
+        if (slot >= 0) {
+            ResCloudlet rcl = waitingHeap.removeAt(slot);
+            rcl.setCloudletStatus(Cloudlet.CANCELED);
+            return rcl.getCloudlet();
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean cloudletPause(int cloudletId) {
+        int slot = runningHeap.indexOf(cloudletId);
+        if (slot >= 0) {
+            advanceTo(CloudSim.clock());
+            ResCloudlet rcl = removeRunning(slot);
+            rcl.setCloudletStatus(Cloudlet.PAUSED);
+            getCloudletPausedList().add(rcl);
+            return true;
+        }
+
+        slot = waitingHeap.indexOf(cloudletId);
+        if (slot >= 0) {
+            ResCloudlet rcl = waitingHeap.removeAt(slot);
+            rcl.setCloudletStatus(Cloudlet.PAUSED);
+            getCloudletPausedList().add(rcl);
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public double cloudletResume(int cloudletId) {
+        List<ResCloudlet> pausedList = getCloudletPausedList();
+        for (int i = 0; i < pausedList.size(); i++) {
+            ResCloudlet rcl = pausedList.get(i);
+            if (rcl.getCloudletId() == cloudletId) {
+                pausedList.remove(i);
+                double currentTime = CloudSim.clock();
+                advanceTo(currentTime);
+                rcl.setCloudletStatus(Cloudlet.QUEUED);
+                waitingHeap.add(rcl, getWaitingKey(rcl.getRemainingCloudletLength(), rcl.getNumberOfPes()));
+                dispatch(currentTime);
+
+                if (rcl.getCloudletStatus() != Cloudlet.INEXEC || capacity <= 0.0) {
+                    return 0.0;
+                }
+                return currentTime + (double) rcl.getRemainingCloudletLength() / rcl.getNumberOfPes() / capacity;
+            }
+        }
+        return 0.0;
+    }
+
+    @Override
+    public void cloudletFinish(ResCloudlet rcl) {
+        rcl.setCloudletStatus(Cloudlet.SUCCESS);
+        rcl.finalizeCloudlet();
+        getCloudletFinishedList().add(rcl);
+    }
+
+    @Override
+    public int getCloudletStatus(int cloudletId) {
+        int slot = runningHeap.indexOf(cloudletId);
+        if (slot >= 0) {
+            return runningHeap.get(slot).getCloudletStatus();
+        }
+
+        slot = waitingHeap.indexOf(cloudletId);
+        if (slot >= 0) {
+            return waitingHeap.get(slot).getCloudletStatus();
+        }
+
+        for (ResCloudlet rcl : getCloudletPausedList()) {
+            if (rcl.getCloudletId() == cloudletId) {
+                return rcl.getCloudletStatus();
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public double getTotalUtilizationOfCpu(double time) {
+        double totalUtilization = 0;
+        for (int i = 0; i < runningHeap.size(); i++) {
+            totalUtilization += CloudletTemplate.getUtilizationOfCpu(runningHeap.get(i).getCloudlet(), time);
+        }
+        return totalUtilization;
+    }
+
+    @Override
+    public boolean isFinishedCloudlets() {
+        return getCloudletFinishedList().size() > 0;
+    }
+
+    @Override
+    public Cloudlet getNextFinishedCloudlet() {
+        if (getCloudletFinishedList().size() > 0) {
+            return getCloudletFinishedList().remove(0).getCloudlet();
+        }
+        return null;
+    }
+
+    @Override
+    public int runningCloudlets() {
+        return runningHeap.size();
+    }
+
+    @Override
+    public Cloudlet migrateCloudlet() {
+        if (runningHeap.isEmpty()) {
+            return null;
+        }
+        advanceTo(CloudSim.clock());
+        ResCloudlet rcl = removeRunning(0);
+        rcl.finalizeCloudlet();
+        return rcl.getCloudlet();
+    }
+
+    @Override
+    public List<Double> getCurrentRequestedMips() {
+        List<Double> mipsShare = new ArrayList<Double>();
+        if (getCurrentMipsShare() != null) {
+            for (Double mips : getCurrentMipsShare()) {
+                mipsShare.add(mips);
+            }
+        }
+        return mipsShare;
+    }
+
+    @Override
+    public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+        double totalMips = 0.0;
+        int cpus = 0;
+        for (Double mips : mipsShare) {
+            totalMips += mips;
+            if (mips > 0) {
+                cpus++;
+            }
+        }
+        return cpus > 0 ? totalMips / cpus : 0.0;
+    }
+
+    @Override
+    public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+        return 0.0;
+    }
+
+    @Override
+    public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+        return 0.0;
+    }
+
+    @Override
+    public double getCurrentRequestedUtilizationOfRam() {
+        return 0;
+    }
+
+    @Override
+    public double getCurrentRequestedUtilizationOfBw() {
+        return 0;
+    }
+
+    /**
+     * Gets the number of cloudlets waiting for free PEs.
+     * @return the number of waiting cloudlets
+     */
+    public int waitingCloudlets() {
+        return waitingHeap.size();
+    }
+
+    /**
+     * Gets the key a waiting cloudlet is ordered by. The shortest job runs first, so this is the
+     * remaining length itself.
+     * @param remainingLength the remaining length of the cloudlet in MI
+     * @param pes the number of PEs the cloudlet uses
+     * @return the key
+     */
+    protected double getWaitingKey(double remainingLength, int pes) {
+        return remainingLength;
+    }
+
+    /**
+     * Tells whether a running cloudlet may give its PEs to a shorter waiting one. Being
+     * non-preemptive, SJF only allows it for cloudlets that have not run yet.
+     * @param rcl the running cloudlet
+     * @param currentTime the current simulation time
+     * @return true if the cloudlet can be moved back to the waiting heap
+     */
+    protected boolean canPreempt(ResCloudlet rcl, double currentTime) {
+        return rcl.getCloudlet().getExecStartTime() >= currentTime;
+    }
+
+    /**
+     * Starts waiting cloudlets, shortest first, while the head of the waiting heap fits in the free
+     * PEs, moving running cloudlets back to the waiting heap where {@link #canPreempt} allows.
+     * @param currentTime the current simulation time
+     */
+    protected void dispatch(double currentTime) {
+        while (!waitingHeap.isEmpty()) {
+            ResCloudlet next = waitingHeap.peek();
+            if (currentCpus - usedPes >= next.getNumberOfPes()) {
+                startCloudlet(waitingHeap.poll());
+                continue;
+            }
+
+            // the running set is bounded by the number of PEs, so it is scanned: once to check that
+            // the cloudlets that may give way free enough PEs for the head, then once per victim,
+            // longest first
+            int freePes = currentCpus - usedPes;
+            for (int i = 0; i < runningHeap.size(); i++) {
+                if (getVictimKey(i, currentTime) > waitingHeap.peekKey()) {
+                    freePes += runningHeap.get(i).getNumberOfPes();
+                }
+            }
+            if (freePes < next.getNumberOfPes()) {
+                return;
+            }
+            while (currentCpus - usedPes < next.getNumberOfPes()) {
+                int victim = 0;
+                for (int i = 1; i < runningHeap.size(); i++) {
+                    if (getVictimKey(i, currentTime) > getVictimKey(victim, currentTime)) {
+                        victim = i;
+                    }
+                }
+                preempt(victim);
+            }
+        }
+    }
+
+    /**
+     * Gets the key a running cloudlet would have in the waiting heap, for choosing which cloudlets
+     * give way to a shorter one. Running lengths come from the virtual time, whose rounding error
+     * grows with it, so they count one MI less, the granularity CloudSim tracks lengths in: two
+     * cloudlets of the same length must not take each other's PEs in turn forever.
+     * @param slot the slot of the cloudlet in the running heap
+     * @param currentTime the current simulation time
+     * @return the key, or negative infinity if {@link #canPreempt} does not allow it
+     */
+    private double getVictimKey(int slot, double currentTime) {
+        ResCloudlet rcl = runningHeap.get(slot);
+        if (!canPreempt(rcl, currentTime)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return getWaitingKey(getRemainingLength(slot) - 1.0, rcl.getNumberOfPes());
+    }
+
+    /**
+     * Moves a running cloudlet back to the waiting heap.
+     * @param slot the slot of the cloudlet in the running heap
+     */
+    protected void preempt(int slot) {
+        ResCloudlet rcl = removeRunning(slot);
+        // pausing first accounts for the time the cloudlet has already run
+        rcl.setCloudletStatus(Cloudlet.PAUSED);
+        rcl.setCloudletStatus(Cloudlet.QUEUED);
+        waitingHeap.add(rcl, getWaitingKey(rcl.getRemainingCloudletLength(), rcl.getNumberOfPes()));
+    }
+
+    /**
+     * Starts a cloudlet on the free PEs.
+     * @param rcl the cloudlet
+     */
+    protected void startCloudlet(ResCloudlet rcl) {
+        // a preempted cloudlet that has run keeps the time it first started, which setting it in
+        // execution again would overwrite; CloudSim sums the time of each run on its own
+        double firstStart = rcl.getCloudlet().getExecStartTime();
+        rcl.setCloudletStatus(Cloudlet.INEXEC);
+        if (rcl.getRemainingCloudletLength() < rcl.getCloudletTotalLength()) {
+            rcl.getCloudlet().setExecStartTime(firstStart);
+        }
+        for (int i = 0; i < rcl.getNumberOfPes(); i++) {
+            rcl.setMachineAndPeId(0, i);
+        }
+        usedPes += rcl.getNumberOfPes();
+        runningHeap.add(rcl, getFinishKey(rcl));
+    }
+
+    /**
+     * Gets the virtual time at which a cloudlet started now finishes.
+     * @param rcl the cloudlet
+     * @return the key of the cloudlet in the running heap
+     */
+    protected double getFinishKey(ResCloudlet rcl) {
+        return virtualTime + (double) rcl.getRemainingCloudletLength() / rcl.getNumberOfPes();
+    }
+
+    /**
+     * Removes a cloudlet from the running heap, recording the MI it has run since it started.
+     * @param slot the slot of the cloudlet in the running heap
+     * @return the cloudlet
+     */
+    protected ResCloudlet removeRunning(int slot) {
+        double remainingLength = getRemainingLength(slot);
+        ResCloudlet rcl = runningHeap.removeAt(slot);
+        double executed = rcl.getRemainingCloudletLength() - remainingLength;
+        if (executed > 0) {
+            rcl.updateCloudletFinishedSoFar((long) (executed * Consts.MILLION));
+        }
+        usedPes -= rcl.getNumberOfPes();
+        return rcl;
+    }
+
+    /**
+     * Gets the remaining length of a running cloudlet.
+     * @param slot the slot of the cloudlet in the running heap
+     * @return the remaining length in MI
+     */
+    protected double getRemainingLength(int slot) {
+        return (runningHeap.keyAt(slot) - virtualTime) * runningHeap.get(slot).getNumberOfPes();
+    }
+
+    /**
+     * Gets the time the first running cloudlet finishes.
+     * @param currentTime the current simulation time
+     * @return the finish time or {@link Double#MAX_VALUE} if nothing is running
+     */
+    protected double getNextFinishTime(double currentTime) {
+        if (runningHeap.isEmpty() || capacity <= 0.0) {
+            return Double.MAX_VALUE;
+        }
+        double estimatedFinishTime = currentTime + (runningHeap.peekKey() - virtualTime) / capacity;
+        if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+            estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
+        }
+        return estimatedFinishTime;
+    }
+
+    /**
+     * Advances the virtual time to the given simulation time at the current capacity. An idle VM
+     * has no keys to keep, so its virtual time starts over from 0, which keeps its rounding from
+     * depending on how long the VM has run.
+     * @param currentTime the current simulation time
+     */
+    protected void advanceTo(double currentTime) {
+        double timeSpan = currentTime - getPreviousTime();
+        if (runningHeap.isEmpty()) {
+            virtualTime = 0.0;
+        } else if (timeSpan > 0) {
+            virtualTime += capacity * timeSpan;
+        }
+        setPreviousTime(currentTime);
+    }
+
+    /**
+     * Sets the number of available PEs and their average capacity from a mips share.
+     * @param mipsShare the mips share
+     */
+    protected void updateCapacity(List<Double> mipsShare) {
+        double totalMips = 0.0;
+        int cpus = 0;
+        for (Double mips : mipsShare) {
+            totalMips += mips;
+            if (mips > 0) {
+                cpus++;
+            }
+        }
+        currentCpus = cpus;
+        capacity = cpus > 0 ? totalMips / cpus : 0.0;
+    }
+}
@@ -0,0 +1,47 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.ResCloudlet;
+
+/**
+ * Space-shared, preemptive Shortest Remaining Time First cloudlet scheduler.
+ *
+ * It works as {@link CloudletSchedulerSjf}, but waiting cloudlets are ordered by the time they
+ * still need (remaining length per PE) and any running cloudlet that needs more time than the head
+ * of the waiting heap gives its PEs to it. A preempted cloudlet goes back to the waiting heap with
+ * the length it has left.
+ *
+ * The next completion is read from the head of the running heap, so the scheduler returns one
+ * finish time per update and per submission that changes what runs, never one per time slice. An
+ * arrival that only joins the waiting heap does not ask the datacenter for an event. A Datacenter
+ * does not cancel the events it scheduled before, though, so a preemption that pushes a finish
+ * time back would leave the event for the earlier one queued, to run an update with nothing to
+ * finish. Run it in a {@link ProfiledDatacenter} that keeps a single update event, as the sjf7
+ * scenario does, for one future event per VM: the earlier request is superseded and its event
+ * ignored.
+ */
+public class CloudletSchedulerSrtf extends CloudletSchedulerSjf {
+
+    /**
+     * Creates a new CloudletSchedulerSrtf object.
+     */
+    public CloudletSchedulerSrtf() {
+        super();
+    }
+
+    /**
+     * Gets the key a waiting cloudlet is ordered by: the remaining length per PE, which is
+     * proportional to the time the cloudlet still needs.
+     */
+    @Override
+    protected double getWaitingKey(double remainingLength, int pes) {
+        return remainingLength / pes;
+    }
+
+    /**
+     * Any running cloudlet can be preempted by a cloudlet that needs less time.
+     */
+    @Override
+    protected boolean canPreempt(ResCloudlet rcl, double currentTime) {
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * A source that hands out cloudlets one at a time, in the order of their submit time, so that a
+ * broker can pull a workload in batches instead of receiving it as one list.
+ *
+ * @see DatacenterBrokerStreaming
+ */
+public interface CloudletSource {
+
+    /**
+     * Tells whether the source has more cloudlets.
+     * @return true if there is another cloudlet
+     */
+    boolean hasNext();
+
+    /**
+     * Gets the submit time of the next cloudlet.
+     * @return the submit time or {@link Double#MAX_VALUE} if the source has no more cloudlets
+     */
+    double peekSubmitTime();
+
+    /**
+     * Reads the next cloudlet.
+     * @return the cloudlet or null if the source has no more cloudlets
+     */
+    Cloudlet next();
+
+    /**
+     * Reads the cloudlets submitted up to a given time.
+     * @param batch the list the cloudlets are added to
+     * @param until the latest submit time to read
+     * @param maxSize the most cloudlets to read
+     * @return the number of cloudlets read
+     */
+    int readBatch(List<? super Cloudlet> batch, double until, int maxSize);
+}
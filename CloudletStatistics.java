@@ -0,0 +1,271 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.text.DecimalFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+
+/**
+ * Streaming statistics of returned cloudlets: a {@link LatencyHistogram} of each {@link Metric}
+ * for all cloudlets and for each broker, VM and datacenter. Only successful cloudlets are
+ * counted. Memory grows with the number of brokers, VMs and datacenters, not with the number of
+ * cloudlets, so a run of any length can be checked against tail-latency targets.
+ *
+ * Statistics with the same histogram settings can be merged, for instance those of the points of
+ * a sweep or of the parts of a split workload.
+ *
+ * @see DatacenterBrokerSjf#setStatistics(CloudletStatistics)
+ */
+public class CloudletStatistics {
+
+    /** The measured times of a cloudlet. */
+    public enum Metric {
+        /** The time from submission to finish. */
+        TURNAROUND,
+        /** The turnaround time not spent running. */
+        WAITING,
+        /** The turnaround time over the time spent running, 1 for a cloudlet that never waited. */
+        SLOWDOWN,
+        /** The time from submission to the start of execution. */
+        RESPONSE
+    }
+
+    /** The percentiles printed by {@link #printSummary()}. */
+    private static final double[] SUMMARY_PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private static final String INDENT = "    ";
+
+    private final double resolution;
+
+    private final int precisionBits;
+
+    private final Histograms total;
+
+    /** The histograms of each broker, by broker id. */
+    private final Map<Integer, Histograms> brokers = new TreeMap<Integer, Histograms>();
+
+    /** The histograms of each VM, by broker id in the high bits and VM id in the low bits. */
+    private final Map<Long, Histograms> vms = new TreeMap<Long, Histograms>();
+
+    /** The histograms of each datacenter, by datacenter id. */
+    private final Map<Integer, Histograms> datacenters = new TreeMap<Integer, Histograms>();
+
+    /**
+     * Creates statistics with the default histogram resolution and precision.
+     */
+    public CloudletStatistics() {
+        this(LatencyHistogram.DEFAULT_RESOLUTION, LatencyHistogram.DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * Creates statistics.
+     * @param resolution the resolution of the histograms
+     * @param precisionBits the precision of the histograms
+     * @see LatencyHistogram#LatencyHistogram(double, int)
+     */
+    public CloudletStatistics(double resolution, int precisionBits) {
+        this.resolution = resolution;
+        this.precisionBits = precisionBits;
+        this.total = new Histograms(resolution, precisionBits);
+    }
+
+    /**
+     * Records a returned cloudlet.
+     * @param cloudlet the cloudlet
+     */
+    public void record(Cloudlet cloudlet) {
+        record(cloudlet, cloudlet.getSubmissionTime());
+    }
+
+    /**
+     * Records a returned cloudlet, measuring its times from the time it arrived at its broker
+     * rather than the time its datacenter received it. Unsuccessful cloudlets are ignored.
+     * @param cloudlet the cloudlet
+     * @param arrivalTime the time the cloudlet arrived
+     */
+    public void record(Cloudlet cloudlet, double arrivalTime) {
+        if (cloudlet.getCloudletStatus() != Cloudlet.SUCCESS) {
+            return;
+        }
+        record(cloudlet.getUserId(), cloudlet.getVmId(), cloudlet.getResourceId(), arrivalTime,
+                cloudlet.getExecStartTime(), cloudlet.getFinishTime(),
+                cloudlet.getActualCPUTime(cloudlet.getResourceId()));
+    }
+
+    /**
+     * Records every cloudlet of a result store.
+     * @param results the store
+     * @param brokerId the broker the cloudlets of the store belong to
+     */
+    public void record(CloudletResultStore results, int brokerId) {
+        for (int row = 0; row < results.size(); row++) {
+            if (results.getStatus(row) == Cloudlet.SUCCESS) {
+                record(brokerId, results.getVmId(row), results.getResourceId(row), results.getSubmissionTime(row),
+                        results.getExecStartTime(row), results.getFinishTime(row), results.getActualCPUTime(row));
+            }
+        }
+    }
+
+    private void record(int brokerId, int vmId, int datacenterId, double submissionTime, double execStartTime,
+            double finishTime, double cpuTime) {
+        double turnaround = finishTime - submissionTime;
+        double waiting = turnaround - cpuTime;
+        // a cloudlet with no CPU time has no slowdown to speak of
+        double slowdown = cpuTime > 0 ? turnaround / cpuTime : 1.0;
+        double response = execStartTime - submissionTime;
+
+        total.record(turnaround, waiting, slowdown, response);
+        histograms(brokers, brokerId).record(turnaround, waiting, slowdown, response);
+        histograms(vms, vmKey(brokerId, vmId)).record(turnaround, waiting, slowdown, response);
+        histograms(datacenters, datacenterId).record(turnaround, waiting, slowdown, response);
+    }
+
+    /**
+     * Adds the statistics of another run to these.
+     * @param other statistics with the same histogram settings
+     */
+    public void merge(CloudletStatistics other) {
+        total.merge(other.total);
+        mergeAll(brokers, other.brokers);
+        mergeAll(vms, other.vms);
+        mergeAll(datacenters, other.datacenters);
+    }
+
+    /**
+     * Gets the histogram of a metric over all cloudlets.
+     * @param metric the metric
+     * @return the histogram
+     */
+    public LatencyHistogram getTotal(Metric metric) {
+        return total.get(metric);
+    }
+
+    /**
+     * Gets the histogram of a metric over the cloudlets of a broker.
+     * @param brokerId the broker id
+     * @param metric the metric
+     * @return the histogram, or null if the broker has no cloudlets
+     */
+    public LatencyHistogram getBroker(int brokerId, Metric metric) {
+        Histograms histograms = brokers.get(brokerId);
+        return histograms == null ? null : histograms.get(metric);
+    }
+
+    /**
+     * Gets the histogram of a metric over the cloudlets of a VM.
+     * @param brokerId the id of the broker that owns the VM
+     * @param vmId the VM id
+     * @param metric the metric
+     * @return the histogram, or null if the VM has no cloudlets
+     */
+    public LatencyHistogram getVm(int brokerId, int vmId, Metric metric) {
+        Histograms histograms = vms.get(vmKey(brokerId, vmId));
+        return histograms == null ? null : histograms.get(metric);
+    }
+
+    /**
+     * Gets the histogram of a metric over the cloudlets of a datacenter.
+     * @param datacenterId the datacenter id
+     * @param metric the metric
+     * @return the histogram, or null if the datacenter has no cloudlets
+     */
+    public LatencyHistogram getDatacenter(int datacenterId, Metric metric) {
+        Histograms histograms = datacenters.get(datacenterId);
+        return histograms == null ? null : histograms.get(metric);
+    }
+
+    /**
+     * Prints the count, mean, percentiles and maximum of every metric, for all cloudlets, then by
+     * broker, datacenter and VM.
+     */
+    public void printSummary() {
+        if (Log.isDisabled()) {
+            return;
+        }
+        StringBuilder header = new StringBuilder("Group" + INDENT + "Metric" + INDENT + "Count" + INDENT + "Mean");
+        for (double percentile : SUMMARY_PERCENTILES) {
+            header.append(INDENT).append('p').append(percentile == (long) percentile
+                    ? String.valueOf((long) percentile) : String.valueOf(percentile));
+        }
+        header.append(INDENT).append("Max");
+        Log.printLine();
+        Log.printLine("========== STATISTICS ==========");
+        Log.printLine(header.toString());
+
+        printGroup("All", total);
+        for (Map.Entry<Integer, Histograms> entry : brokers.entrySet()) {
+            printGroup("Broker " + entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Integer, Histograms> entry : datacenters.entrySet()) {
+            printGroup("Datacenter " + entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Long, Histograms> entry : vms.entrySet()) {
+            long key = entry.getKey();
+            printGroup("VM " + (int) (key >>> 32) + "/" + (int) key, entry.getValue());
+        }
+    }
+
+    private void printGroup(String name, Histograms histograms) {
+        DecimalFormat dft = new DecimalFormat("###.###");
+        for (Metric metric : Metric.values()) {
+            LatencyHistogram histogram = histograms.get(metric);
+            StringBuilder line = new StringBuilder(name).append(INDENT).append(metric).append(INDENT)
+                    .append(histogram.getCount()).append(INDENT).append(dft.format(histogram.getMean()));
+            for (double percentile : SUMMARY_PERCENTILES) {
+                line.append(INDENT).append(dft.format(histogram.getPercentile(percentile)));
+            }
+            line.append(INDENT).append(dft.format(histogram.getMax()));
+            Log.printLine(line.toString());
+        }
+    }
+
+    private static long vmKey(int brokerId, int vmId) {
+        return ((long) brokerId << 32) | (vmId & 0xFFFFFFFFL);
+    }
+
+    private <K> Histograms histograms(Map<K, Histograms> groups, K key) {
+        Histograms histograms = groups.get(key);
+        if (histograms == null) {
+            histograms = new Histograms(resolution, precisionBits);
+            groups.put(key, histograms);
+        }
+        return histograms;
+    }
+
+    private <K> void mergeAll(Map<K, Histograms> groups, Map<K, Histograms> others) {
+        for (Map.Entry<K, Histograms> entry : others.entrySet()) {
+            histograms(groups, entry.getKey()).merge(entry.getValue());
+        }
+    }
+
+    /** One histogram per metric. */
+    private static final class Histograms {
+
+        private final LatencyHistogram[] histograms = new LatencyHistogram[Metric.values().length];
+
+        Histograms(double resolution, int precisionBits) {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram(resolution, precisionBits);
+            }
+        }
+
+        LatencyHistogram get(Metric metric) {
+            return histograms[metric.ordinal()];
+        }
+
+        void record(double turnaround, double waiting, double slowdown, double response) {
+            histograms[Metric.TURNAROUND.ordinal()].record(turnaround);
+            histograms[Metric.WAITING.ordinal()].record(waiting);
+            histograms[Metric.SLOWDOWN.ordinal()].record(slowdown);
+            histograms[Metric.RESPONSE.ordinal()].record(response);
+        }
+
+        void merge(Histograms other) {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i].merge(other.histograms[i]);
+            }
+        }
+    }
+}
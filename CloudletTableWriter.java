@@ -0,0 +1,133 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.text.DecimalFormatSymbols;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+
+/**
+ * Writes the results table the examples print, byte for byte as {@code printCloudletList} wrote it
+ * through {@link Log} with a {@code DecimalFormat("###.##")}. Two layouts are supported: the one
+ * with turnaround and waiting times, and the shorter one without them.
+ */
+public class CloudletTableWriter extends CloudletResultSink {
+
+    private static final String INDENT = "    ";
+
+    private static final byte[] INDENT_BYTES = INDENT.getBytes();
+
+    private static final byte[] SUCCESS = "SUCCESS".getBytes();
+
+    /** The line separator {@link Log#printLine()} writes. */
+    private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes();
+
+    /** Whether the turnaround and waiting times are written. */
+    private final boolean turnaroundColumns;
+
+    /**
+     * Creates a writer to the output of {@link Log}. It must only be flushed, not closed.
+     * @param turnaroundColumns whether the turnaround and waiting times are written
+     * @return the writer
+     */
+    public static CloudletTableWriter toLog(boolean turnaroundColumns) {
+        return new CloudletTableWriter(Channels.newChannel(Log.getOutput()), turnaroundColumns);
+    }
+
+    /**
+     * Creates a writer.
+     * @param channel the channel the table is written to
+     * @param turnaroundColumns whether the turnaround and waiting times are written
+     */
+    public CloudletTableWriter(WritableByteChannel channel, boolean turnaroundColumns) {
+        this(channel, turnaroundColumns, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer.
+     * @param channel the channel the table is written to
+     * @param turnaroundColumns whether the turnaround and waiting times are written
+     * @param bufferSize the size of the buffer in bytes
+     */
+    public CloudletTableWriter(WritableByteChannel channel, boolean turnaroundColumns, int bufferSize) {
+        super(channel, bufferSize, new DecimalFormatSymbols());
+        this.turnaroundColumns = turnaroundColumns;
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        putBytes(LINE_SEPARATOR);
+        putLine("========== OUTPUT ==========");
+        if (turnaroundColumns) {
+            putLine("Cloudlet ID" + INDENT + "STATUS" + INDENT + "Data center ID" + INDENT + "VM ID" + INDENT
+                    + "Time" + INDENT + "Start Time" + INDENT + "Finish Time" + INDENT + "Turn Around Time" + INDENT
+                    + "Waiting Time");
+        } else {
+            putLine("Cloudlet ID" + INDENT + "STATUS" + INDENT + "Datacenter ID" + INDENT + "VM ID" + INDENT
+                    + "Time" + INDENT + "Start Time" + INDENT + "Finish Time");
+        }
+    }
+
+    @Override
+    public void writeRow(CloudletResultStore results, int row) throws IOException {
+        putBytes(INDENT_BYTES);
+        putLong(results.getCloudletId(row));
+        putIndents(2);
+
+        // like printCloudletList, a failed cloudlet gets no line of its own
+        if (results.getStatus(row) != Cloudlet.SUCCESS) {
+            return;
+        }
+        putBytes(SUCCESS);
+        putIndents(2);
+        putLong(results.getResourceId(row));
+        putIndents(turnaroundColumns ? 3 : 2);
+        putLong(results.getVmId(row));
+        putIndents(2);
+        putDecimal(results.getActualCPUTime(row), 2);
+        putIndents(2);
+        putDecimal(results.getExecStartTime(row), 2);
+        putIndents(2);
+        putDecimal(results.getFinishTime(row), 2);
+        if (turnaroundColumns) {
+            putIndents(2);
+            putDecimal(getTurnaroundTime(results, row), 2);
+            putIndents(2);
+            putDecimal(getWaitingTime(results, row), 2);
+        }
+        putBytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * Gets the turnaround time written for a row.
+     * @param results the store
+     * @param row the row
+     * @return the turnaround time
+     */
+    protected double getTurnaroundTime(CloudletResultStore results, int row) {
+        return results.getTurnaroundTime(row);
+    }
+
+    /**
+     * Gets the waiting time written for a row.
+     * @param results the store
+     * @param row the row
+     * @return the waiting time
+     */
+    protected double getWaitingTime(CloudletResultStore results, int row) {
+        return results.getWaitingTime(row);
+    }
+
+    private void putIndents(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            putBytes(INDENT_BYTES);
+        }
+    }
+
+    private void putLine(String line) throws IOException {
+        putBytes(line.getBytes());
+        putBytes(LINE_SEPARATOR);
+    }
+}
@@ -0,0 +1,200 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+
+/**
+ * The shape shared by many cloudlets: their PEs, file size, output size and utilization models.
+ * Only the id and length differ from one cloudlet to the next, so a workload source holds one
+ * template instead of a copy of every setting, and the cloudlets it creates share the same
+ * utilization model objects.
+ *
+ * Templates are immutable. Those with full utilization are interned by {@link #of(int, long, long)},
+ * so a workload of millions of cloudlets refers to a handful of templates and one
+ * {@link #FULL_UTILIZATION} model, which schedulers recognize to skip the utilization lookup.
+ */
+public final class CloudletTemplate implements ExternalSjfSorter.CloudletFactory {
+
+    /** The utilization model of cloudlets that use all of their resources all the time. */
+    public static final UtilizationModel FULL_UTILIZATION = new UtilizationModelFull();
+
+    /** The most templates interned; shapes past it are not shared, so odd traces cannot fill memory. */
+    private static final int MAX_INTERNED = 4096;
+
+    /** The interned templates with full utilization. */
+    private static final Map<CloudletTemplate, CloudletTemplate> INTERNED =
+            new ConcurrentHashMap<CloudletTemplate, CloudletTemplate>();
+
+    /** The shape of the cloudlets of the examples: 1 PE, 300 of file and output size, full utilization. */
+    public static final CloudletTemplate DEFAULT = of(1, 300, 300);
+
+    private final int pes;
+
+    private final long fileSize;
+
+    private final long outputSize;
+
+    private final UtilizationModel utilizationModelCpu;
+
+    private final UtilizationModel utilizationModelRam;
+
+    private final UtilizationModel utilizationModelBw;
+
+    /**
+     * Creates a template.
+     * @param pes the PEs of each cloudlet
+     * @param fileSize the file size of each cloudlet
+     * @param outputSize the output size of each cloudlet
+     * @param utilizationModelCpu the CPU utilization model
+     * @param utilizationModelRam the RAM utilization model
+     * @param utilizationModelBw the bandwidth utilization model
+     */
+    public CloudletTemplate(int pes, long fileSize, long outputSize, UtilizationModel utilizationModelCpu,
+            UtilizationModel utilizationModelRam, UtilizationModel utilizationModelBw) {
+        if (pes < 1) {
+            throw new IllegalArgumentException("A cloudlet needs at least one PE");
+        }
+        this.pes = pes;
+        this.fileSize = fileSize;
+        this.outputSize = outputSize;
+        this.utilizationModelCpu = utilizationModelCpu;
+        this.utilizationModelRam = utilizationModelRam;
+        this.utilizationModelBw = utilizationModelBw;
+    }
+
+    /**
+     * Gets the template with full utilization of a given shape, shared by every caller as long as
+     * fewer than {@value #MAX_INTERNED} shapes have been asked for.
+     * @param pes the PEs of each cloudlet
+     * @param fileSize the file size of each cloudlet
+     * @param outputSize the output size of each cloudlet
+     * @return the template
+     */
+    public static CloudletTemplate of(int pes, long fileSize, long outputSize) {
+        CloudletTemplate template = new CloudletTemplate(pes, fileSize, outputSize, FULL_UTILIZATION,
+                FULL_UTILIZATION, FULL_UTILIZATION);
+        CloudletTemplate interned = INTERNED.get(template);
+        if (interned != null) {
+            return interned;
+        }
+        if (INTERNED.size() >= MAX_INTERNED) {
+            return template;
+        }
+        interned = INTERNED.putIfAbsent(template, template);
+        return interned != null ? interned : template;
+    }
+
+    /**
+     * Creates a cloudlet of this shape.
+     * @param id the cloudlet id
+     * @param length the cloudlet length in MI
+     * @return the cloudlet
+     */
+    @Override
+    public Cloudlet createCloudlet(int id, long length) {
+        return new Cloudlet(id, length, pes, fileSize, outputSize, utilizationModelCpu, utilizationModelRam,
+                utilizationModelBw);
+    }
+
+    /**
+     * Gets a template like this one with another number of PEs.
+     * @param pes the PEs of each cloudlet
+     * @return the template, this one if the PEs are the same
+     */
+    public CloudletTemplate withPes(int pes) {
+        return pes == this.pes ? this : with(pes, fileSize, outputSize);
+    }
+
+    /**
+     * Gets a template like this one with other file and output sizes.
+     * @param fileSize the file size of each cloudlet
+     * @param outputSize the output size of each cloudlet
+     * @return the template, this one if the sizes are the same
+     */
+    public CloudletTemplate withSizes(long fileSize, long outputSize) {
+        return fileSize == this.fileSize && outputSize == this.outputSize ? this : with(pes, fileSize, outputSize);
+    }
+
+    /**
+     * Gets a template like this one with one utilization model for CPU, RAM and bandwidth.
+     * @param utilizationModel the utilization model
+     * @return the template
+     */
+    public CloudletTemplate withUtilizationModel(UtilizationModel utilizationModel) {
+        return utilizationModel == FULL_UTILIZATION ? of(pes, fileSize, outputSize)
+                : new CloudletTemplate(pes, fileSize, outputSize, utilizationModel, utilizationModel, utilizationModel);
+    }
+
+    public int getPes() {
+        return pes;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    public UtilizationModel getUtilizationModelCpu() {
+        return utilizationModelCpu;
+    }
+
+    public UtilizationModel getUtilizationModelRam() {
+        return utilizationModelRam;
+    }
+
+    public UtilizationModel getUtilizationModelBw() {
+        return utilizationModelBw;
+    }
+
+    /**
+     * Gets the CPU utilization of a cloudlet, without asking its model when it is
+     * {@link #FULL_UTILIZATION}.
+     * @param cloudlet the cloudlet
+     * @param time the simulation time
+     * @return the utilization, from 0 to 1
+     */
+    public static double getUtilizationOfCpu(Cloudlet cloudlet, double time) {
+        UtilizationModel model = cloudlet.getUtilizationModelCpu();
+        return model == FULL_UTILIZATION ? 1.0 : model.getUtilization(time);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof CloudletTemplate)) {
+            return false;
+        }
+        CloudletTemplate other = (CloudletTemplate) obj;
+        return pes == other.pes && fileSize == other.fileSize && outputSize == other.outputSize
+                && utilizationModelCpu == other.utilizationModelCpu && utilizationModelRam == other.utilizationModelRam
+                && utilizationModelBw == other.utilizationModelBw;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = pes;
+        result = 31 * result + Long.hashCode(fileSize);
+        result = 31 * result + Long.hashCode(outputSize);
+        result = 31 * result + System.identityHashCode(utilizationModelCpu);
+        result = 31 * result + System.identityHashCode(utilizationModelRam);
+        return 31 * result + System.identityHashCode(utilizationModelBw);
+    }
+
+    /**
+     * Gets a template like this one with another shape, interned if its utilization is full.
+     */
+    private CloudletTemplate with(int pes, long fileSize, long outputSize) {
+        if (utilizationModelCpu == FULL_UTILIZATION && utilizationModelRam == FULL_UTILIZATION
+                && utilizationModelBw == FULL_UTILIZATION) {
+            return of(pes, fileSize, outputSize);
+        }
+        return new CloudletTemplate(pes, fileSize, outputSize, utilizationModelCpu, utilizationModelRam,
+                utilizationModelBw);
+    }
+}
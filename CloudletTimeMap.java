@@ -0,0 +1,137 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+
+/**
+ * A map from cloudlet ids to times, kept in two parallel primitive arrays with open addressing
+ * and linear probing. Putting and removing a time cost O(1) on average and never box, so a
+ * broker can remember a time for each cloudlet in flight without allocating per cloudlet once
+ * the arrays are large enough for the cloudlets it holds at once.
+ */
+public class CloudletTimeMap {
+
+    /** Marks a free slot; cloudlet ids are never negative. */
+    private static final int FREE = -1;
+
+    /** The cloudlet id of each slot, or {@link #FREE}. */
+    private int[] ids;
+
+    /** The time of each slot. */
+    private double[] times;
+
+    /** The number of cloudlets in the map. */
+    private int size;
+
+    public CloudletTimeMap() {
+        this(16);
+    }
+
+    /**
+     * Creates a map.
+     * @param initialCapacity the number of cloudlets the map holds before it grows
+     */
+    public CloudletTimeMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 8) * 2 - 1) * 2;
+        ids = new int[capacity];
+        Arrays.fill(ids, FREE);
+        times = new double[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sets the time of a cloudlet.
+     * @param cloudletId the cloudlet id, not negative
+     * @param time the time
+     */
+    public void put(int cloudletId, double time) {
+        if (cloudletId < 0) {
+            throw new IllegalArgumentException("Cloudlet id " + cloudletId + " is negative");
+        }
+        int slot = find(cloudletId);
+        if (ids[slot] == FREE) {
+            // the arrays are kept at most half full, so probes stay short
+            if (size * 2 >= ids.length) {
+                grow();
+                slot = find(cloudletId);
+            }
+            ids[slot] = cloudletId;
+            size++;
+        }
+        times[slot] = time;
+    }
+
+    /**
+     * Removes the time of a cloudlet.
+     * @param cloudletId the cloudlet id
+     * @param missing the value returned if the cloudlet has no time
+     * @return the time of the cloudlet, or the missing value
+     */
+    public double remove(int cloudletId, double missing) {
+        if (cloudletId < 0) {
+            return missing;
+        }
+        int slot = find(cloudletId);
+        if (ids[slot] == FREE) {
+            return missing;
+        }
+        double time = times[slot];
+        size--;
+
+        // entries further along the probe run move back into the freed slot unless their own home
+        // slot lies between the two, so that a lookup never stops at a hole before reaching them
+        int mask = ids.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (ids[next] == FREE) {
+                break;
+            }
+            int home = hash(ids[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                ids[slot] = ids[next];
+                times[slot] = times[next];
+                slot = next;
+            }
+        }
+        ids[slot] = FREE;
+        return time;
+    }
+
+    /**
+     * Gets the slot of a cloudlet, or the free slot where it would go.
+     */
+    private int find(int cloudletId) {
+        int mask = ids.length - 1;
+        int slot = hash(cloudletId) & mask;
+        while (ids[slot] != FREE && ids[slot] != cloudletId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldIds = ids;
+        double[] oldTimes = times;
+        ids = new int[oldIds.length * 2];
+        Arrays.fill(ids, FREE);
+        times = new double[ids.length];
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != FREE) {
+                int slot = find(oldIds[i]);
+                ids[slot] = oldIds[i];
+                times[slot] = oldTimes[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the ids, which are often consecutive, over the slots.
+     */
+    private static int hash(int cloudletId) {
+        int h = cloudletId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,309 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * Reads cloudlets one at a time from a job trace, so a trace of any size can be simulated without
+ * holding all of its cloudlets in memory.
+ *
+ * The file is memory-mapped a region at a time and numbers are parsed straight from the mapped
+ * bytes, without building a String per line or per field. Two formats are supported:
+ * <ul>
+ * <li>{@link Format#CSV}: {@code id,submitTime,length,pes[,fileSize,outputSize]}, with the length
+ * in MI. A header line and lines starting with {@code #} are skipped.</li>
+ * <li>{@link Format#SWF}: the Standard Workload Format, or GWF which shares its first fields. The
+ * length is the run time multiplied by the MIPS rating given to the reader, and the PEs are the
+ * allocated processors (the requested ones when not recorded). Lines starting with {@code ;} or
+ * {@code #} are skipped, as are jobs with no run time or processors.</li>
+ * </ul>
+ * Jobs must appear in the order of their submit time, as they do in SWF/GWF traces.
+ */
+public class CloudletTraceReader implements CloudletSource, Closeable {
+
+    /** The supported trace formats. */
+    public enum Format {
+        CSV, SWF
+    }
+
+    /** The size of each mapped region. A line must fit in one region. */
+    private static final long REGION_SIZE = 1L << 28;
+
+    /** The most fields read from a line. */
+    private static final int MAX_FIELDS = 18;
+
+    /** Powers of ten used to scale parsed decimals. */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private final FileChannel channel;
+
+    private final long fileSize;
+
+    private final Format format;
+
+    /** The MIPS rating used to turn SWF run times into lengths. */
+    private final double rating;
+
+    /** The file and output size given to cloudlets that don't have one. */
+    private final long defaultFileSize;
+
+    /** The shape of the last cloudlet, reused while the jobs keep the same shape. */
+    private CloudletTemplate template = CloudletTemplate.DEFAULT;
+
+    /** The fields of the current line. */
+    private final double[] fields = new double[MAX_FIELDS];
+
+    private MappedByteBuffer buffer;
+
+    /** The file offset of the mapped region. */
+    private long regionStart;
+
+    /** The read position in the mapped region. */
+    private int position;
+
+    /** Whether the next job has been parsed and not returned yet. */
+    private boolean hasNextJob;
+
+    private int nextId;
+
+    private double nextSubmitTime;
+
+    private long nextLength;
+
+    private int nextPes;
+
+    private long nextFileSize;
+
+    private long nextOutputSize;
+
+    /**
+     * Opens a trace.
+     * @param file the trace file
+     * @param format the trace format
+     * @param rating the MIPS rating used to turn SWF run times into lengths
+     * @throws IOException if the file cannot be opened
+     */
+    public CloudletTraceReader(File file, Format format, double rating) throws IOException {
+        this(file, format, rating, 300);
+    }
+
+    /**
+     * Opens a trace.
+     * @param file the trace file
+     * @param format the trace format
+     * @param rating the MIPS rating used to turn SWF run times into lengths
+     * @param defaultFileSize the file and output size of cloudlets that don't have one
+     * @throws IOException if the file cannot be opened
+     */
+    public CloudletTraceReader(File file, Format format, double rating, long defaultFileSize) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.format = format;
+        this.rating = rating;
+        this.defaultFileSize = defaultFileSize;
+        map(0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!hasNextJob) {
+            try {
+                hasNextJob = parseNextJob();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return hasNextJob;
+    }
+
+    @Override
+    public double peekSubmitTime() {
+        return hasNext() ? nextSubmitTime : Double.MAX_VALUE;
+    }
+
+    @Override
+    public Cloudlet next() {
+        if (!hasNext()) {
+            return null;
+        }
+        hasNextJob = false;
+        template = template.withPes(nextPes).withSizes(nextFileSize, nextOutputSize);
+        return template.createCloudlet(nextId, nextLength);
+    }
+
+    @Override
+    public int readBatch(List<? super Cloudlet> batch, double until, int maxSize) {
+        int read = 0;
+        while (read < maxSize && hasNext() && nextSubmitTime <= until) {
+            batch.add(next());
+            read++;
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    private void map(long offset) throws IOException {
+        regionStart = offset;
+        position = 0;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(REGION_SIZE, fileSize - offset));
+    }
+
+    private boolean parseNextJob() throws IOException {
+        while (true) {
+            int limit = buffer.limit();
+            if (position >= limit) {
+                if (regionStart + limit >= fileSize) {
+                    return false;
+                }
+                map(regionStart + position);
+                continue;
+            }
+
+            int end = position;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            if (end == limit && regionStart + limit < fileSize) {
+                if (position == 0) {
+                    throw new IOException("Line at offset " + regionStart + " is longer than " + REGION_SIZE + " bytes");
+                }
+                // the line continues in the next region
+                map(regionStart + position);
+                continue;
+            }
+
+            int count = parseFields(position, end);
+            position = end + 1;
+            if (count > 0 && readJob(count)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Parses the numeric fields of a line into {@link #fields}.
+     * @return the number of fields, or -1 for a comment, header or blank line
+     */
+    private int parseFields(int from, int to) {
+        int count = 0;
+        int i = from;
+        while (i < to && count < MAX_FIELDS) {
+            byte b = buffer.get(i);
+            if (b == ' ' || b == '\t' || b == '\r' || (b == ',' && format == Format.CSV)) {
+                i++;
+                continue;
+            }
+            if (count == 0 && (b == ';' || b == '#')) {
+                return -1;
+            }
+
+            // parse a number made of sign, digits, a fraction and an exponent
+            boolean negative = false;
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int scale = 0;
+            int digits = 0;
+            boolean fraction = false;
+            for (; i < to; i++) {
+                b = buffer.get(i);
+                if (b >= '0' && b <= '9') {
+                    if (mantissa < Long.MAX_VALUE / 10 - 9) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        if (fraction) {
+                            scale--;
+                        }
+                    } else if (!fraction) {
+                        scale++;
+                    }
+                    digits++;
+                } else if (b == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+            }
+            if (i < to && (b == 'e' || b == 'E')) {
+                i++;
+                boolean negativeExponent = false;
+                if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                    negativeExponent = buffer.get(i) == '-';
+                    i++;
+                }
+                int exponent = 0;
+                while (i < to && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+                    exponent = exponent * 10 + (buffer.get(i) - '0');
+                    i++;
+                }
+                scale += negativeExponent ? -exponent : exponent;
+            }
+            if (digits == 0 || (i < to && !isSeparator(buffer.get(i)))) {
+                // not a number, so this is a header line
+                return -1;
+            }
+
+            double value = mantissa;
+            if (scale != 0) {
+                int abs = Math.min(Math.abs(scale), POWERS_OF_TEN.length - 1);
+                value = scale > 0 ? value * POWERS_OF_TEN[abs] : value / POWERS_OF_TEN[abs];
+            }
+            fields[count++] = negative ? -value : value;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    private boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || (b == ',' && format == Format.CSV);
+    }
+
+    /**
+     * Turns the parsed fields into the next job.
+     * @return false if the line does not describe a job that can run
+     */
+    private boolean readJob(int count) {
+        if (format == Format.CSV) {
+            if (count < 4) {
+                return false;
+            }
+            nextId = (int) fields[0];
+            nextSubmitTime = fields[1];
+            nextLength = (long) fields[2];
+            nextPes = (int) fields[3];
+            nextFileSize = count > 4 ? (long) fields[4] : defaultFileSize;
+            nextOutputSize = count > 5 ? (long) fields[5] : defaultFileSize;
+        } else {
+            if (count < 8) {
+                return false;
+            }
+            nextId = (int) fields[0];
+            nextSubmitTime = fields[1];
+            nextLength = (long) (fields[3] * rating);
+            nextPes = (int) (fields[4] > 0 ? fields[4] : fields[7]);
+            nextFileSize = defaultFileSize;
+            nextOutputSize = defaultFileSize;
+        }
+        return nextLength > 0 && nextPes > 0;
+    }
+}
@@ -0,0 +1,287 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerSpaceShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A {@link DatacenterBrokerSjf} that spreads its VMs over all datacenters instead of filling the
+ * first one that takes them, then places cloudlets shortest first over the VMs of every
+ * datacenter.
+ *
+ * Once the characteristics of every datacenter are in, the broker caches the free MIPS, free RAM
+ * and total MIPS of each one, and its free PEs if all its hosts share PEs in space: time-shared
+ * hosts let VMs share PEs, so only their MIPS limit them. VMs are placed largest first, each in
+ * the datacenter it leaves the least loaded, the load being the MIPS of the VMs placed there over
+ * the MIPS of the datacenter, so that no datacenter holds more than its share of the work. The
+ * cache is kept up to date from the placements themselves: a VM takes its resources when it is
+ * sent, and gives them back when it is refused or destroyed. A VM refused by a datacenter, for
+ * instance because its free resources are spread over hosts too small for it, is placed again
+ * among the datacenters that have not refused it.
+ */
+public class DatacenterBrokerFederated extends DatacenterBrokerSjf {
+
+    /** Orders VMs largest first, then by id. */
+    private static final Comparator<Vm> LARGEST_FIRST = new Comparator<Vm>() {
+        @Override
+        public int compare(Vm vm1, Vm vm2) {
+            int result = Double.compare(vm2.getMips() * vm2.getNumberOfPes(), vm1.getMips() * vm1.getNumberOfPes());
+            return result != 0 ? result : Integer.compare(vm1.getId(), vm2.getId());
+        }
+    };
+
+    /** The cached capacity of each datacenter, in the order of the datacenter list. */
+    private final Map<Integer, DatacenterLoad> datacenterLoads = new LinkedHashMap<Integer, DatacenterLoad>();
+
+    /** The datacenter each VM sent or created is placed in, by VM id. */
+    private final Map<Integer, DatacenterLoad> vmPlacements = new HashMap<Integer, DatacenterLoad>();
+
+    /** The VMs being placed, by id. */
+    private final Map<Integer, Vm> vmsById = new HashMap<Integer, Vm>();
+
+    /** The datacenters that refused each VM, by VM id. */
+    private final Map<Integer, Set<Integer>> refusals = new HashMap<Integer, Set<Integer>>();
+
+    /**
+     * Creates a new DatacenterBrokerFederated object.
+     * @param name the broker name
+     * @throws Exception if the name contains spaces
+     */
+    public DatacenterBrokerFederated(String name) throws Exception {
+        super(name);
+    }
+
+    @Override
+    protected void processResourceCharacteristics(SimEvent ev) {
+        DatacenterCharacteristics characteristics = (DatacenterCharacteristics) ev.getData();
+        getDatacenterCharacteristicsList().put(characteristics.getId(), characteristics);
+
+        if (getDatacenterCharacteristicsList().size() == getDatacenterIdsList().size()) {
+            datacenterLoads.clear();
+            for (int datacenterId : getDatacenterIdsList()) {
+                datacenterLoads.put(datacenterId,
+                        new DatacenterLoad(datacenterId, getDatacenterCharacteristicsList().get(datacenterId)));
+            }
+            createVmsInDatacenter(-1);
+        }
+    }
+
+    /**
+     * Places every VM not created yet over all datacenters and sends them. The datacenter given is
+     * ignored, as the broker chooses one per VM.
+     * @param datacenterId ignored
+     */
+    @Override
+    protected void createVmsInDatacenter(int datacenterId) {
+        List<Vm> vms = new ArrayList<Vm>();
+        for (Vm vm : getVmList()) {
+            if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
+                vms.add(vm);
+                vmsById.put(vm.getId(), vm);
+            }
+        }
+        Collections.sort(vms, LARGEST_FIRST);
+
+        setVmsRequested(0);
+        setVmsAcks(0);
+        for (Vm vm : vms) {
+            if (sendVm(vm)) {
+                setVmsRequested(getVmsRequested() + 1);
+            }
+        }
+        if (getVmsRequested() == 0) {
+            finishPlacement();
+        }
+    }
+
+    @Override
+    protected void processVmCreate(SimEvent ev) {
+        int[] data = (int[]) ev.getData();
+        int datacenterId = data[0];
+        int vmId = data[1];
+        int result = data[2];
+
+        Vm vm = vmsById.get(vmId);
+        if (result == CloudSimTags.TRUE) {
+            getVmsToDatacentersMap().put(vmId, datacenterId);
+            getVmsCreatedList().add(vm);
+            Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId + " has been created in Datacenter #"
+                    + datacenterId + ", Host #" + vm.getHost().getId());
+        } else {
+            Log.printLine(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
+                    + " failed in Datacenter #" + datacenterId);
+            vmPlacements.remove(vmId).release(vm);
+            Set<Integer> refused = refusals.get(vmId);
+            if (refused == null) {
+                refused = new HashSet<Integer>();
+                refusals.put(vmId, refused);
+            }
+            refused.add(datacenterId);
+            // a retry is one more request to wait for
+            if (sendVm(vm)) {
+                setVmsRequested(getVmsRequested() + 1);
+            }
+        }
+
+        incrementVmsAcks();
+        if (getVmsAcks() == getVmsRequested()) {
+            finishPlacement();
+        }
+    }
+
+    @Override
+    protected void clearDatacenters() {
+        for (Vm vm : getVmsCreatedList()) {
+            DatacenterLoad load = vmPlacements.remove(vm.getId());
+            if (load != null) {
+                load.release(vm);
+            }
+        }
+        refusals.clear();
+        super.clearDatacenters();
+    }
+
+    /**
+     * Gets the share of the MIPS of a datacenter taken by the VMs of this broker.
+     * @param datacenterId the datacenter id
+     * @return the share, from 0 to 1, or 0 for an unknown datacenter
+     */
+    public double getDatacenterLoad(int datacenterId) {
+        DatacenterLoad load = datacenterLoads.get(datacenterId);
+        return load == null ? 0.0 : load.getLoad();
+    }
+
+    /**
+     * Sends a VM to the datacenter it leaves the least loaded among those with room for it and
+     * that have not refused it.
+     * @param vm the VM
+     * @return true if the VM was sent, false if no datacenter can take it
+     */
+    private boolean sendVm(Vm vm) {
+        Set<Integer> refused = refusals.get(vm.getId());
+        DatacenterLoad best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (DatacenterLoad load : datacenterLoads.values()) {
+            if ((refused == null || !refused.contains(load.id)) && load.fits(vm)) {
+                double loadWithVm = load.getLoadWith(vm);
+                if (loadWithVm < bestLoad) {
+                    bestLoad = loadWithVm;
+                    best = load;
+                }
+            }
+        }
+        if (best == null) {
+            Log.printLine(CloudSim.clock() + ": " + getName() + ": No datacenter has room for VM #" + vm.getId());
+            return false;
+        }
+
+        Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId() + " in "
+                + CloudSim.getEntityName(best.id));
+        best.reserve(vm);
+        vmPlacements.put(vm.getId(), best);
+        if (!getDatacenterRequestedIdsList().contains(best.id)) {
+            getDatacenterRequestedIdsList().add(best.id);
+        }
+        sendNow(best.id, CloudSimTags.VM_CREATE_ACK, vm);
+        return true;
+    }
+
+    /**
+     * Submits the cloudlets once every VM sent has been answered, or stops if none was created.
+     */
+    private void finishPlacement() {
+        if (!getVmsCreatedList().isEmpty()) {
+            submitCloudlets();
+        } else {
+            Log.printLine(CloudSim.clock() + ": " + getName()
+                    + ": none of the required VMs could be created. Aborting");
+            finishExecution();
+        }
+    }
+
+    /**
+     * The cached capacity of a datacenter and the MIPS of the VMs placed in it.
+     */
+    private static final class DatacenterLoad {
+
+        final int id;
+
+        /** The MIPS of all PEs of the datacenter. */
+        final double totalMips;
+
+        /**
+         * Whether every host gives each VM PEs of its own. VmSchedulerTimeShared lets VMs share
+         * PEs, so free PEs only limit the VMs of a datacenter whose hosts all share them in space.
+         */
+        final boolean spaceShared;
+
+        int freePes;
+
+        /** The MIPS the VM schedulers of the hosts have not allocated. */
+        double freeMips;
+
+        long freeRam;
+
+        /** The MIPS of the VMs placed in the datacenter. */
+        double placedMips;
+
+        DatacenterLoad(int id, DatacenterCharacteristics characteristics) {
+            this.id = id;
+            this.totalMips = characteristics.getMips();
+            this.freePes = characteristics.getNumberOfFreePes();
+            boolean allSpaceShared = true;
+            double mips = 0;
+            long ram = 0;
+            for (Host host : characteristics.<Host> getHostList()) {
+                allSpaceShared &= host.getVmScheduler() instanceof VmSchedulerSpaceShared;
+                mips += host.getVmScheduler().getAvailableMips();
+                ram += host.getRamProvisioner().getAvailableRam();
+            }
+            this.spaceShared = allSpaceShared;
+            this.freeMips = mips;
+            this.freeRam = ram;
+        }
+
+        boolean fits(Vm vm) {
+            return vm.getMips() * vm.getNumberOfPes() <= freeMips && vm.getRam() <= freeRam
+                    && (!spaceShared || vm.getNumberOfPes() <= freePes);
+        }
+
+        double getLoad() {
+            return totalMips > 0 ? placedMips / totalMips : Double.MAX_VALUE;
+        }
+
+        double getLoadWith(Vm vm) {
+            return totalMips > 0 ? (placedMips + vm.getMips() * vm.getNumberOfPes()) / totalMips : Double.MAX_VALUE;
+        }
+
+        void reserve(Vm vm) {
+            freePes -= vm.getNumberOfPes();
+            freeMips -= vm.getMips() * vm.getNumberOfPes();
+            freeRam -= vm.getRam();
+            placedMips += vm.getMips() * vm.getNumberOfPes();
+        }
+
+        void release(Vm vm) {
+            freePes += vm.getNumberOfPes();
+            freeMips += vm.getMips() * vm.getNumberOfPes();
+            freeRam += vm.getRam();
+            placedMips -= vm.getMips() * vm.getNumberOfPes();
+        }
+    }
+}
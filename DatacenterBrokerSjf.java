@@ -0,0 +1,467 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A broker that submits cloudlets shortest first and places each unbound cloudlet on the VM where
+ * it is predicted to finish first.
+ *
+ * The broker tracks the projected ready time of every created VM (the MI sent to it, over all the
+ * PEs of each cloudlet, divided by the MIPS of all its PEs) across successive submissions. A
+ * cloudlet is predicted to finish once its VM has done that work and its own, but no sooner than
+ * it runs on its own PEs: one narrower than its VM runs at the MIPS of its PEs, not of the VM.
+ * VMs of the same shape, the same MIPS per PE and number of PEs, share a heap ordered by ready
+ * time, so the earliest finish for a cloudlet is the best head among those heaps. Placing a
+ * cloudlet costs O(K + log V) for K distinct VM shapes, instead of a scan over all V VMs, and a
+ * cloudlet bound to a VM by the user costs O(log V), as its VM is moved in its heap.
+ *
+ * Once the VMs are created and with a result store set, the broker keeps nothing per cloudlet: the
+ * log lines are only built when the log is enabled, a submitted cloudlet is not kept in the
+ * submitted list, and a returned one is recorded and dropped. What a cloudlet still costs the
+ * collector is its Cloudlet and ResCloudlet, the events CloudSim creates for it, the merge buffer
+ * that sorting a large submission takes, the lists of batches, and the columns of the result store
+ * when they grow. CloudSim creates its events and resets neither cloudlets nor events, so they
+ * are not pooled. The BrokerAllocationBenchmark of the benchmarks measures the bytes per cloudlet
+ * and per event against the default broker.
+ *
+ * With batch submission on, the cloudlets of one submission bound for the same VM go to its
+ * datacenter in a single {@link BatchingDatacenter#CLOUDLET_SUBMIT_BATCH} event instead of one
+ * event each, and come back in {@link BatchingDatacenter#CLOUDLET_RETURN_BATCH} events. The
+ * results are the same, with far fewer events in the queue. The datacenters must be
+ * {@link BatchingDatacenter}s.
+ */
+public class DatacenterBrokerSjf extends ProfiledDatacenterBroker {
+
+    /** Orders cloudlets shortest first. */
+    private static final Comparator<Cloudlet> BY_LENGTH = Comparator.comparingLong(Cloudlet::getCloudletLength);
+
+    /** The projected load of each created VM, by VM id. */
+    private final Map<Integer, VmLoad> vmLoads = new LinkedHashMap<Integer, VmLoad>();
+
+    /** The VM loads grouped by the MIPS per PE and number of PEs of their VMs. */
+    private final Map<SimpleImmutableEntry<Double, Integer>, VmLoadHeap> vmQueues =
+            new LinkedHashMap<SimpleImmutableEntry<Double, Integer>, VmLoadHeap>();
+
+    /** The cloudlets that could not be submitted yet, kept between submissions to be reused. */
+    private final List<Cloudlet> postponed = new ArrayList<Cloudlet>();
+
+    /** The loads of the VMs with a batch being filled, kept between submissions to be reused. */
+    private final List<VmLoad> batchedLoads = new ArrayList<VmLoad>();
+
+    /** Whether cloudlets are sent to each VM in one event per submission. */
+    private boolean batchSubmission;
+
+    /** The store returned cloudlets are recorded in, or null to keep them in the received list. */
+    private CloudletResultStore resultStore;
+
+    /** The statistics returned cloudlets are recorded in, or null. */
+    private CloudletStatistics statistics;
+
+    /**
+     * Creates a new DatacenterBrokerSjf object.
+     * @param name the broker name
+     * @throws Exception if the name contains spaces
+     */
+    public DatacenterBrokerSjf(String name) throws Exception {
+        super(name);
+    }
+
+    @Override
+    protected void submitCloudlets() {
+        if (vmLoads.size() != getVmsCreatedList().size()) {
+            initVmLoads();
+        }
+
+        double now = CloudSim.clock();
+        List<Cloudlet> cloudlets = getCloudletList();
+        Collections.sort(cloudlets, BY_LENGTH);
+
+        // cloudlets bound by the user load their VMs before any placement is made
+        for (Cloudlet cloudlet : cloudlets) {
+            if (cloudlet.getVmId() != -1) {
+                VmLoad load = vmLoads.get(cloudlet.getVmId());
+                if (load != null) {
+                    load.readyTime = load.readyTimeWith(cloudlet, now);
+                    load.queue.update(load);
+                }
+            }
+        }
+
+        for (Cloudlet cloudlet : cloudlets) {
+            VmLoad load;
+            // if user didn't bind this cloudlet and it has not been executed yet
+            if (cloudlet.getVmId() == -1) {
+                if (vmQueues.isEmpty()) {
+                    postponed.add(cloudlet);
+                    continue;
+                }
+                load = placeCloudlet(cloudlet, now);
+            } else { // submit to the specific vm
+                load = vmLoads.get(cloudlet.getVmId());
+                if (load == null) { // vm was not created
+                    if (!Log.isDisabled()) {
+                        Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
+                                + cloudlet.getCloudletId() + ": bound VM not available");
+                    }
+                    postponed.add(cloudlet);
+                    continue;
+                }
+            }
+
+            if (!Log.isDisabled()) {
+                Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet " + cloudlet.getCloudletId()
+                        + " to VM #" + load.vm.getId());
+            }
+            cloudlet.setVmId(load.vm.getId());
+            if (batchSubmission) {
+                if (load.batch == null) {
+                    load.batch = new ArrayList<Cloudlet>();
+                    batchedLoads.add(load);
+                }
+                load.batch.add(cloudlet);
+            } else {
+                sendNow(load.datacenterId, CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+            }
+            cloudletsSubmitted++;
+            // with a result store nothing reads the submitted list, which would hold every cloudlet
+            if (resultStore == null) {
+                getCloudletSubmittedList().add(cloudlet);
+            }
+        }
+
+        // the lists are handed over with the events, so each submission fills new ones
+        for (VmLoad load : batchedLoads) {
+            sendNow(load.datacenterId, BatchingDatacenter.CLOUDLET_SUBMIT_BATCH, load.batch);
+            load.batch = null;
+        }
+        batchedLoads.clear();
+
+        // only the postponed cloudlets stay in the waiting list
+        cloudlets.clear();
+        cloudlets.addAll(postponed);
+        postponed.clear();
+    }
+
+    @Override
+    protected void processOtherEvent(SimEvent ev) {
+        if (ev.getTag() == BatchingDatacenter.CLOUDLET_RETURN_BATCH) {
+            @SuppressWarnings("unchecked")
+            List<Cloudlet> cloudlets = (List<Cloudlet>) ev.getData();
+            for (Cloudlet cloudlet : cloudlets) {
+                processCloudletReturn(cloudlet);
+            }
+            return;
+        }
+        super.processOtherEvent(ev);
+    }
+
+    @Override
+    protected void processCloudletReturn(SimEvent ev) {
+        processCloudletReturn((Cloudlet) ev.getData());
+    }
+
+    /**
+     * Keeps a returned cloudlet and, as the default broker does, finishes once every cloudlet has
+     * returned or creates the VMs again for cloudlets still waiting for theirs.
+     * @param cloudlet the returned cloudlet
+     */
+    protected void processCloudletReturn(Cloudlet cloudlet) {
+        keepReturnedCloudlet(cloudlet);
+        if (!Log.isDisabled()) {
+            Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId() + " received");
+        }
+        cloudletsSubmitted--;
+        if (getCloudletList().isEmpty() && cloudletsSubmitted == 0) { // all cloudlets executed
+            Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
+            clearDatacenters();
+            finishExecution();
+        } else if (!getCloudletList().isEmpty() && cloudletsSubmitted == 0) {
+            // the cloudlets left are waiting for their VM to be created
+            clearDatacenters();
+            createVmsInDatacenter(0);
+        }
+    }
+
+    /**
+     * Keeps a returned cloudlet: as a row of the result store if there is one, in the received
+     * list otherwise, and in the statistics if there are any.
+     * @param cloudlet the returned cloudlet
+     */
+    protected void keepReturnedCloudlet(Cloudlet cloudlet) {
+        keepReturnedCloudlet(cloudlet, cloudlet.getSubmissionTime());
+    }
+
+    /**
+     * Keeps a returned cloudlet that arrived at the broker before it was submitted. The result
+     * store and the statistics take the arrival as its submission time; a cloudlet kept in the
+     * received list still carries the time its datacenter received it.
+     * @param cloudlet the returned cloudlet
+     * @param arrivalTime the time the cloudlet arrived at the broker
+     */
+    protected void keepReturnedCloudlet(Cloudlet cloudlet, double arrivalTime) {
+        if (statistics != null) {
+            statistics.record(cloudlet, arrivalTime);
+        }
+        if (resultStore != null) {
+            resultStore.record(cloudlet, arrivalTime);
+        } else {
+            getCloudletReceivedList().add(cloudlet);
+        }
+    }
+
+    /**
+     * Sets the store returned cloudlets are recorded in. Once set, submitted cloudlets are not added
+     * to the submitted list nor returned ones to the received list, so a cloudlet can be garbage
+     * collected as soon as it returns.
+     * @param resultStore the store, or null to keep cloudlets in the received list
+     */
+    public void setResultStore(CloudletResultStore resultStore) {
+        this.resultStore = resultStore;
+    }
+
+    /**
+     * Gets the store returned cloudlets are recorded in.
+     * @return the store, or null if cloudlets are kept in the received list
+     */
+    public CloudletResultStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * Sets the statistics returned cloudlets are recorded in, along with the result store or the
+     * received list.
+     * @param statistics the statistics, or null to record none
+     */
+    public void setStatistics(CloudletStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Gets the statistics returned cloudlets are recorded in.
+     * @return the statistics, or null if none are recorded
+     */
+    public CloudletStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Sets whether the cloudlets of a submission bound for the same VM are sent in one event.
+     * @param batchSubmission true to send batches, which needs BatchingDatacenters
+     */
+    public void setBatchSubmission(boolean batchSubmission) {
+        this.batchSubmission = batchSubmission;
+    }
+
+    public boolean isBatchSubmission() {
+        return batchSubmission;
+    }
+
+    /**
+     * Gets the time the MI already sent to a VM is predicted to be done.
+     * @param vmId the VM id
+     * @return the ready time, or 0 if the VM has no load yet
+     */
+    protected double getVmReadyTime(int vmId) {
+        VmLoad load = vmLoads.get(vmId);
+        return load == null ? 0.0 : load.readyTime;
+    }
+
+    /**
+     * Sets the time the MI already sent to a created VM is predicted to be done.
+     * @param vmId the VM id
+     * @param readyTime the ready time
+     */
+    protected void setVmReadyTime(int vmId, double readyTime) {
+        if (vmLoads.size() != getVmsCreatedList().size()) {
+            initVmLoads();
+        }
+        VmLoad load = vmLoads.get(vmId);
+        if (load != null) {
+            load.readyTime = readyTime;
+            load.queue.update(load);
+        }
+    }
+
+    /**
+     * Creates an empty load for every created VM.
+     */
+    private void initVmLoads() {
+        vmLoads.clear();
+        vmQueues.clear();
+        for (Vm vm : getVmsCreatedList()) {
+            SimpleImmutableEntry<Double, Integer> shape =
+                    new SimpleImmutableEntry<Double, Integer>(vm.getMips(), vm.getNumberOfPes());
+            VmLoadHeap queue = vmQueues.get(shape);
+            if (queue == null) {
+                queue = new VmLoadHeap();
+                vmQueues.put(shape, queue);
+            }
+            VmLoad load = new VmLoad(vm, getVmsToDatacentersMap().get(vm.getId()), queue);
+            vmLoads.put(vm.getId(), load);
+            queue.add(load);
+        }
+    }
+
+    /**
+     * Picks the VM where a cloudlet finishes first and adds the cloudlet to its ready time.
+     * @param cloudlet the cloudlet
+     * @param now the current simulation time
+     * @return the load of the chosen VM
+     */
+    private VmLoad placeCloudlet(Cloudlet cloudlet, double now) {
+        VmLoad best = null;
+        double bestFinishTime = Double.MAX_VALUE;
+        for (VmLoadHeap queue : vmQueues.values()) {
+            // the finish time grows with the ready time, so the head of each heap is its best VM
+            VmLoad load = queue.peek();
+            double finishTime = load.finishTime(cloudlet, now);
+            if (finishTime < bestFinishTime) {
+                bestFinishTime = finishTime;
+                best = load;
+            }
+        }
+
+        best.readyTime = best.readyTimeWith(cloudlet, now);
+        best.queue.update(best);
+        return best;
+    }
+
+    /**
+     * The projected ready time of a VM.
+     */
+    private static class VmLoad {
+
+        /** The VM. */
+        final Vm vm;
+
+        /** The MIPS of all PEs of the VM. */
+        final double rate;
+
+        /** The datacenter the VM was created in. */
+        final int datacenterId;
+
+        /** The heap of the VMs of the same shape. */
+        final VmLoadHeap queue;
+
+        /** The slot of the load in its heap. */
+        int slot;
+
+        /** The time the MI already sent to the VM is predicted to be done. */
+        double readyTime;
+
+        /** The cloudlets of the current submission sent to the VM in one batch, or null. */
+        List<Cloudlet> batch;
+
+        VmLoad(Vm vm, int datacenterId, VmLoadHeap queue) {
+            this.vm = vm;
+            this.rate = vm.getMips() * vm.getNumberOfPes();
+            this.datacenterId = datacenterId;
+            this.queue = queue;
+        }
+
+        /**
+         * Gets the ready time of the VM once a cloudlet sent now is done, its MI on all its PEs
+         * added to the others at the MIPS of all the PEs of the VM.
+         */
+        double readyTimeWith(Cloudlet cloudlet, double now) {
+            double work = (double) cloudlet.getCloudletLength() * cloudlet.getNumberOfPes();
+            return Math.max(readyTime, now) + work / rate;
+        }
+
+        /**
+         * Gets the time a cloudlet sent now is predicted to finish: with the rest of the load of
+         * the VM, but no sooner than on the PEs it runs on, at most those of the VM.
+         */
+        double finishTime(Cloudlet cloudlet, double now) {
+            int pes = cloudlet.getNumberOfPes();
+            double runTime = (double) cloudlet.getCloudletLength() * pes
+                    / (vm.getMips() * Math.min(pes, vm.getNumberOfPes()));
+            return Math.max(readyTimeWith(cloudlet, now), now + runTime);
+        }
+
+        boolean precedes(VmLoad other) {
+            return readyTime < other.readyTime || (readyTime == other.readyTime && vm.getId() < other.vm.getId());
+        }
+    }
+
+    /**
+     * A binary heap of VM loads ordered by ready time, then VM id. Each load knows its slot, so
+     * one whose ready time changed is moved in O(log n) rather than removed by a scan.
+     */
+    private static class VmLoadHeap {
+
+        private VmLoad[] loads = new VmLoad[8];
+
+        private int size;
+
+        VmLoad peek() {
+            return loads[0];
+        }
+
+        void add(VmLoad load) {
+            if (size == loads.length) {
+                loads = Arrays.copyOf(loads, size << 1);
+            }
+            load.slot = size;
+            loads[size++] = load;
+            siftUp(load.slot);
+        }
+
+        /**
+         * Moves a load of the heap to its place after its ready time changed.
+         */
+        void update(VmLoad load) {
+            siftUp(load.slot);
+            siftDown(load.slot);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (!loads[slot].precedes(loads[parent])) {
+                    break;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            int half = size >>> 1;
+            while (slot < half) {
+                int child = (slot << 1) + 1;
+                int right = child + 1;
+                if (right < size && loads[right].precedes(loads[child])) {
+                    child = right;
+                }
+                if (!loads[child].precedes(loads[slot])) {
+                    break;
+                }
+                swap(slot, child);
+                slot = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            VmLoad load = loads[i];
+            loads[i] = loads[j];
+            loads[j] = load;
+            loads[i].slot = i;
+            loads[j].slot = j;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A {@link DatacenterBrokerSjf} that takes its cloudlets from a {@link CloudletSource} instead of
+ * a list. Cloudlets are read at their submit time in batches of at most a given size, and no more
+ * than a given number are in the datacenters at once, so only the current batch and the cloudlets
+ * still running are held by the simulation. Submitted cloudlets are not kept in the submitted list.
+ *
+ * The submit time a cloudlet has in its source is its arrival at the broker. A cloudlet held back
+ * by the batch size or the in-flight limit is submitted later, and the result store and the
+ * statistics count the time from its arrival, so its waiting time includes the time it queued at
+ * the broker as well as in its VM. Wrapping the source in an {@link ArrivalBuffer} releases
+ * cloudlets in arrival order even when the source is only roughly sorted.
+ *
+ * The broker can write a {@link SimulationSnapshot} to a {@link SnapshotFile} every given span of
+ * simulation time, and a new broker of the same scenario can resume from it. A snapshot is only
+ * taken when a batch is due while no cloudlet is in flight and no other event is queued, the
+ * first such time once the span has passed, so the span is a lower bound and a workload that never
+ * lets the datacenters drain gets none: a snapshot records neither events nor queued cloudlets,
+ * only the few times that describe an idle simulation. The broker logs a warning when a snapshot is due but the
+ * simulation is busy, and again every span it stays so. The datacenters must be
+ * {@link ProfiledDatacenter}s, and the broker must be the only one of the simulation.
+ */
+public class DatacenterBrokerStreaming extends DatacenterBrokerSjf {
+
+    /** Tag of the event that submits the next batch of the source. */
+    protected static final int SUBMIT_NEXT_BATCH = 55001;
+
+    /** The source the cloudlets are read from. */
+    private final CloudletSource source;
+
+    /** The most cloudlets submitted per batch. */
+    private final int batchSize;
+
+    /** The most cloudlets submitted and not yet returned. */
+    private final int maxInFlight;
+
+    /** Whether a {@link #SUBMIT_NEXT_BATCH} event is scheduled. */
+    private boolean batchPending;
+
+    /** The number of cloudlets read from the source. */
+    private long cloudletsRead;
+
+    /** The time each cloudlet in flight arrived at the broker, by cloudlet id. */
+    private final CloudletTimeMap arrivalTimes = new CloudletTimeMap();
+
+    /** The file snapshots are written to, or null. */
+    private SnapshotFile snapshotFile;
+
+    /** The simulation time between two snapshots. */
+    private double snapshotInterval;
+
+    /** The time of the last snapshot written or resumed from. */
+    private double lastSnapshotTime;
+
+    /** The time from which a snapshot still overdue is warned about again. */
+    private double snapshotWarningTime;
+
+    /** The snapshot to restore when its time comes, or null. */
+    private SimulationSnapshot resumeSnapshot;
+
+    /**
+     * Creates a new DatacenterBrokerStreaming object with no limit on the cloudlets in flight.
+     * @param name the broker name
+     * @param source the source the cloudlets are read from
+     * @param batchSize the most cloudlets submitted per batch
+     * @throws Exception if the name contains spaces
+     */
+    public DatacenterBrokerStreaming(String name, CloudletSource source, int batchSize) throws Exception {
+        this(name, source, batchSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new DatacenterBrokerStreaming object.
+     * @param name the broker name
+     * @param source the source the cloudlets are read from
+     * @param batchSize the most cloudlets submitted per batch
+     * @param maxInFlight the most cloudlets submitted and not yet returned
+     * @throws Exception if the name contains spaces
+     */
+    public DatacenterBrokerStreaming(String name, CloudletSource source, int batchSize, int maxInFlight)
+            throws Exception {
+        super(name);
+        this.source = source;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Writes a snapshot to a file at the first quiet point after every span of simulation time.
+     * @param snapshotFile the file, or null to take no snapshots
+     * @param interval the simulation time between two snapshots
+     */
+    public void setSnapshots(SnapshotFile snapshotFile, double interval) {
+        if (snapshotFile != null && !(interval > 0.0)) {
+            throw new IllegalArgumentException("The interval between snapshots must be positive");
+        }
+        this.snapshotFile = snapshotFile;
+        this.snapshotInterval = interval;
+    }
+
+    /**
+     * Resumes the run a snapshot was taken from. The cloudlets read before the snapshot are
+     * skipped now; the broker submits nothing until the time of the snapshot, then restores the
+     * VM and datacenter times it holds and goes on as the original run did. Call it before the
+     * simulation starts, on a broker of the same scenario whose result store holds the rows of the
+     * snapshot.
+     * @param snapshot the snapshot
+     * @throws IllegalArgumentException if the source has fewer cloudlets than the snapshot read
+     */
+    public void resumeFrom(SimulationSnapshot snapshot) {
+        for (long i = cloudletsRead; i < snapshot.getCloudletsRead(); i++) {
+            if (source.next() == null) {
+                throw new IllegalArgumentException("The source has fewer cloudlets than the snapshot read");
+            }
+        }
+        cloudletsRead = snapshot.getCloudletsRead();
+        lastSnapshotTime = snapshot.getClock();
+        resumeSnapshot = snapshot;
+    }
+
+    @Override
+    protected void submitCloudlets() {
+        double now = CloudSim.clock();
+        if (resumeSnapshot != null) {
+            if (now < resumeSnapshot.getClock()) {
+                if (!batchPending) {
+                    batchPending = true;
+                    schedule(getId(), delayUntil(now, resumeSnapshot.getClock()), SUBMIT_NEXT_BATCH);
+                }
+                return;
+            }
+            restore(resumeSnapshot);
+            resumeSnapshot = null;
+        } else if (snapshotFile != null && now >= lastSnapshotTime + snapshotInterval) {
+            if (isQuiet()) {
+                writeSnapshot(now);
+            } else if (now >= snapshotWarningTime) {
+                Log.printLine(now + ": " + getName() + ": Warning - no quiet point to take a snapshot at in the "
+                        + (now - lastSnapshotTime) + " seconds since the last one");
+                snapshotWarningTime = now + snapshotInterval;
+            }
+        }
+
+        List<Cloudlet> cloudlets = getCloudletList();
+        int first = cloudlets.size();
+        int maxSize = Math.min(batchSize, maxInFlight - cloudletsSubmitted);
+        while (cloudlets.size() - first < maxSize && source.peekSubmitTime() <= now) {
+            double arrivalTime = source.peekSubmitTime();
+            Cloudlet cloudlet = source.next();
+            cloudlet.setUserId(getId());
+            arrivalTimes.put(cloudlet.getCloudletId(), arrivalTime);
+            cloudlets.add(cloudlet);
+            cloudletsRead++;
+        }
+
+        super.submitCloudlets();
+        getCloudletSubmittedList().clear();
+        scheduleNextBatch(now);
+    }
+
+    @Override
+    protected void processCloudletReturn(Cloudlet cloudlet) {
+        // the broker may run dry between two batches, which must not end the simulation
+        if (source.hasNext()) {
+            keepReturnedCloudlet(cloudlet);
+            if (!Log.isDisabled()) {
+                Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
+                        + " received");
+            }
+            cloudletsSubmitted--;
+            scheduleNextBatch(CloudSim.clock());
+            return;
+        }
+        super.processCloudletReturn(cloudlet);
+    }
+
+    @Override
+    protected void keepReturnedCloudlet(Cloudlet cloudlet) {
+        keepReturnedCloudlet(cloudlet, arrivalTimes.remove(cloudlet.getCloudletId(), cloudlet.getSubmissionTime()));
+    }
+
+    @Override
+    protected void processOtherEvent(SimEvent ev) {
+        if (ev.getTag() == SUBMIT_NEXT_BATCH) {
+            batchPending = false;
+            submitCloudlets();
+            return;
+        }
+        super.processOtherEvent(ev);
+    }
+
+    /**
+     * Schedules the next batch at the submit time of the next cloudlet. Cloudlets that are already
+     * due wait for a free slot under the in-flight limit; a returning cloudlet frees one, and the
+     * batch then takes as many due cloudlets as there are free slots.
+     * @param now the current simulation time
+     */
+    private void scheduleNextBatch(double now) {
+        if (batchPending || !source.hasNext()) {
+            return;
+        }
+        double delay = Math.max(source.peekSubmitTime() - now, 0.0);
+        if (delay == 0.0 && cloudletsSubmitted >= maxInFlight) {
+            return;
+        }
+        batchPending = true;
+        schedule(getId(), delay, SUBMIT_NEXT_BATCH);
+    }
+
+    /**
+     * Tells whether nothing but the batch about to be submitted is going on in the simulation: no
+     * cloudlet in flight or waiting at the broker, and no other event queued. A snapshot records
+     * none of these, so it is only taken when this holds.
+     */
+    private boolean isQuiet() {
+        return cloudletsSubmitted == 0 && getCloudletList().isEmpty() && FutureEventList.pendingEvents() == 0;
+    }
+
+    /**
+     * Writes a snapshot of the current state with the rows returned since the last one.
+     */
+    private void writeSnapshot(double now) {
+        List<Vm> vms = getVmsCreatedList();
+        int[] vmIds = new int[vms.size()];
+        double[] vmReadyTimes = new double[vmIds.length];
+        double[] vmPreviousTimes = new double[vmIds.length];
+        for (int i = 0; i < vmIds.length; i++) {
+            Vm vm = vms.get(i);
+            vmIds[i] = vm.getId();
+            vmReadyTimes[i] = getVmReadyTime(vm.getId());
+            vmPreviousTimes[i] = vm.getCloudletScheduler().getPreviousTime();
+        }
+        List<Integer> datacenters = getDatacenterIdsList();
+        int[] datacenterIds = new int[datacenters.size()];
+        double[] lastProcessTimes = new double[datacenterIds.length];
+        for (int i = 0; i < datacenterIds.length; i++) {
+            datacenterIds[i] = datacenters.get(i);
+            lastProcessTimes[i] = getDatacenter(datacenterIds[i]).getLastProcessTime();
+        }
+
+        try {
+            snapshotFile.write(new SimulationSnapshot(now, cloudletsRead, vmIds, vmReadyTimes, vmPreviousTimes,
+                    datacenterIds, lastProcessTimes), getResultStore());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastSnapshotTime = now;
+        if (!Log.isDisabled()) {
+            Log.printLine(now + ": " + getName() + ": Snapshot " + snapshotFile.getSnapshotCount() + " written");
+        }
+    }
+
+    /**
+     * Puts the VMs and datacenters back in the state a snapshot recorded.
+     */
+    private void restore(SimulationSnapshot snapshot) {
+        Map<Integer, Vm> vms = new HashMap<Integer, Vm>();
+        for (Vm vm : getVmsCreatedList()) {
+            vms.put(vm.getId(), vm);
+        }
+        for (int i = 0; i < snapshot.vmIds.length; i++) {
+            Vm vm = vms.get(snapshot.vmIds[i]);
+            if (vm == null) {
+                throw new IllegalStateException("VM #" + snapshot.vmIds[i] + " of the snapshot was not created");
+            }
+            setVmReadyTime(vm.getId(), snapshot.vmReadyTimes[i]);
+            // an idle scheduler only records the time of the update
+            vm.updateVmProcessing(snapshot.vmPreviousTimes[i], vm.getHost().getVmScheduler().getAllocatedMipsForVm(vm));
+        }
+        for (int i = 0; i < snapshot.datacenterIds.length; i++) {
+            getDatacenter(snapshot.datacenterIds[i]).setLastProcessTime(snapshot.datacenterLastProcessTimes[i]);
+        }
+    }
+
+    private static ProfiledDatacenter getDatacenter(int id) {
+        SimEntity entity = CloudSim.getEntity(id);
+        if (!(entity instanceof ProfiledDatacenter)) {
+            throw new IllegalStateException("Snapshots need ProfiledDatacenters, not " + entity);
+        }
+        return (ProfiledDatacenter) entity;
+    }
+
+    /**
+     * Gets the delay of an event sent now that falls exactly at a given time, which the difference
+     * of the times may miss by rounding.
+     */
+    private static double delayUntil(double now, double time) {
+        double delay = Math.max(time - now, 0.0);
+        while (now + delay < time) {
+            delay = Math.nextUp(delay);
+        }
+        while (delay > 0.0 && now + Math.nextDown(delay) >= time) {
+            delay = Math.nextDown(delay);
+        }
+        return delay;
+    }
+}
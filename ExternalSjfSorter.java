@@ -0,0 +1,553 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+
+/**
+ * Orders a workload shortest job first when it does not fit in the heap.
+ *
+ * Jobs are added as (length, id) pairs. Each time {@code runSize} pairs are buffered they are
+ * sorted and spilled to a run file, where each pair is stored as variable-length integers: the
+ * delta from the previous length and the id, usually well under the 12 bytes of a fixed layout.
+ * {@link #sort()} then opens every run and merges them lazily through a heap of run heads, so the
+ * cloudlets come out shortest first while only one buffer per run is in memory. Cloudlets are
+ * rebuilt from their pair by a {@link CloudletFactory} and all have a submit time of 0, so a
+ * {@link DatacenterBrokerStreaming} can pull them in chunks. When the whole workload fits in one
+ * run nothing is written to disk.
+ *
+ * The sorter times the sorting of each run in memory, the writing of the runs to disk and the
+ * merging apart, and {@link #printReport()} prints the three. A scenario trace with
+ * {@code "sort": true} is read through a sorter and reported at the end of the run, see
+ * {@link ScenarioSpec}.
+ */
+public class ExternalSjfSorter implements CloudletSource, Closeable {
+
+    /**
+     * Rebuilds a cloudlet from its sorted pair.
+     */
+    public interface CloudletFactory {
+
+        /**
+         * Creates a cloudlet.
+         * @param id the cloudlet id
+         * @param length the cloudlet length in MI
+         * @return the cloudlet
+         */
+        Cloudlet createCloudlet(int id, long length);
+    }
+
+    /** The size of the buffer of each run file. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final File tempDir;
+
+    private final int runSize;
+
+    private final CloudletFactory factory;
+
+    /** The lengths of the buffered pairs. */
+    private long[] lengths;
+
+    /** The ids of the buffered pairs. */
+    private int[] ids;
+
+    /** The number of buffered pairs. */
+    private int buffered;
+
+    private final List<File> runFiles = new ArrayList<File>();
+
+    /** The open runs while merging. */
+    private RunReader[] runs;
+
+    /** A heap of run indexes, ordered by the pair at the head of each run. */
+    private int[] heap;
+
+    private int heapSize;
+
+    /** The read position in the buffer when the workload was not spilled. */
+    private int memoryPosition;
+
+    private boolean merging;
+
+    private long pairs;
+
+    private long spilledBytes;
+
+    /** The time spent sorting buffered pairs in memory. */
+    private long sortNanos;
+
+    /** The time spent writing runs to disk. */
+    private long writeNanos;
+
+    /** The time spent merging runs and rebuilding cloudlets. */
+    private long mergeNanos;
+
+    /**
+     * Creates a new sorter.
+     * @param tempDir the directory of the run files, or null for the default temporary directory
+     * @param runSize the most pairs held in memory, which is also the size of each run
+     * @param factory rebuilds cloudlets from their pairs
+     */
+    public ExternalSjfSorter(File tempDir, int runSize, CloudletFactory factory) {
+        this.tempDir = tempDir;
+        this.runSize = runSize;
+        this.factory = factory;
+        this.lengths = new long[Math.min(runSize, 1 << 16)];
+        this.ids = new int[lengths.length];
+    }
+
+    /**
+     * Adds a job.
+     * @param id the cloudlet id
+     * @param length the cloudlet length in MI
+     * @throws IOException if a run cannot be written
+     */
+    public void add(int id, long length) throws IOException {
+        if (merging) {
+            throw new IllegalStateException("Jobs cannot be added once sorted");
+        }
+        if (buffered == lengths.length) {
+            if (buffered == runSize) {
+                spill();
+            } else {
+                int capacity = (int) Math.min((long) runSize, (long) lengths.length << 1);
+                lengths = Arrays.copyOf(lengths, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+        }
+        lengths[buffered] = length;
+        ids[buffered] = id;
+        buffered++;
+        pairs++;
+    }
+
+    /**
+     * Adds a cloudlet. Only its id and length are kept.
+     * @param cloudlet the cloudlet
+     * @throws IOException if a run cannot be written
+     */
+    public void add(Cloudlet cloudlet) throws IOException {
+        add(cloudlet.getCloudletId(), cloudlet.getCloudletLength());
+    }
+
+    /**
+     * Adds every cloudlet left in a source. Only their ids and lengths are kept.
+     * @param source the source
+     * @throws IOException if a run cannot be written
+     */
+    public void addAll(CloudletSource source) throws IOException {
+        while (source.hasNext()) {
+            add(source.next());
+        }
+    }
+
+    /**
+     * Ends the adding of jobs and starts merging the runs.
+     * @throws IOException if a run cannot be written or opened
+     */
+    public void sort() throws IOException {
+        if (merging) {
+            return;
+        }
+        merging = true;
+
+        if (runFiles.isEmpty()) {
+            sortBuffer();
+            return;
+        }
+
+        if (buffered > 0) {
+            spill();
+        }
+        lengths = null;
+        ids = null;
+
+        long start = System.nanoTime();
+        runs = new RunReader[runFiles.size()];
+        heap = new int[runs.length];
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = new RunReader(runFiles.get(i));
+            if (runs[i].advance()) {
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        mergeNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public boolean hasNext() {
+        checkMerging();
+        return runs == null ? memoryPosition < buffered : heapSize > 0;
+    }
+
+    @Override
+    public double peekSubmitTime() {
+        return hasNext() ? 0.0 : Double.MAX_VALUE;
+    }
+
+    @Override
+    public Cloudlet next() {
+        if (!hasNext()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Cloudlet cloudlet = nextCloudlet();
+        mergeNanos += System.nanoTime() - start;
+        return cloudlet;
+    }
+
+    @Override
+    public int readBatch(List<? super Cloudlet> batch, double until, int maxSize) {
+        if (until < 0.0) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int read = 0;
+        while (read < maxSize && hasNext()) {
+            batch.add(nextCloudlet());
+            read++;
+        }
+        mergeNanos += System.nanoTime() - start;
+        return read;
+    }
+
+    /**
+     * Gets the number of jobs added.
+     * @return the number of jobs
+     */
+    public long getPairs() {
+        return pairs;
+    }
+
+    /**
+     * Gets the number of run files written.
+     * @return the number of runs
+     */
+    public int getRuns() {
+        return runFiles.size();
+    }
+
+    /**
+     * Gets the size of all run files.
+     * @return the size in bytes
+     */
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Gets the time spent sorting runs in memory, including the only one of a workload that was
+     * not spilled.
+     * @return the time in seconds
+     */
+    public double getSortTime() {
+        return sortNanos / 1e9;
+    }
+
+    /**
+     * Gets the time spent writing runs to disk.
+     * @return the time in seconds
+     */
+    public double getWriteTime() {
+        return writeNanos / 1e9;
+    }
+
+    /**
+     * Gets the time spent merging runs and rebuilding cloudlets.
+     * @return the time in seconds
+     */
+    public double getMergeTime() {
+        return mergeNanos / 1e9;
+    }
+
+    /**
+     * Prints how many jobs were sorted and the time spent sorting runs in memory, writing them to
+     * disk and merging them.
+     */
+    public void printReport() {
+        Log.printLine("========== SJF SORT ==========");
+        Log.printLine("Jobs: " + pairs + ", runs: " + runFiles.size() + ", spilled: " + spilledBytes + " bytes");
+        Log.printLine(String.format("Sort time: %.3f s, write time: %.3f s, merge time: %.3f s", getSortTime(),
+                getWriteTime(), getMergeTime()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (runs != null) {
+            for (RunReader run : runs) {
+                run.close();
+            }
+            runs = null;
+        }
+        for (File file : runFiles) {
+            file.delete();
+        }
+        heapSize = 0;
+    }
+
+    private void checkMerging() {
+        if (!merging) {
+            throw new IllegalStateException("sort() must be called before reading");
+        }
+    }
+
+    private Cloudlet nextCloudlet() {
+        if (runs == null) {
+            int i = memoryPosition++;
+            return factory.createCloudlet(ids[i], lengths[i]);
+        }
+
+        RunReader run = runs[heap[0]];
+        Cloudlet cloudlet = factory.createCloudlet(run.id, run.length);
+        try {
+            if (!run.advance()) {
+                heap[0] = heap[--heapSize];
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (heapSize > 0) {
+            siftDown(0);
+        }
+        return cloudlet;
+    }
+
+    private void spill() throws IOException {
+        sortBuffer();
+        long start = System.nanoTime();
+        File file = File.createTempFile("sjf-run-", ".bin", tempDir);
+        file.deleteOnExit();
+        RunWriter writer = new RunWriter(file);
+        try {
+            for (int i = 0; i < buffered; i++) {
+                writer.write(lengths[i], ids[i]);
+            }
+        } finally {
+            writer.close();
+        }
+        spilledBytes += file.length();
+        runFiles.add(file);
+        buffered = 0;
+        writeNanos += System.nanoTime() - start;
+    }
+
+    private boolean less(int run1, int run2) {
+        RunReader a = runs[run1];
+        RunReader b = runs[run2];
+        return a.length < b.length || (a.length == b.length && a.id < b.id);
+    }
+
+    private void siftDown(int slot) {
+        int half = heapSize >>> 1;
+        while (slot < half) {
+            int child = (slot << 1) + 1;
+            if (child + 1 < heapSize && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], heap[slot])) {
+                break;
+            }
+            int run = heap[slot];
+            heap[slot] = heap[child];
+            heap[child] = run;
+            slot = child;
+        }
+    }
+
+    /**
+     * Sorts the buffered pairs by length, then id.
+     */
+    private void sortBuffer() {
+        long start = System.nanoTime();
+        quickSort(0, buffered - 1);
+        sortNanos += System.nanoTime() - start;
+    }
+
+    private void quickSort(int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            // median of three as the pivot
+            if (lessPair(mid, low)) {
+                swapPair(mid, low);
+            }
+            if (lessPair(high, low)) {
+                swapPair(high, low);
+            }
+            if (lessPair(high, mid)) {
+                swapPair(high, mid);
+            }
+            long pivotLength = lengths[mid];
+            int pivotId = ids[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (lengths[i] < pivotLength || (lengths[i] == pivotLength && ids[i] < pivotId)) {
+                    i++;
+                }
+                while (lengths[j] > pivotLength || (lengths[j] == pivotLength && ids[j] > pivotId)) {
+                    j--;
+                }
+                if (i <= j) {
+                    swapPair(i++, j--);
+                }
+            }
+            // recurse into the smaller side to bound the stack depth
+            if (j - low < high - i) {
+                quickSort(low, j);
+                low = i;
+            } else {
+                quickSort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && lessPair(j, j - 1); j--) {
+                swapPair(j, j - 1);
+            }
+        }
+    }
+
+    private boolean lessPair(int i, int j) {
+        return lengths[i] < lengths[j] || (lengths[i] == lengths[j] && ids[i] < ids[j]);
+    }
+
+    private void swapPair(int i, int j) {
+        long length = lengths[i];
+        lengths[i] = lengths[j];
+        lengths[j] = length;
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    /**
+     * Writes a run as varint length deltas and zigzag varint ids.
+     */
+    private static class RunWriter implements Closeable {
+
+        private final OutputStream out;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int position;
+
+        private long previousLength;
+
+        RunWriter(File file) throws IOException {
+            out = new FileOutputStream(file);
+        }
+
+        void write(long length, int id) throws IOException {
+            if (position > BUFFER_SIZE - 20) {
+                flush();
+            }
+            writeVarLong(length - previousLength);
+            writeVarLong(((id << 1) ^ (id >> 31)) & 0xFFFFFFFFL);
+            previousLength = length;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a run back one pair at a time.
+     */
+    private static class RunReader implements Closeable {
+
+        private final InputStream in;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int position;
+
+        private int limit;
+
+        /** The length of the current pair. */
+        long length;
+
+        /** The id of the current pair. */
+        int id;
+
+        RunReader(File file) throws IOException {
+            in = new FileInputStream(file);
+        }
+
+        /**
+         * Moves to the next pair.
+         * @return false at the end of the run
+         */
+        boolean advance() throws IOException {
+            if (position == limit && !fill()) {
+                return false;
+            }
+            length += readVarLong();
+            int zigzag = (int) readVarLong();
+            id = (zigzag >>> 1) ^ -(zigzag & 1);
+            return true;
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                if (position == limit && !fill()) {
+                    throw new EOFException("Truncated run file");
+                }
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            limit = in.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit < 0) {
+                limit = 0;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Iterator;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.FutureQueue;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * The queues of future events the simulation engine can run on. {@code CloudSim.init} creates a
+ * new {@link #TREE} queue, so another queue is installed after it and before the simulation
+ * starts:
+ *
+ * <pre>
+ * CloudSim.init(users, Calendar.getInstance(), false);
+ * FutureEventList.CALENDAR.install();
+ * </pre>
+ *
+ * Both queues give the events in the same order, so a simulation has the same results on either.
+ */
+public enum FutureEventList {
+
+    /** The tree of CloudSim's own FutureQueue, O(log n) per event. */
+    TREE {
+        @Override
+        FutureQueue create() {
+            return new TreeFutureQueue();
+        }
+    },
+
+    /** A {@link CalendarFutureQueue}, O(1) per event on average. */
+    CALENDAR {
+        @Override
+        FutureQueue create() {
+            return new CalendarFutureQueue();
+        }
+    };
+
+    abstract FutureQueue create();
+
+    /**
+     * Replaces the future event queue of the engine with a new queue of this kind, moving any
+     * events already queued in their order. Call it after {@code CloudSim.init}.
+     */
+    public void install() {
+        Engine.replaceFutureQueue(create());
+    }
+
+    /**
+     * Gets the number of events in the future event queue of the engine.
+     * @return the number of events, 0 before {@code CloudSim.init}
+     */
+    public static int queueSize() {
+        return Engine.futureQueueSize();
+    }
+
+    /**
+     * Gets the number of events waiting in the engine: those in the future event queue and those
+     * of the current time not yet taken by their entity. The event being processed is not counted.
+     * @return the number of events, 0 before {@code CloudSim.init}
+     */
+    public static int pendingEvents() {
+        return Engine.pendingEvents();
+    }
+
+    /**
+     * Gets the number of events queued since the last {@link #install()}, counting those it moved,
+     * for measuring the events per second of the engine.
+     * @return the number of events, or -1 if no queue was installed
+     */
+    public static long eventCount() {
+        return Engine.futureEventCount();
+    }
+
+    /** The tree queue, counting the events queued. */
+    private static final class TreeFutureQueue extends FutureQueue {
+
+        private long added;
+
+        @Override
+        public void addEvent(SimEvent newEvent) {
+            super.addEvent(newEvent);
+            added++;
+        }
+
+        @Override
+        public void addEventFirst(SimEvent newEvent) {
+            super.addEventFirst(newEvent);
+            added++;
+        }
+    }
+
+    /** Reaches the event queues, which CloudSim only shares with subclasses. */
+    private static final class Engine extends CloudSim {
+
+        static void replaceFutureQueue(FutureQueue queue) {
+            if (future != null) {
+                for (Iterator<SimEvent> iterator = future.iterator(); iterator.hasNext();) {
+                    queue.addEvent(iterator.next());
+                }
+            }
+            future = queue;
+        }
+
+        static int futureQueueSize() {
+            return future == null ? 0 : future.size();
+        }
+
+        static int pendingEvents() {
+            return futureQueueSize() + (deferred == null ? 0 : deferred.size());
+        }
+
+        static long futureEventCount() {
+            if (future instanceof TreeFutureQueue) {
+                return ((TreeFutureQueue) future).added;
+            }
+            if (future instanceof CalendarFutureQueue) {
+                return ((CalendarFutureQueue) future).getAddedCount();
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small JSON parser for scenario specs. Objects become {@link LinkedHashMap}s, arrays
+ * {@link ArrayList}s, numbers {@link Long}s when they are integers and {@link Double}s otherwise.
+ * Comments starting with {@code //} are allowed, so specs can be annotated.
+ */
+final class JsonReader {
+
+    private final String text;
+
+    private int position;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a JSON document.
+     * @param text the document
+     * @return the value of the document
+     * @throws IllegalArgumentException if the document is not valid JSON
+     */
+    static Object parse(String text) {
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position < text.length()) {
+            throw reader.error("Unexpected text after the document");
+        }
+        return value;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end of document");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+        case '{':
+            return readObject();
+        case '[':
+            return readArray();
+        case '"':
+            return readString();
+        case 't':
+            expect("true");
+            return Boolean.TRUE;
+        case 'f':
+            expect("false");
+            return Boolean.FALSE;
+        case 'n':
+            expect("null");
+            return null;
+        default:
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return readNumber();
+            }
+            throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<String, Object>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a field name");
+            }
+            String name = readString();
+            skipWhitespace();
+            if (peek() != ':') {
+                throw error("Expected ':' after field " + name);
+            }
+            position++;
+            if (object.put(name, readValue()) != null) {
+                throw error("Duplicate field " + name);
+            }
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}' in object");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<Object>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == ']') {
+                return array;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or ']' in array");
+            }
+        }
+    }
+
+    private String readString() {
+        StringBuilder string = new StringBuilder();
+        position++;
+        while (true) {
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return string.toString();
+            }
+            if (c != '\\') {
+                string.append(c);
+                continue;
+            }
+            char escaped = peek();
+            position++;
+            switch (escaped) {
+            case 'n':
+                string.append('\n');
+                break;
+            case 't':
+                string.append('\t');
+                break;
+            case 'r':
+                string.append('\r');
+                break;
+            case 'b':
+                string.append('\b');
+                break;
+            case 'f':
+                string.append('\f');
+                break;
+            case 'u':
+                if (position + 4 > text.length()) {
+                    throw error("Bad unicode escape");
+                }
+                string.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                position += 4;
+                break;
+            default:
+                string.append(escaped);
+            }
+        }
+    }
+
+    private Object readNumber() {
+        int start = position;
+        boolean integer = true;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integer = false;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            position++;
+        }
+        String number = text.substring(start, position);
+        try {
+            if (integer) {
+                return Long.valueOf(number);
+            }
+            return Double.valueOf(number);
+        } catch (NumberFormatException e) {
+            throw error("Bad number " + number);
+        }
+    }
+
+    private void expect(String word) {
+        if (!text.startsWith(word, position)) {
+            throw error("Expected " + word);
+        }
+        position += word.length();
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of document");
+        }
+        return text.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '/' && position + 1 < text.length() && text.charAt(position + 1) == '/') {
+                while (position < text.length() && text.charAt(position) != '\n') {
+                    position++;
+                }
+            } else if (Character.isWhitespace(c)) {
+                position++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        int line = 1;
+        for (int i = 0; i < position && i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return new IllegalArgumentException(message + " at line " + line);
+    }
+}
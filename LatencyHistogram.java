@@ -0,0 +1,205 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative values with log-linear buckets, in the manner of HdrHistogram.
+ * Values are counted in units of a resolution; below {@code 2^precisionBits} units every unit has a
+ * bucket of its own, and above, each power of two is split into {@code 2^precisionBits} buckets, so
+ * a value is known within a relative error of {@code 2^-precisionBits} however large it is.
+ * Recording is O(1) and the memory is bounded by the number of powers of two, whatever the number
+ * of values: at most {@code (64 - precisionBits) * 2^precisionBits} counters, allocated as the
+ * largest value grows.
+ *
+ * Histograms with the same resolution and precision can be merged, so the histograms of parallel
+ * runs add up to the histogram of all their values.
+ */
+public class LatencyHistogram {
+
+    /** The default resolution, a millisecond when times are in seconds. */
+    public static final double DEFAULT_RESOLUTION = 0.001;
+
+    /** The default precision, for a relative error under 1%. */
+    public static final int DEFAULT_PRECISION_BITS = 7;
+
+    private final double resolution;
+
+    private final int precisionBits;
+
+    /** The counts by bucket index, grown to the largest index recorded. */
+    private long[] counts = new long[0];
+
+    private long count;
+
+    private double sum;
+
+    private double min = Double.POSITIVE_INFINITY;
+
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a histogram with the default resolution and precision.
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_RESOLUTION, DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * Creates a histogram.
+     * @param resolution the smallest difference between two values told apart
+     * @param precisionBits the number of buckets per power of two, as a power of two, from 1 to 16
+     */
+    public LatencyHistogram(double resolution, int precisionBits) {
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("The resolution must be positive");
+        }
+        if (precisionBits < 1 || precisionBits > 16) {
+            throw new IllegalArgumentException("The precision must be from 1 to 16 bits");
+        }
+        this.resolution = resolution;
+        this.precisionBits = precisionBits;
+    }
+
+    /**
+     * Records a value. Negative values, which rounding of the simulation clock can give for times
+     * that should be 0, count as 0.
+     * @param value the value
+     */
+    public void record(double value) {
+        double units = value / resolution;
+        long unitValue = units <= 0 ? 0 : units >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) units;
+        int index = indexOf(unitValue);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, Math.min(counts.length * 2, maxBuckets())));
+        }
+        counts[index]++;
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds the values of another histogram to this one.
+     * @param other a histogram with the same resolution and precision
+     */
+    public void merge(LatencyHistogram other) {
+        if (other.resolution != resolution || other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Only histograms of the same resolution and precision can be merged");
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Gets the value below or at which a given percentage of the values are. The value is the
+     * upper end of the bucket that holds it, so it is never below the exact percentile and at most
+     * one bucket width above it.
+     * @param percentile the percentage, from 0 to 100
+     * @return the value, or 0 if the histogram is empty
+     */
+    public double getPercentile(double percentile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, upperEndUnits(i) * resolution));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean of the values, which is exact rather than taken from the buckets.
+     * @return the mean, or 0 if the histogram is empty
+     */
+    public double getMean() {
+        return count > 0 ? sum / count : 0.0;
+    }
+
+    /**
+     * Gets the smallest value.
+     * @return the smallest value, or 0 if the histogram is empty
+     */
+    public double getMin() {
+        return count > 0 ? min : 0.0;
+    }
+
+    /**
+     * Gets the largest value.
+     * @return the largest value, or 0 if the histogram is empty
+     */
+    public double getMax() {
+        return count > 0 ? max : 0.0;
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    public int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    /**
+     * Removes all values, keeping the buckets allocated.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0;
+        sum = 0.0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Gets the bucket of a value. Values below {@code 2^precisionBits} have a bucket each; a larger
+     * value with its highest bit at {@code exponent} keeps its top {@code precisionBits + 1} bits,
+     * which fall in {@code [2^precisionBits, 2^(precisionBits + 1))}, and its buckets follow those
+     * of the power of two below.
+     */
+    private int indexOf(long unitValue) {
+        if (unitValue < (1L << precisionBits)) {
+            return (int) unitValue;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(unitValue);
+        int shift = exponent - precisionBits;
+        return (shift << precisionBits) + (int) (unitValue >>> shift);
+    }
+
+    /**
+     * Gets the upper end, in units, of the values that fall in a bucket.
+     */
+    private double upperEndUnits(int index) {
+        if (index < (1 << precisionBits)) {
+            return index + 1;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        long top = (index & ((1 << precisionBits) - 1)) + (1L << precisionBits);
+        return Math.scalb((double) (top + 1), shift);
+    }
+
+    private int maxBuckets() {
+        return (64 - precisionBits) << precisionBits;
+    }
+}
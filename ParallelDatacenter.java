@@ -0,0 +1,166 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+
+/**
+ * A {@link BatchingDatacenter} that updates the processing of its hosts in parallel on a fork-join
+ * pool. The hosts are split into ranges of a given size, each updated on a worker, and the time of
+ * the next event is the smallest over the ranges.
+ *
+ * The results are the same as those of a Datacenter. Each host only updates its own VMs and
+ * cloudlets, so the order hosts are updated in does not matter; the smallest time is the same
+ * whichever order it is taken in; and the returned cloudlets are still collected and sent on the
+ * simulation thread, host by host. The cloudlet schedulers of the VMs must not share state
+ * between hosts, which holds for those of CloudSim and of these examples.
+ *
+ * A datacenter with fewer than two ranges of hosts is updated on the simulation thread.
+ */
+public class ParallelDatacenter extends BatchingDatacenter {
+
+    /** The default number of hosts updated by one task. */
+    public static final int DEFAULT_HOSTS_PER_TASK = 256;
+
+    private final ForkJoinPool pool;
+
+    private final int hostsPerTask;
+
+    /**
+     * Creates a new ParallelDatacenter object running on the common pool.
+     * @param name the datacenter name
+     * @param characteristics the characteristics of the datacenter
+     * @param vmAllocationPolicy the policy placing VMs on hosts
+     * @param storageList the storage elements
+     * @param schedulingInterval the scheduling interval
+     * @throws Exception if the datacenter cannot be created
+     */
+    public ParallelDatacenter(String name, DatacenterCharacteristics characteristics,
+            VmAllocationPolicy vmAllocationPolicy, List<Storage> storageList, double schedulingInterval)
+            throws Exception {
+        this(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval, ForkJoinPool.commonPool(),
+                DEFAULT_HOSTS_PER_TASK);
+    }
+
+    /**
+     * Creates a new ParallelDatacenter object.
+     * @param name the datacenter name
+     * @param characteristics the characteristics of the datacenter
+     * @param vmAllocationPolicy the policy placing VMs on hosts
+     * @param storageList the storage elements
+     * @param schedulingInterval the scheduling interval
+     * @param pool the pool the hosts are updated on
+     * @param hostsPerTask the number of hosts updated by one task
+     * @throws Exception if the datacenter cannot be created
+     */
+    public ParallelDatacenter(String name, DatacenterCharacteristics characteristics,
+            VmAllocationPolicy vmAllocationPolicy, List<Storage> storageList, double schedulingInterval,
+            ForkJoinPool pool, int hostsPerTask) throws Exception {
+        super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval);
+        if (hostsPerTask < 1) {
+            throw new IllegalArgumentException("A task updates at least one host");
+        }
+        this.pool = pool;
+        this.hostsPerTask = hostsPerTask;
+    }
+
+    /**
+     * Updates the processing of every host, as a Datacenter does, with the hosts updated in
+     * parallel.
+     */
+    @Override
+    protected void updateCloudletProcessing() {
+        List<Host> hosts = getVmAllocationPolicy().getHostList();
+        if (hosts.size() < 2 * hostsPerTask) {
+            super.updateCloudletProcessing();
+            return;
+        }
+        if (!SimulationProfiler.ENABLED) {
+            updateHosts(hosts);
+            return;
+        }
+        long start = System.nanoTime();
+        updateHosts(hosts);
+        SimulationProfiler.recordVmProcessing(start);
+    }
+
+    /**
+     * Updates the hosts and schedules the next update, as {@code Datacenter.updateCloudletProcessing}
+     * does.
+     */
+    private void updateHosts(List<Host> hosts) {
+        double now = CloudSim.clock();
+        // the first condition lets the schedulers start at the beginning of the simulation
+        if (now >= 0.111 && now <= getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
+            return;
+        }
+        supersedeRequestedUpdates();
+
+        double smallerTime = pool.invoke(new HostUpdate(hosts, 0, hosts.size(), now, hostsPerTask));
+
+        // guarantees a minimal interval before scheduling the event
+        if (smallerTime < now + CloudSim.getMinTimeBetweenEvents() + 0.01) {
+            smallerTime = now + CloudSim.getMinTimeBetweenEvents() + 0.01;
+        }
+        if (smallerTime != Double.MAX_VALUE) {
+            schedule(getId(), smallerTime - now, CloudSimTags.VM_DATACENTER_EVENT);
+        }
+        setLastProcessTime(now);
+    }
+
+    public int getHostsPerTask() {
+        return hostsPerTask;
+    }
+
+    /**
+     * Updates a range of hosts, splitting it in halves down to the size of a task.
+     */
+    private static final class HostUpdate extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Host> hosts;
+
+        private final int from;
+
+        private final int to;
+
+        private final double currentTime;
+
+        private final int hostsPerTask;
+
+        HostUpdate(List<Host> hosts, int from, int to, double currentTime, int hostsPerTask) {
+            this.hosts = hosts;
+            this.from = from;
+            this.to = to;
+            this.currentTime = currentTime;
+            this.hostsPerTask = hostsPerTask;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= hostsPerTask) {
+                double smallerTime = Double.MAX_VALUE;
+                for (int i = from; i < to; i++) {
+                    double time = hosts.get(i).updateVmsProcessing(currentTime);
+                    if (time < smallerTime) {
+                        smallerTime = time;
+                    }
+                }
+                return smallerTime;
+            }
+            int middle = (from + to) >>> 1;
+            HostUpdate left = new HostUpdate(hosts, from, middle, currentTime, hostsPerTask);
+            left.fork();
+            double right = new HostUpdate(hosts, middle, to, currentTime, hostsPerTask).compute();
+            return Math.min(left.join(), right);
+        }
+    }
+}
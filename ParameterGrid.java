@@ -0,0 +1,98 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cartesian product of the values of named parameters. Points are numbered in row-major
+ * order, the last parameter added changing fastest, and are built on demand from their index so a
+ * grid of any size costs only its value lists.
+ */
+public class ParameterGrid {
+
+    private final List<String> names = new ArrayList<String>();
+
+    private final List<String[]> values = new ArrayList<String[]>();
+
+    /**
+     * Parses a grid from arguments of the form {@code name=value1,value2,...}.
+     * @param args the arguments
+     * @return the grid
+     */
+    public static ParameterGrid parse(String[] args) {
+        ParameterGrid grid = new ParameterGrid();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected name=value1,value2,... but got " + arg);
+            }
+            grid.add(arg.substring(0, equals), (Object[]) arg.substring(equals + 1).split(","));
+        }
+        return grid;
+    }
+
+    /**
+     * Adds a parameter.
+     * @param name the parameter name
+     * @param parameterValues the values the parameter takes
+     * @return this grid
+     */
+    public ParameterGrid add(String name, Object... parameterValues) {
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("Parameter " + name + " is already in the grid");
+        }
+        if (parameterValues.length == 0) {
+            throw new IllegalArgumentException("Parameter " + name + " has no values");
+        }
+        String[] strings = new String[parameterValues.length];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = String.valueOf(parameterValues[i]).trim();
+        }
+        names.add(name);
+        values.add(strings);
+        return this;
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Gets the number of points.
+     * @return the product of the number of values of each parameter
+     */
+    public int size() {
+        long size = 1;
+        for (String[] parameterValues : values) {
+            size *= parameterValues.length;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The grid has more than " + Integer.MAX_VALUE + " points");
+            }
+        }
+        return (int) size;
+    }
+
+    /**
+     * Gets a point.
+     * @param index the index of the point
+     * @return the value of each parameter, in the order they were added
+     */
+    public Map<String, String> getPoint(int index) {
+        String[] point = new String[names.size()];
+        int rest = index;
+        for (int i = point.length - 1; i >= 0; i--) {
+            String[] parameterValues = values.get(i);
+            point[i] = parameterValues[rest % parameterValues.length];
+            rest /= parameterValues.length;
+        }
+
+        Map<String, String> parameters = new LinkedHashMap<String, String>();
+        for (int i = 0; i < point.length; i++) {
+            parameters.put(names.get(i), point[i]);
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,167 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A Datacenter that reports its events and cloudlet processing updates to the
+ * {@link SimulationProfiler}. It behaves exactly as a Datacenter, and costs nothing more when
+ * profiling is off.
+ *
+ * It can also be asked to keep a single update event queued. A Datacenter schedules a
+ * VM_DATACENTER_EVENT for every finish time a scheduler gives it, on each submission and each
+ * update, and never cancels one: when a preemption or a new arrival pushes a finish time back, the
+ * event for the earlier time stays queued and runs an update with nothing to finish. With
+ * {@link #setSingleUpdateEvent(boolean)}, the datacenter only queues the earliest update it has
+ * been asked for, and the others wait in a sorted set. An update that runs asks its schedulers for
+ * the next finish time of every VM, so it supersedes every request made before it: those are
+ * dropped, and a queued event they had is ignored when it comes up. The datacenter, and so each of
+ * its VMs, then has one live update event at a time.
+ *
+ * Schedulers that compute progress from the time elapsed, as those of these examples do, finish
+ * their cloudlets at the same times, but for one case. Datacenter never schedules an update sooner
+ * than the minimum time between events plus 0.01 after the last one, so a cloudlet due within that
+ * gap finishes at its end; a Datacenter may finish it sooner, at a superseded event for that same
+ * time still in its queue, where this one waits for the end of the gap. Such finish times are
+ * later by less than the gap. A scheduler that rounds what it runs at each update, as
+ * CloudletSchedulerTimeShared does, may also differ by the rounding of the updates it no longer
+ * gets.
+ *
+ * The time of the last update of its cloudlets is public, so that a {@link SimulationSnapshot}
+ * can record and restore it.
+ */
+public class ProfiledDatacenter extends Datacenter {
+
+    /** Whether only the earliest requested update event is queued. */
+    private boolean singleUpdateEvent;
+
+    /** The times of the updates requested since the last update ran, in single-event mode. */
+    private final TreeSet<Double> requestedUpdates = new TreeSet<Double>();
+
+    /** The data of the queued update event, which tells it from superseded ones, or null. */
+    private Object queuedUpdate;
+
+    /** The time of the queued update event. */
+    private double queuedUpdateTime;
+
+    /**
+     * Creates a new ProfiledDatacenter object.
+     * @param name the datacenter name
+     * @param characteristics the characteristics of the datacenter
+     * @param vmAllocationPolicy the policy placing VMs on hosts
+     * @param storageList the storage elements
+     * @param schedulingInterval the scheduling interval
+     * @throws Exception if the datacenter cannot be created
+     */
+    public ProfiledDatacenter(String name, DatacenterCharacteristics characteristics,
+            VmAllocationPolicy vmAllocationPolicy, List<Storage> storageList, double schedulingInterval)
+            throws Exception {
+        super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval);
+    }
+
+    @Override
+    public void processEvent(SimEvent ev) {
+        if (singleUpdateEvent && ev.getTag() == CloudSimTags.VM_DATACENTER_EVENT && ev.getSource() == getId()) {
+            if (ev.getData() != queuedUpdate) {
+                // superseded by an earlier event or by an update that has run since
+                return;
+            }
+            queuedUpdate = null;
+            requestedUpdates.headSet(ev.eventTime(), true).clear();
+        }
+        if (!SimulationProfiler.ENABLED) {
+            super.processEvent(ev);
+        } else {
+            long start = System.nanoTime();
+            super.processEvent(ev);
+            SimulationProfiler.recordEvent(SimulationProfiler.EntityType.DATACENTER, start);
+        }
+        if (singleUpdateEvent && queuedUpdate == null && !requestedUpdates.isEmpty()) {
+            double time = requestedUpdates.first();
+            queueUpdate(time - CloudSim.clock(), time);
+        }
+    }
+
+    /**
+     * Schedules an event, keeping only the earliest requested update queued in single-event mode.
+     */
+    @Override
+    public void schedule(int dest, double delay, int tag, Object data) {
+        if (!singleUpdateEvent || dest != getId() || tag != CloudSimTags.VM_DATACENTER_EVENT) {
+            super.schedule(dest, delay, tag, data);
+            return;
+        }
+        double time = CloudSim.clock() + delay;
+        requestedUpdates.add(time);
+        if (queuedUpdate == null || time < queuedUpdateTime) {
+            queueUpdate(delay, time);
+        }
+    }
+
+    @Override
+    protected void updateCloudletProcessing() {
+        // the guard of Datacenter.updateCloudletProcessing
+        double now = CloudSim.clock();
+        if (now < 0.111 || now > getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
+            supersedeRequestedUpdates();
+        }
+        if (!SimulationProfiler.ENABLED) {
+            super.updateCloudletProcessing();
+            return;
+        }
+        long start = System.nanoTime();
+        super.updateCloudletProcessing();
+        SimulationProfiler.recordVmProcessing(start);
+    }
+
+    /**
+     * Sets whether only the earliest requested update event is queued. It is off by default, and
+     * is set before the simulation starts.
+     * @param singleUpdateEvent true to keep a single update event queued
+     */
+    public void setSingleUpdateEvent(boolean singleUpdateEvent) {
+        this.singleUpdateEvent = singleUpdateEvent;
+    }
+
+    public boolean isSingleUpdateEvent() {
+        return singleUpdateEvent;
+    }
+
+    @Override
+    public double getLastProcessTime() {
+        return super.getLastProcessTime();
+    }
+
+    @Override
+    public void setLastProcessTime(double lastProcessTime) {
+        super.setLastProcessTime(lastProcessTime);
+    }
+
+    /**
+     * Drops the update requests made so far, in single-event mode. It is called when an update is
+     * about to run, since that update asks for the next one it needs; a subclass that updates its
+     * hosts without {@link #updateCloudletProcessing()} calls it too.
+     */
+    protected void supersedeRequestedUpdates() {
+        if (singleUpdateEvent) {
+            requestedUpdates.clear();
+        }
+    }
+
+    /**
+     * Queues an update event that supersedes the one queued before, if any.
+     */
+    private void queueUpdate(double delay, double time) {
+        queuedUpdate = new Object();
+        queuedUpdateTime = time;
+        super.schedule(getId(), delay, CloudSimTags.VM_DATACENTER_EVENT, queuedUpdate);
+    }
+}
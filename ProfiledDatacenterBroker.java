@@ -0,0 +1,31 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A DatacenterBroker that reports its events to the {@link SimulationProfiler}. It behaves exactly
+ * as a DatacenterBroker, and costs nothing more when profiling is off.
+ */
+public class ProfiledDatacenterBroker extends DatacenterBroker {
+
+    /**
+     * Creates a new ProfiledDatacenterBroker object.
+     * @param name the broker name
+     * @throws Exception if the name contains spaces
+     */
+    public ProfiledDatacenterBroker(String name) throws Exception {
+        super(name);
+    }
+
+    @Override
+    public void processEvent(SimEvent ev) {
+        if (!SimulationProfiler.ENABLED) {
+            super.processEvent(ev);
+            return;
+        }
+        long start = System.nanoTime();
+        super.processEvent(ev);
+        SimulationProfiler.recordEvent(SimulationProfiler.EntityType.BROKER, start);
+    }
+}
@@ -0,0 +1,313 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.ResCloudlet;
+
+/**
+ * A binary min-heap of {@link ResCloudlet}s keyed on a primitive double. Keys, insertion
+ * sequence numbers and cloudlets live in parallel arrays, so adding or removing a cloudlet costs
+ * O(log n) and never boxes. Cloudlets with the same key leave the heap in the order they entered
+ * it.
+ *
+ * The heap is indexed: a hash table from cloudlet id to slot, kept up to date as cloudlets move,
+ * finds a cloudlet in O(1) on average, so cancelling, pausing or looking one up costs O(log n) at
+ * most. Cloudlet ids are unique within a heap.
+ */
+public class ResCloudletHeap {
+
+    /** Marks a free entry of the index; cloudlet ids are never negative. */
+    private static final int FREE = -1;
+
+    /** The key of each slot. */
+    private double[] keys;
+
+    /** The insertion sequence number of each slot, used to break ties. */
+    private long[] seqs;
+
+    /** The cloudlet of each slot. */
+    private ResCloudlet[] items;
+
+    /** The cloudlet id of each slot. */
+    private int[] ids;
+
+    /**
+     * The index from cloudlet ids to slots, with open addressing and linear probing: the cloudlet
+     * id of each entry, or {@link #FREE}, and its slot. It is kept at most half full.
+     */
+    private int[] indexIds;
+
+    private int[] indexSlots;
+
+    /** The number of cloudlets in the heap. */
+    private int size;
+
+    /** The sequence number given to the next added cloudlet. */
+    private long nextSeq;
+
+    public ResCloudletHeap() {
+        this(16);
+    }
+
+    public ResCloudletHeap(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 2);
+        keys = new double[capacity];
+        seqs = new long[capacity];
+        items = new ResCloudlet[capacity];
+        ids = new int[capacity];
+        indexIds = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        Arrays.fill(indexIds, FREE);
+        indexSlots = new int[indexIds.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a cloudlet to the heap.
+     * @param rcl the cloudlet
+     * @param key the key to order the cloudlet by
+     */
+    public void add(ResCloudlet rcl, double key) {
+        if (size == items.length) {
+            int capacity = items.length << 1;
+            keys = Arrays.copyOf(keys, capacity);
+            seqs = Arrays.copyOf(seqs, capacity);
+            items = Arrays.copyOf(items, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            growIndex();
+        }
+        int slot = size++;
+        keys[slot] = key;
+        seqs[slot] = nextSeq++;
+        items[slot] = rcl;
+        ids[slot] = rcl.getCloudletId();
+        setSlot(ids[slot], slot);
+        siftUp(slot);
+    }
+
+    /**
+     * Gets the cloudlet with the smallest key.
+     * @return the cloudlet or null if the heap is empty
+     */
+    public ResCloudlet peek() {
+        return size == 0 ? null : items[0];
+    }
+
+    /**
+     * Gets the smallest key.
+     * @return the key or {@link Double#MAX_VALUE} if the heap is empty
+     */
+    public double peekKey() {
+        return size == 0 ? Double.MAX_VALUE : keys[0];
+    }
+
+    /**
+     * Removes the cloudlet with the smallest key.
+     * @return the cloudlet or null if the heap is empty
+     */
+    public ResCloudlet poll() {
+        return size == 0 ? null : removeAt(0);
+    }
+
+    /**
+     * Gets the cloudlet in a slot. Slots 0 to {@link #size()} - 1 are in heap order, not key order.
+     * @param slot the slot
+     * @return the cloudlet
+     */
+    public ResCloudlet get(int slot) {
+        return items[slot];
+    }
+
+    /**
+     * Gets the key of the cloudlet in a slot.
+     * @param slot the slot
+     * @return the key
+     */
+    public double keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Finds the slot that holds a cloudlet.
+     * @param cloudletId the cloudlet id
+     * @return the slot or -1 if the cloudlet is not in the heap
+     */
+    public int indexOf(int cloudletId) {
+        if (cloudletId < 0) {
+            return -1;
+        }
+        int entry = findEntry(cloudletId);
+        return indexIds[entry] == FREE ? -1 : indexSlots[entry];
+    }
+
+    /**
+     * Removes the cloudlet in a slot.
+     * @param slot the slot
+     * @return the removed cloudlet
+     */
+    public ResCloudlet removeAt(int slot) {
+        ResCloudlet rcl = items[slot];
+        removeSlot(ids[slot]);
+        int last = --size;
+        if (slot != last) {
+            move(last, slot);
+            items[last] = null;
+            siftDown(slot);
+            siftUp(slot);
+        } else {
+            items[last] = null;
+        }
+        return rcl;
+    }
+
+    /**
+     * Changes the key of the cloudlet in a slot.
+     * @param slot the slot
+     * @param key the new key
+     */
+    public void updateKeyAt(int slot, double key) {
+        double oldKey = keys[slot];
+        keys[slot] = key;
+        if (key < oldKey) {
+            siftUp(slot);
+        } else {
+            siftDown(slot);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        Arrays.fill(indexIds, FREE);
+        size = 0;
+    }
+
+    private boolean less(int i, int j) {
+        return keys[i] < keys[j] || (keys[i] == keys[j] && seqs[i] < seqs[j]);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        seqs[to] = seqs[from];
+        items[to] = items[from];
+        ids[to] = ids[from];
+        setSlot(ids[to], to);
+    }
+
+    private void swap(int i, int j) {
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long seq = seqs[i];
+        seqs[i] = seqs[j];
+        seqs[j] = seq;
+        ResCloudlet rcl = items[i];
+        items[i] = items[j];
+        items[j] = rcl;
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        setSlot(ids[i], i);
+        setSlot(ids[j], j);
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!less(slot, parent)) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = (slot << 1) + 1;
+            int right = child + 1;
+            if (right < size && less(right, child)) {
+                child = right;
+            }
+            if (!less(child, slot)) {
+                break;
+            }
+            swap(slot, child);
+            slot = child;
+        }
+    }
+
+    /**
+     * Records the slot of a cloudlet in the index.
+     */
+    private void setSlot(int cloudletId, int slot) {
+        int entry = findEntry(cloudletId);
+        indexIds[entry] = cloudletId;
+        indexSlots[entry] = slot;
+    }
+
+    /**
+     * Removes a cloudlet from the index. Entries further along the probe run move back into the
+     * freed one unless their own home entry lies between the two, so that a lookup never stops at
+     * a hole before reaching them.
+     */
+    private void removeSlot(int cloudletId) {
+        int entry = findEntry(cloudletId);
+        if (indexIds[entry] == FREE) {
+            return;
+        }
+        int mask = indexIds.length - 1;
+        int next = entry;
+        while (true) {
+            next = (next + 1) & mask;
+            if (indexIds[next] == FREE) {
+                break;
+            }
+            int home = hash(indexIds[next]) & mask;
+            if (((next - home) & mask) >= ((next - entry) & mask)) {
+                indexIds[entry] = indexIds[next];
+                indexSlots[entry] = indexSlots[next];
+                entry = next;
+            }
+        }
+        indexIds[entry] = FREE;
+    }
+
+    /**
+     * Gets the index entry of a cloudlet, or the free entry where it would go.
+     */
+    private int findEntry(int cloudletId) {
+        int mask = indexIds.length - 1;
+        int entry = hash(cloudletId) & mask;
+        while (indexIds[entry] != FREE && indexIds[entry] != cloudletId) {
+            entry = (entry + 1) & mask;
+        }
+        return entry;
+    }
+
+    /**
+     * Doubles the index along with the slots, so that it stays at most half full.
+     */
+    private void growIndex() {
+        indexIds = new int[indexIds.length * 2];
+        Arrays.fill(indexIds, FREE);
+        indexSlots = new int[indexIds.length];
+        for (int slot = 0; slot < size; slot++) {
+            setSlot(ids[slot], slot);
+        }
+    }
+
+    /**
+     * Spreads the ids, which are often consecutive, over the index.
+     */
+    private static int hash(int cloudletId) {
+        int h = cloudletId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,378 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.VmSchedulerSpaceShared;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.examples.ScenarioSpec.BrokerSpec;
+import org.cloudbus.cloudsim.examples.ScenarioSpec.DatacenterSpec;
+import org.cloudbus.cloudsim.examples.ScenarioSpec.HostSpec;
+import org.cloudbus.cloudsim.examples.ScenarioSpec.VmSpec;
+
+/**
+ * Runs the scenarios described by {@link ScenarioSpec}s, in place of a main class per example.
+ *
+ * The datacenters are created in the order of the spec, named Datacenter_0, Datacenter_1 and so
+ * on. Each broker gets its VMs and cloudlets with ids counted from 0, and the results of each
+ * broker are kept in a {@link CloudletResultStore} and printed as the examples print them,
+ * followed by {@link CloudletStatistics} when the spec asks for them.
+ *
+ * A scenario with a single streaming broker can write {@link SimulationSnapshot}s as it runs,
+ * whenever its datacenters drain: a snapshot records the state of an idle simulation, not queued
+ * events or cloudlets, so a scenario that keeps its VMs busy takes none. Run again with the same
+ * snapshot file after a crash, it resumes from the last snapshot and prints the same results as
+ * a run that was never interrupted.
+ *
+ * The cloudlets of a broker with arrivals are created as they arrive rather than up front, and
+ * streamed by a {@link DatacenterBrokerStreaming}, so they can queue at the broker as well as in
+ * their VMs.
+ */
+public class ScenarioRunner {
+
+    /**
+     * Runs a scenario and prints its results.
+     * @param spec the scenario
+     * @return the results of each broker, in the order of the spec
+     * @throws Exception if the simulation fails
+     */
+    public static List<CloudletResultStore> run(ScenarioSpec spec) throws Exception {
+        return run(spec, null, 0.0);
+    }
+
+    /**
+     * Runs a scenario, writing snapshots to a file, and prints its results. If the file already
+     * holds snapshots, the run resumes from the last one.
+     * @param spec the scenario, with a single streaming broker if snapshots are taken
+     * @param snapshotFile the snapshot file, or null to take no snapshots
+     * @param snapshotInterval the simulation time between two snapshots
+     * @return the results of each broker, in the order of the spec
+     * @throws Exception if the simulation fails
+     */
+    public static List<CloudletResultStore> run(ScenarioSpec spec, File snapshotFile, double snapshotInterval)
+            throws Exception {
+        List<BrokerSpec> brokerSpecs = spec.brokers;
+        if (snapshotFile != null
+                && (brokerSpecs.size() != 1 || brokerSpecs.get(0).type != ScenarioSpec.BrokerType.STREAMING)) {
+            throw new IllegalArgumentException("Snapshots need a scenario with a single streaming broker");
+        }
+        List<Closeable> closeables = new ArrayList<Closeable>();
+        try {
+            CloudSim.init(brokerSpecs.size(), Calendar.getInstance(), false);
+            spec.futureQueue.install();
+
+            int datacenterId = 0;
+            for (DatacenterSpec datacenterSpec : spec.datacenters) {
+                for (int i = 0; i < datacenterSpec.count; i++) {
+                    createDatacenter("Datacenter_" + datacenterId++, datacenterSpec);
+                }
+            }
+
+            DatacenterBroker[] brokers = new DatacenterBroker[brokerSpecs.size()];
+            CloudletResultStore[] results = new CloudletResultStore[brokers.length];
+            for (int b = 0; b < brokers.length; b++) {
+                BrokerSpec brokerSpec = brokerSpecs.get(b);
+                results[b] = new CloudletResultStore(Math.max(brokerSpec.lengths.length, 16));
+                brokers[b] = createBroker(brokerSpec, results[b], closeables);
+                int brokerId = brokers[b].getId();
+
+                List<Vm> vmList = new ArrayList<Vm>(brokerSpec.vmCount);
+                for (VmSpec vmSpec : brokerSpec.vms) {
+                    for (int i = 0; i < vmSpec.count; i++) {
+                        vmList.add(new Vm(vmList.size(), brokerId, vmSpec.mips, vmSpec.pes, vmSpec.ram, vmSpec.bw,
+                                vmSpec.size, vmSpec.vmm, createScheduler(vmSpec)));
+                    }
+                }
+                brokers[b].submitVmList(vmList);
+
+                long[] lengths = brokerSpec.lengths;
+                if (lengths.length == 0 || brokerSpec.arrivals != null) {
+                    continue;
+                }
+                CloudletTemplate[] templates = createTemplates(brokerSpec);
+                List<Cloudlet> cloudletList = new ArrayList<Cloudlet>(lengths.length);
+                for (int id = 0; id < lengths.length; id++) {
+                    Cloudlet cloudlet = templates[id % templates.length].createCloudlet(id, lengths[id]);
+                    cloudlet.setUserId(brokerId);
+                    if (brokerSpec.boundVm >= 0) {
+                        cloudlet.setVmId(brokerSpec.boundVm);
+                    } else if (brokerSpec.roundRobin) {
+                        cloudlet.setVmId(id % brokerSpec.vmCount);
+                    }
+                    cloudletList.add(cloudlet);
+                }
+                brokers[b].submitCloudletList(cloudletList);
+            }
+
+            if (snapshotFile != null) {
+                DatacenterBrokerStreaming broker = (DatacenterBrokerStreaming) brokers[0];
+                SnapshotFile snapshots = SnapshotFile.open(snapshotFile, results[0]);
+                closeables.add(snapshots);
+                if (snapshots.getLastSnapshot() != null) {
+                    Log.printLine("Resuming " + spec.getName() + " from snapshot " + snapshots.getSnapshotCount()
+                            + " at " + snapshots.getLastSnapshot().getClock());
+                    broker.resumeFrom(snapshots.getLastSnapshot());
+                }
+                broker.setSnapshots(snapshots, snapshotInterval);
+            }
+
+            SimulationProfiler.start();
+            CloudSim.startSimulation();
+
+            CloudSim.stopSimulation();
+            SimulationProfiler.dump();
+
+            for (int b = 0; b < brokers.length; b++) {
+                if (!(brokers[b] instanceof DatacenterBrokerSjf)) {
+                    List<Cloudlet> received = brokers[b].getCloudletReceivedList();
+                    for (Cloudlet cloudlet : received) {
+                        results[b].record(cloudlet);
+                    }
+                }
+            }
+            printResults(spec, brokers, results);
+            for (Closeable closeable : closeables) {
+                if (closeable instanceof ExternalSjfSorter) {
+                    ((ExternalSjfSorter) closeable).printReport();
+                }
+            }
+            if (spec.statistics) {
+                CloudletStatistics statistics = new CloudletStatistics();
+                for (int b = 0; b < brokers.length; b++) {
+                    statistics.record(results[b], brokers[b].getId());
+                }
+                statistics.printSummary();
+            }
+            return Arrays.asList(results);
+        } finally {
+            for (Closeable closeable : closeables) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Runs the scenarios of the spec files given as arguments, one after the other. The argument
+     * {@code --trace=file} streams a trace through the first broker of each scenario instead of
+     * its cloudlets, and {@code --sort} sorts that trace shortest first through an
+     * {@link ExternalSjfSorter}, printing the time spent sorting. The argument
+     * {@code --snapshots=dir} writes the snapshots of each scenario to
+     * {@code dir/name.snapshots}, resuming from it if it exists, at the first quiet point after
+     * every {@code --snapshot-interval=seconds} of simulation time, one day by default. The
+     * interval is a lower bound: a busy simulation takes its snapshots later, or not at all, and
+     * only a scenario with a single streaming broker takes any.
+     * @param args the spec files
+     */
+    public static void main(String[] args) {
+        String trace = null;
+        boolean sort = false;
+        File snapshotDir = null;
+        double snapshotInterval = 86400.0;
+        List<String> files = new ArrayList<String>();
+        for (String arg : args) {
+            if (arg.startsWith("--trace=")) {
+                trace = arg.substring("--trace=".length());
+            } else if (arg.equals("--sort")) {
+                sort = true;
+            } else if (arg.startsWith("--snapshots=")) {
+                snapshotDir = new File(arg.substring("--snapshots=".length()));
+            } else if (arg.startsWith("--snapshot-interval=")) {
+                snapshotInterval = Double.parseDouble(arg.substring("--snapshot-interval=".length()));
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.isEmpty()) {
+            Log.printLine("Usage: ScenarioRunner [--trace=file [--sort]] [--snapshots=dir [--snapshot-interval=seconds]]"
+                    + " spec.json...");
+            Log.printLine("Snapshots are taken at the first time the simulation is quiet once the interval,"
+                    + " one day by default, has passed since the last one, so the interval is a lower bound.");
+            Log.printLine("A quiet point has no cloudlet in flight and no event queued; a scenario that never"
+                    + " drains takes no snapshot, and only one with a single streaming broker takes any.");
+            return;
+        }
+
+        for (String file : files) {
+            try {
+                ScenarioSpec spec = ScenarioSpec.load(new File(file));
+                if (trace != null) {
+                    spec = spec.withTrace(trace, sort);
+                }
+                Log.printLine("Starting " + spec.getName() + "...");
+                run(spec, snapshotDir == null ? null : new File(snapshotDir, spec.getName() + ".snapshots"),
+                        snapshotInterval);
+                Log.printLine(spec.getName() + " finished!");
+            } catch (Exception e) {
+                e.printStackTrace();
+                Log.printLine("The simulation has been terminated due to an unexpected error");
+            }
+        }
+    }
+
+    private static Datacenter createDatacenter(String name, DatacenterSpec spec) throws Exception {
+        List<Host> hostList = new ArrayList<Host>(spec.hostCount);
+        for (HostSpec hostSpec : spec.hosts) {
+            for (int i = 0; i < hostSpec.count; i++) {
+                List<Pe> peList = new ArrayList<Pe>(hostSpec.pes);
+                for (int peId = 0; peId < hostSpec.pes; peId++) {
+                    peList.add(new Pe(peId, new PeProvisionerSimple(hostSpec.mips)));
+                }
+                VmScheduler vmScheduler = hostSpec.vmScheduler == ScenarioSpec.VmSchedulerType.SPACESHARED
+                        ? new VmSchedulerSpaceShared(peList) : new VmSchedulerTimeShared(peList);
+                hostList.add(new Host(hostList.size(), new RamProvisionerSimple(hostSpec.ram),
+                        new BwProvisionerSimple(hostSpec.bw), hostSpec.storage, peList, vmScheduler));
+            }
+        }
+
+        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(spec.arch, spec.os, spec.vmm,
+                hostList, spec.timeZone, spec.cost, spec.costPerMem, spec.costPerStorage, spec.costPerBw);
+        VmAllocationPolicy allocationPolicy = createAllocationPolicy(spec, hostList);
+        ProfiledDatacenter datacenter;
+        if (spec.hostsPerTask > 0) {
+            datacenter = new ParallelDatacenter(name, characteristics, allocationPolicy, new LinkedList<Storage>(), 0,
+                    ForkJoinPool.commonPool(), spec.hostsPerTask);
+        } else {
+            datacenter = new BatchingDatacenter(name, characteristics, allocationPolicy, new LinkedList<Storage>(), 0);
+        }
+        datacenter.setSingleUpdateEvent(spec.singleUpdateEvent);
+        return datacenter;
+    }
+
+    private static VmAllocationPolicy createAllocationPolicy(DatacenterSpec spec, List<Host> hostList) {
+        switch (spec.allocation) {
+        case WORSTFIT:
+            return new VmAllocationPolicyIndexed(hostList, VmAllocationPolicyIndexed.Fit.WORST);
+        case BESTFIT:
+            return new VmAllocationPolicyIndexed(hostList, VmAllocationPolicyIndexed.Fit.BEST);
+        default:
+            return new VmAllocationPolicySimple(hostList);
+        }
+    }
+
+    private static DatacenterBroker createBroker(BrokerSpec spec, CloudletResultStore results, List<Closeable> traces)
+            throws Exception {
+        DatacenterBrokerSjf broker;
+        switch (spec.type) {
+        case DEFAULT:
+            return new ProfiledDatacenterBroker(spec.name);
+        case STREAMING:
+            if (spec.arrivals != null) {
+                WorkloadGenerator arriving = new WorkloadGenerator(spec.lengths, spec.arrivals.process,
+                        spec.arrivals.seed);
+                arriving.setTemplates(createTemplates(spec));
+                broker = new DatacenterBrokerStreaming(spec.name, arriving, spec.arrivals.batchSize,
+                        spec.arrivals.maxInFlight);
+                break;
+            }
+            CloudletTraceReader trace = new CloudletTraceReader(new File(spec.trace.path), spec.trace.format,
+                    spec.trace.rating);
+            traces.add(trace);
+            CloudletSource source = spec.trace.window > 0 ? new ArrivalBuffer(trace, spec.trace.window) : trace;
+            if (spec.trace.sort) {
+                ExternalSjfSorter sorter = new ExternalSjfSorter(null, spec.trace.runSize, createTemplates(spec)[0]);
+                traces.add(sorter);
+                sorter.addAll(trace);
+                sorter.sort();
+                source = sorter;
+            }
+            broker = new DatacenterBrokerStreaming(spec.name, source, spec.trace.batchSize);
+            break;
+        case FEDERATED:
+            broker = new DatacenterBrokerFederated(spec.name);
+            break;
+        default:
+            broker = new DatacenterBrokerSjf(spec.name);
+        }
+        broker.setResultStore(results);
+        broker.setBatchSubmission(spec.batchSubmission);
+        return broker;
+    }
+
+    /**
+     * Creates the templates of the cloudlets of a broker, one per entry of its PEs.
+     */
+    private static CloudletTemplate[] createTemplates(BrokerSpec spec) {
+        CloudletTemplate[] templates = new CloudletTemplate[spec.cloudletPes.length];
+        for (int i = 0; i < templates.length; i++) {
+            templates[i] = CloudletTemplate.of(spec.cloudletPes[i], spec.fileSize, spec.outputSize);
+        }
+        return templates;
+    }
+
+    private static CloudletScheduler createScheduler(VmSpec spec) {
+        switch (spec.scheduler) {
+        case SRTF:
+            return new CloudletSchedulerSrtf();
+        case EASY:
+            return new CloudletSchedulerEasyBackfilling();
+        case MLFQ:
+            return new CloudletSchedulerMlfq(spec.quanta, spec.boostInterval);
+        case TIMESHARED:
+            return new CloudletSchedulerTimeShared();
+        case FAIRSHARE:
+            return new CloudletSchedulerFairShare();
+        case SPACESHARED:
+            return new CloudletSchedulerSpaceShared();
+        default:
+            return new CloudletSchedulerSjf();
+        }
+    }
+
+    private static void printResults(ScenarioSpec spec, DatacenterBroker[] brokers, CloudletResultStore[] results)
+            throws IOException {
+        if (spec.table == ScenarioSpec.TableLayout.NONE || Log.isDisabled()) {
+            return;
+        }
+        boolean full = spec.table == ScenarioSpec.TableLayout.FULL;
+        CloudletTableWriter writer;
+        if (spec.turnaroundFromStart) {
+            writer = new CloudletTableWriter(Channels.newChannel(Log.getOutput()), full) {
+                @Override
+                protected double getTurnaroundTime(CloudletResultStore results, int row) {
+                    return results.getFinishTime(row) - results.getExecStartTime(row);
+                }
+
+                @Override
+                protected double getWaitingTime(CloudletResultStore results, int row) {
+                    return getTurnaroundTime(results, row) - results.getActualCPUTime(row);
+                }
+            };
+        } else {
+            writer = CloudletTableWriter.toLog(full);
+        }
+
+        for (int b = 0; b < brokers.length; b++) {
+            if (brokers.length > 1) {
+                Log.print("=============> User " + brokers[b].getId() + "    ");
+            }
+            writer.writeAll(results[b]);
+        }
+    }
+}
@@ -0,0 +1,681 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A scenario compiled from a JSON spec: the datacenters and their hosts, the brokers with their
+ * VMs and workload, and how the results are printed. A spec looks like:
+ *
+ * <pre>
+ * {
+ *   "name": "sjf2",
+ *   "futureQueue": "calendar",
+ *   "datacenters": [ { "count": 1, "hosts": [ { "count": 1, "pes": 1, "mips": 1000 } ] } ],
+ *   "brokers": [ {
+ *     "type": "sjf",
+ *     "vms": [ { "mips": 600 }, { "mips": 1200 } ],
+ *     "cloudlets": { "lengths": [ 100000, 250000 ] }
+ *   } ],
+ *   "output": { "table": "full", "statistics": true }
+ * }
+ * </pre>
+ *
+ * Every field but the datacenters and brokers has the default value of the examples. Compiling
+ * checks the whole spec and computes everything the runner needs up front, such as the cloudlet
+ * lengths and the size of each list, so a compiled spec can be run any number of times.
+ *
+ * A datacenter with {@code "parallel": true} updates its hosts on the common fork-join pool,
+ * {@code "hostsPerTask"} at a time, as a {@link ParallelDatacenter}. Its {@code "allocation"} is
+ * {@code "simple"} for VmAllocationPolicySimple, or {@code "worstfit"} or {@code "bestfit"} for a
+ * {@link VmAllocationPolicyIndexed}. One with {@code "singleUpdateEvent": true} keeps a single
+ * update event queued, as described in {@link ProfiledDatacenter}.
+ *
+ * A broker other than the default one with {@code "batchSubmission": true} sends the cloudlets
+ * bound for each VM in one event, as described in {@link DatacenterBrokerSjf}.
+ *
+ * The cloudlets of a broker arrive over time rather than all at once when they have
+ * {@code "arrivals"}, such as {@code { "process": "poisson", "rate": 0.5, "seed": 1 }}; the
+ * process is {@code "batch"}, {@code "periodic"} with an {@code "interval"}, or {@code "poisson"}
+ * with a {@code "rate"}. Such a broker streams them, {@code "batchSize"} at a time and no more than
+ * {@code "maxInFlight"} in the datacenters, and their waiting times count from their arrivals. A
+ * trace with a {@code "window"} is read through an {@link ArrivalBuffer} of that many cloudlets.
+ * One with {@code "sort": true} is read whole into an {@link ExternalSjfSorter} that holds
+ * {@code "runSize"} jobs in memory, and streamed shortest first, all arriving at 0 and rebuilt
+ * from their length with the PEs and file sizes of the broker's cloudlets; the time the sorter
+ * spent is printed after the results.
+ *
+ * The {@code "pes"} of the cloudlets may be a list, dealt out to the cloudlets in turn, for
+ * workloads of mixed widths such as those the {@code "easy"} scheduler backfills.
+ *
+ * VMs with the {@code "mlfq"} scheduler take its {@code "quanta"}, the run time in seconds a
+ * cloudlet gets in each upper level, above a last level that runs cloudlets in order, and its
+ * {@code "boostInterval"}, as described in {@link CloudletSchedulerMlfq}.
+ *
+ * @see ScenarioRunner
+ */
+public final class ScenarioSpec {
+
+    /** The broker types. */
+    enum BrokerType {
+        DEFAULT, SJF, STREAMING, FEDERATED
+    }
+
+    /** The cloudlet schedulers of VMs. */
+    enum SchedulerType {
+        SJF, SRTF, EASY, MLFQ, TIMESHARED, FAIRSHARE, SPACESHARED
+    }
+
+    /** The arrival processes of cloudlets. */
+    enum ArrivalType {
+        BATCH, PERIODIC, POISSON
+    }
+
+    /** The VM schedulers of hosts. */
+    enum VmSchedulerType {
+        TIMESHARED, SPACESHARED
+    }
+
+    /** The VM allocation policies of datacenters. */
+    enum AllocationType {
+        SIMPLE, WORSTFIT, BESTFIT
+    }
+
+    /** The layouts of the results table. */
+    enum TableLayout {
+        FULL, SHORT, NONE
+    }
+
+    /** Specs loaded from files, by canonical path. */
+    private static final Map<String, CachedSpec> CACHE = new ConcurrentHashMap<String, CachedSpec>();
+
+    final String name;
+
+    /** The queue of future events the simulation runs on. */
+    final FutureEventList futureQueue;
+
+    final List<DatacenterSpec> datacenters;
+
+    final List<BrokerSpec> brokers;
+
+    final TableLayout table;
+
+    /** Whether turnaround times are measured from the start of execution instead of submission. */
+    final boolean turnaroundFromStart;
+
+    /** Whether percentiles of the cloudlet times are printed after the tables. */
+    final boolean statistics;
+
+    /** The number of datacenters, counting repeated ones. */
+    final int datacenterCount;
+
+    private ScenarioSpec(Map<String, Object> spec) {
+        this.name = string(spec, "name", "scenario");
+        this.futureQueue = choice(spec, "futureQueue", FutureEventList.class, FutureEventList.TREE);
+
+        List<Object> datacenterList = list(spec, "datacenters");
+        DatacenterSpec[] datacenterSpecs = new DatacenterSpec[datacenterList.size()];
+        int count = 0;
+        for (int i = 0; i < datacenterSpecs.length; i++) {
+            datacenterSpecs[i] = new DatacenterSpec(object(datacenterList.get(i), "datacenters[" + i + "]"));
+            count += datacenterSpecs[i].count;
+        }
+        this.datacenters = Collections.unmodifiableList(Arrays.asList(datacenterSpecs));
+        this.datacenterCount = count;
+
+        List<Object> brokerList = list(spec, "brokers");
+        BrokerSpec[] brokerSpecs = new BrokerSpec[brokerList.size()];
+        for (int i = 0; i < brokerSpecs.length; i++) {
+            brokerSpecs[i] = new BrokerSpec(object(brokerList.get(i), "brokers[" + i + "]"), i, brokerSpecs.length);
+        }
+        this.brokers = Collections.unmodifiableList(Arrays.asList(brokerSpecs));
+
+        Map<String, Object> output = spec.containsKey("output") ? object(spec.get("output"), "output")
+                : Collections.<String, Object> emptyMap();
+        this.table = choice(output, "table", TableLayout.class, TableLayout.FULL);
+        this.turnaroundFromStart = "start".equals(string(output, "turnaroundFrom", "submission"));
+        this.statistics = bool(output, "statistics", false);
+        if (datacenterCount == 0 || brokers.isEmpty()) {
+            throw new IllegalArgumentException("A scenario needs at least one datacenter and one broker");
+        }
+    }
+
+    /**
+     * Parses and compiles a spec.
+     * @param json the spec
+     * @return the compiled spec
+     * @throws IllegalArgumentException if the spec is invalid
+     */
+    public static ScenarioSpec parse(String json) {
+        return new ScenarioSpec(object(JsonReader.parse(json), "spec"));
+    }
+
+    /**
+     * Loads a spec from a file. Compiled specs are cached until the file changes, so running many
+     * scenarios from the same files parses each file once.
+     * @param file the spec file
+     * @return the compiled spec
+     * @throws IOException if the file cannot be read
+     */
+    public static ScenarioSpec load(File file) throws IOException {
+        String path = file.getCanonicalPath();
+        long lastModified = file.lastModified();
+        CachedSpec cached = CACHE.get(path);
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.spec;
+        }
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        ScenarioSpec spec;
+        try {
+            spec = parse(json);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+        }
+        CACHE.put(path, new CachedSpec(lastModified, spec));
+        return spec;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets a copy of this spec whose first broker streams the given trace instead of its
+     * cloudlets.
+     * @param path the trace file
+     * @return the new spec
+     */
+    public ScenarioSpec withTrace(String path) {
+        return withTrace(path, false);
+    }
+
+    /**
+     * Gets a copy of this spec whose first broker streams the given trace instead of its
+     * cloudlets, sorted shortest first through an {@link ExternalSjfSorter} if asked.
+     * @param path the trace file
+     * @param sort whether the trace is sorted
+     * @return the new spec
+     */
+    public ScenarioSpec withTrace(String path, boolean sort) {
+        BrokerSpec[] brokerSpecs = brokers.toArray(new BrokerSpec[brokers.size()]);
+        brokerSpecs[0] = new BrokerSpec(brokerSpecs[0], new TraceSpec(path, null, 1000, 10000, 0, sort,
+                TraceSpec.DEFAULT_RUN_SIZE));
+        return new ScenarioSpec(this, Collections.unmodifiableList(Arrays.asList(brokerSpecs)));
+    }
+
+    private ScenarioSpec(ScenarioSpec other, List<BrokerSpec> brokers) {
+        this.name = other.name;
+        this.futureQueue = other.futureQueue;
+        this.datacenters = other.datacenters;
+        this.brokers = brokers;
+        this.table = other.table;
+        this.turnaroundFromStart = other.turnaroundFromStart;
+        this.statistics = other.statistics;
+        this.datacenterCount = other.datacenterCount;
+    }
+
+    /** A group of identical datacenters. */
+    static final class DatacenterSpec {
+
+        final int count;
+
+        final List<HostSpec> hosts;
+
+        /** The number of hosts of each datacenter, counting repeated ones. */
+        final int hostCount;
+
+        final String arch;
+
+        final String os;
+
+        final String vmm;
+
+        final double timeZone;
+
+        final double cost;
+
+        final double costPerMem;
+
+        final double costPerStorage;
+
+        final double costPerBw;
+
+        final AllocationType allocation;
+
+        /** The hosts updated by one task of a {@link ParallelDatacenter}, or 0 to update them in turn. */
+        final int hostsPerTask;
+
+        /** Whether the datacenter keeps a single update event queued. */
+        final boolean singleUpdateEvent;
+
+        DatacenterSpec(Map<String, Object> spec) {
+            count = integer(spec, "count", 1);
+            List<Object> hostList = list(spec, "hosts");
+            HostSpec[] hostSpecs = new HostSpec[hostList.size()];
+            int total = 0;
+            for (int i = 0; i < hostSpecs.length; i++) {
+                hostSpecs[i] = new HostSpec(object(hostList.get(i), "hosts[" + i + "]"));
+                total += hostSpecs[i].count;
+            }
+            hosts = Collections.unmodifiableList(Arrays.asList(hostSpecs));
+            hostCount = total;
+            arch = string(spec, "arch", "x86");
+            os = string(spec, "os", "Linux");
+            vmm = string(spec, "vmm", "Xen");
+            timeZone = number(spec, "timeZone", 10.0);
+            cost = number(spec, "cost", 3.0);
+            costPerMem = number(spec, "costPerMem", 0.05);
+            costPerStorage = number(spec, "costPerStorage", 0.001);
+            costPerBw = number(spec, "costPerBw", 0.0);
+            allocation = choice(spec, "allocation", AllocationType.class, AllocationType.SIMPLE);
+            boolean parallel = bool(spec, "parallel", false);
+            hostsPerTask = parallel ? integer(spec, "hostsPerTask", ParallelDatacenter.DEFAULT_HOSTS_PER_TASK) : 0;
+            if (parallel && hostsPerTask < 1) {
+                throw new IllegalArgumentException("hostsPerTask must be positive");
+            }
+            singleUpdateEvent = bool(spec, "singleUpdateEvent", false);
+        }
+    }
+
+    /** A group of identical hosts. */
+    static final class HostSpec {
+
+        final int count;
+
+        final int pes;
+
+        final int mips;
+
+        final int ram;
+
+        final long bw;
+
+        final long storage;
+
+        final VmSchedulerType vmScheduler;
+
+        HostSpec(Map<String, Object> spec) {
+            count = integer(spec, "count", 1);
+            pes = integer(spec, "pes", 1);
+            mips = integer(spec, "mips", 1000);
+            ram = integer(spec, "ram", 2048);
+            bw = integer(spec, "bw", 10000);
+            storage = longInteger(spec, "storage", 1000000);
+            vmScheduler = choice(spec, "vmScheduler", VmSchedulerType.class, VmSchedulerType.TIMESHARED);
+        }
+    }
+
+    /** A broker, which stands for one user, with its VMs and workload. */
+    static final class BrokerSpec {
+
+        final String name;
+
+        final BrokerType type;
+
+        final List<VmSpec> vms;
+
+        /** The number of VMs, counting repeated ones. */
+        final int vmCount;
+
+        /** The cloudlet lengths in MI, in submission order. */
+        final long[] lengths;
+
+        /** The PEs of the cloudlets, dealt out to them in turn. */
+        final int[] cloudletPes;
+
+        final long fileSize;
+
+        final long outputSize;
+
+        /** The VM all cloudlets are bound to, or -1. */
+        final int boundVm;
+
+        /** Whether cloudlet i is bound to VM i modulo the number of VMs. */
+        final boolean roundRobin;
+
+        /** The trace streamed instead of the cloudlets, or null. */
+        final TraceSpec trace;
+
+        /** The arrivals of the cloudlets, or null if they are all submitted at once. */
+        final ArrivalSpec arrivals;
+
+        /** Whether the cloudlets bound for a VM are submitted in one event. */
+        final boolean batchSubmission;
+
+        BrokerSpec(Map<String, Object> spec, int index, int brokers) {
+            name = string(spec, "name", brokers == 1 ? "Broker" : "Broker" + (index + 1));
+            List<Object> vmList = list(spec, "vms");
+            VmSpec[] vmSpecs = new VmSpec[vmList.size()];
+            int total = 0;
+            for (int i = 0; i < vmSpecs.length; i++) {
+                vmSpecs[i] = new VmSpec(object(vmList.get(i), "vms[" + i + "]"));
+                total += vmSpecs[i].count;
+            }
+            vms = Collections.unmodifiableList(Arrays.asList(vmSpecs));
+            vmCount = total;
+            if (vmCount == 0) {
+                throw new IllegalArgumentException("Broker " + name + " has no VMs");
+            }
+
+            Map<String, Object> cloudlets = spec.containsKey("cloudlets") ? object(spec.get("cloudlets"), "cloudlets")
+                    : Collections.<String, Object> emptyMap();
+            trace = spec.containsKey("trace") ? new TraceSpec(object(spec.get("trace"), "trace")) : null;
+            arrivals = cloudlets.containsKey("arrivals")
+                    ? new ArrivalSpec(object(cloudlets.get("arrivals"), "arrivals")) : null;
+            if (trace != null && arrivals != null) {
+                throw new IllegalArgumentException("Broker " + name + " cannot have both a trace and arrivals");
+            }
+            boolean streams = trace != null || arrivals != null;
+            type = choice(spec, "type", BrokerType.class, streams ? BrokerType.STREAMING : BrokerType.DEFAULT);
+            if ((type == BrokerType.STREAMING) != streams) {
+                throw new IllegalArgumentException("Broker " + name
+                        + " must have a trace or arrivals if and only if it streams");
+            }
+            batchSubmission = bool(spec, "batchSubmission", false);
+            if (batchSubmission && type == BrokerType.DEFAULT) {
+                throw new IllegalArgumentException("Broker " + name + " cannot submit batches as a default broker");
+            }
+
+            if (cloudlets.containsKey("lengths")) {
+                List<Object> lengthList = list(cloudlets, "lengths");
+                lengths = new long[lengthList.size()];
+                for (int i = 0; i < lengths.length; i++) {
+                    lengths[i] = toLong(lengthList.get(i), "lengths[" + i + "]");
+                }
+            } else {
+                // cloudlet i is length + i * step long, as in sjf6 and sjf7
+                lengths = new long[integer(cloudlets, "count", trace != null ? 0 : 1)];
+                long length = longInteger(cloudlets, "length", 1000);
+                long step = longInteger(cloudlets, "step", 0);
+                for (int i = 0; i < lengths.length; i++) {
+                    lengths[i] = length + i * step;
+                }
+            }
+            if (cloudlets.get("pes") instanceof List) {
+                List<Object> pesList = list(cloudlets, "pes");
+                cloudletPes = new int[pesList.size()];
+                for (int i = 0; i < cloudletPes.length; i++) {
+                    long pes = toLong(pesList.get(i), "pes[" + i + "]");
+                    if (pes < 1 || pes > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("pes[" + i + "] is out of range");
+                    }
+                    cloudletPes[i] = (int) pes;
+                }
+                if (cloudletPes.length == 0) {
+                    throw new IllegalArgumentException("Broker " + name + " has an empty list of cloudlet PEs");
+                }
+            } else {
+                cloudletPes = new int[] { integer(cloudlets, "pes", 1) };
+            }
+            fileSize = longInteger(cloudlets, "fileSize", 300);
+            outputSize = longInteger(cloudlets, "outputSize", 300);
+            boundVm = integer(cloudlets, "vm", -1);
+            roundRobin = "roundrobin".equals(string(cloudlets, "binding", "none"));
+            if (boundVm >= vmCount) {
+                throw new IllegalArgumentException("Broker " + name + " has no VM " + boundVm);
+            }
+            if (arrivals != null && (boundVm >= 0 || roundRobin)) {
+                throw new IllegalArgumentException("Broker " + name + " cannot bind cloudlets that arrive over time");
+            }
+        }
+
+        /** Copies a broker spec with another trace. */
+        BrokerSpec(BrokerSpec other, TraceSpec trace) {
+            this.name = other.name;
+            this.type = BrokerType.STREAMING;
+            this.vms = other.vms;
+            this.vmCount = other.vmCount;
+            this.lengths = new long[0];
+            this.cloudletPes = other.cloudletPes;
+            this.fileSize = other.fileSize;
+            this.outputSize = other.outputSize;
+            this.boundVm = -1;
+            this.roundRobin = false;
+            this.trace = trace;
+            this.arrivals = null;
+            this.batchSubmission = other.batchSubmission;
+        }
+    }
+
+    /** A group of identical VMs. */
+    static final class VmSpec {
+
+        final int count;
+
+        final int mips;
+
+        final int pes;
+
+        final int ram;
+
+        final long bw;
+
+        final long size;
+
+        final String vmm;
+
+        final SchedulerType scheduler;
+
+        /** The quanta of the levels of an MLFQ scheduler, the last one infinite. */
+        final double[] quanta;
+
+        final double boostInterval;
+
+        VmSpec(Map<String, Object> spec) {
+            count = integer(spec, "count", 1);
+            mips = integer(spec, "mips", 1000);
+            pes = integer(spec, "pes", 1);
+            ram = integer(spec, "ram", 512);
+            bw = longInteger(spec, "bw", 1000);
+            size = longInteger(spec, "size", 10000);
+            vmm = string(spec, "vmm", "Xen");
+            scheduler = choice(spec, "scheduler", SchedulerType.class, SchedulerType.SJF);
+            List<Object> quantaList = spec.containsKey("quanta") ? list(spec, "quanta") : Arrays.<Object>asList(2L, 4L);
+            quanta = new double[quantaList.size() + 1];
+            for (int i = 0; i < quantaList.size(); i++) {
+                Object quantum = quantaList.get(i);
+                if (!(quantum instanceof Number) || !(((Number) quantum).doubleValue() > 0)) {
+                    throw new IllegalArgumentException("quanta must be positive numbers");
+                }
+                quanta[i] = ((Number) quantum).doubleValue();
+            }
+            quanta[quantaList.size()] = Double.POSITIVE_INFINITY;
+            boostInterval = number(spec, "boostInterval", 10000);
+            if (boostInterval < 0) {
+                throw new IllegalArgumentException("boostInterval must not be negative");
+            }
+        }
+    }
+
+    /** The arrivals of the cloudlets of a broker, which a {@link DatacenterBrokerStreaming} submits. */
+    static final class ArrivalSpec {
+
+        final ArrivalProcess process;
+
+        final long seed;
+
+        final int batchSize;
+
+        final int maxInFlight;
+
+        ArrivalSpec(Map<String, Object> spec) {
+            switch (choice(spec, "process", ArrivalType.class, ArrivalType.BATCH)) {
+            case PERIODIC:
+                process = ArrivalProcess.periodic(number(spec, "interval", 1));
+                break;
+            case POISSON:
+                process = ArrivalProcess.poisson(number(spec, "rate", 1));
+                break;
+            default:
+                process = ArrivalProcess.batch();
+            }
+            seed = longInteger(spec, "seed", 1);
+            batchSize = integer(spec, "batchSize", 10000);
+            maxInFlight = integer(spec, "maxInFlight", Integer.MAX_VALUE);
+            if (batchSize < 1 || maxInFlight < 1) {
+                throw new IllegalArgumentException("The batch size and the cloudlets in flight must be positive");
+            }
+        }
+    }
+
+    /** A trace streamed by a {@link DatacenterBrokerStreaming}. */
+    static final class TraceSpec {
+
+        final String path;
+
+        final CloudletTraceReader.Format format;
+
+        final double rating;
+
+        final int batchSize;
+
+        /** The jobs an {@link ExternalSjfSorter} holds in memory by default. */
+        static final int DEFAULT_RUN_SIZE = 1 << 20;
+
+        /** The cloudlets read ahead to put the trace in order of arrival, or 0 to read it as it is. */
+        final int window;
+
+        /** Whether the trace is sorted shortest first by an {@link ExternalSjfSorter}. */
+        final boolean sort;
+
+        /** The jobs the sorter holds in memory. */
+        final int runSize;
+
+        TraceSpec(Map<String, Object> spec) {
+            this(string(spec, "path", null), spec.containsKey("format")
+                    ? choice(spec, "format", CloudletTraceReader.Format.class, null) : null,
+                    number(spec, "rating", 1000), integer(spec, "batchSize", 10000), integer(spec, "window", 0),
+                    bool(spec, "sort", false), integer(spec, "runSize", DEFAULT_RUN_SIZE));
+            if (path == null) {
+                throw new IllegalArgumentException("A trace needs a path");
+            }
+            if (window < 0) {
+                throw new IllegalArgumentException("The window of a trace must not be negative");
+            }
+            if (sort && window > 0) {
+                throw new IllegalArgumentException("A sorted trace has no window");
+            }
+            if (runSize < 1) {
+                throw new IllegalArgumentException("The run size of a trace must be positive");
+            }
+        }
+
+        /**
+         * @param format the format, or null to tell it from the extension: SWF for .swf and .gwf
+         */
+        TraceSpec(String path, CloudletTraceReader.Format format, double rating, int batchSize, int window,
+                boolean sort, int runSize) {
+            this.path = path;
+            String lower = path == null ? "" : path.toLowerCase();
+            this.format = format != null ? format : lower.endsWith(".swf") || lower.endsWith(".gwf")
+                    ? CloudletTraceReader.Format.SWF : CloudletTraceReader.Format.CSV;
+            this.rating = rating;
+            this.batchSize = batchSize;
+            this.window = window;
+            this.sort = sort;
+            this.runSize = runSize;
+        }
+    }
+
+    private static final class CachedSpec {
+
+        final long lastModified;
+
+        final ScenarioSpec spec;
+
+        CachedSpec(long lastModified, ScenarioSpec spec) {
+            this.lastModified = lastModified;
+            this.spec = spec;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(Object value, String field) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException(field + " must be an object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Map<String, Object> spec, String field) {
+        Object value = spec.get(field);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException(field + " must be an array");
+        }
+        return (List<Object>) value;
+    }
+
+    private static String string(Map<String, Object> spec, String field, String defaultValue) {
+        Object value = spec.get(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static long toLong(Object value, String field) {
+        if (!(value instanceof Long)) {
+            throw new IllegalArgumentException(field + " must be an integer");
+        }
+        return (Long) value;
+    }
+
+    private static long longInteger(Map<String, Object> spec, String field, long defaultValue) {
+        Object value = spec.get(field);
+        return value == null ? defaultValue : toLong(value, field);
+    }
+
+    private static int integer(Map<String, Object> spec, String field, int defaultValue) {
+        long value = longInteger(spec, field, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(field + " is out of range");
+        }
+        return (int) value;
+    }
+
+    private static double number(Map<String, Object> spec, String field, double defaultValue) {
+        Object value = spec.get(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static boolean bool(Map<String, Object> spec, String field, boolean defaultValue) {
+        Object value = spec.get(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException(field + " must be true or false");
+        }
+        return (Boolean) value;
+    }
+
+    private static <E extends Enum<E>> E choice(Map<String, Object> spec, String field, Class<E> type, E defaultValue) {
+        String value = string(spec, field, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException(field + " must be one of " + Arrays.toString(type.getEnumConstants()));
+    }
+}
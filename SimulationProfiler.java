@@ -0,0 +1,235 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.DecimalFormat;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * Opt-in counters of where the simulation engine spends its time: the events processed by each
+ * kind of entity and the time taken, the time spent updating cloudlet processing in datacenters
+ * and schedulers, the bytes allocated per event and the size of the future event queue over time.
+ *
+ * Profiling is turned on with {@code -Dcloudsim.profile=true}. The flag is a static final
+ * constant, so when it is off the JIT removes the hooks and nothing is counted or timed. The
+ * hooks sit in {@link ProfiledDatacenter}, {@link ProfiledDatacenterBroker},
+ * {@link DatacenterBrokerSjf} and {@link CloudletSchedulerSjf}.
+ *
+ * Every {@code cloudsim.profile.interval} events (1024 by default) a sample of the simulation
+ * clock, queue size, event count and allocated bytes is written to a ring buffer of
+ * {@code cloudsim.profile.samples} entries (4096 by default), so the memory used does not grow
+ * with the run. {@link #dump()} prints the counters once the simulation has stopped, and writes
+ * the samples as CSV to the file named by {@code cloudsim.profile.out}, if set. Only the bytes
+ * allocated by the simulation thread are counted, not those of the workers of a
+ * {@link ParallelDatacenter}.
+ *
+ * Like CloudSim itself, the profiler keeps its state in static fields, one set per class loader.
+ */
+public final class SimulationProfiler {
+
+    /** Whether profiling is on. */
+    public static final boolean ENABLED = Boolean.getBoolean("cloudsim.profile");
+
+    /** The kinds of entities whose events are counted. */
+    public enum EntityType {
+        DATACENTER, BROKER
+    }
+
+    /** The number of events between two samples. */
+    private static final int SAMPLE_INTERVAL = Math.max(1, Integer.getInteger("cloudsim.profile.interval", 1024));
+
+    /** The number of samples kept; older ones are overwritten. */
+    private static final int SAMPLE_CAPACITY = Math.max(1, Integer.getInteger("cloudsim.profile.samples", 4096));
+
+    private static final String INDENT = "    ";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final long[] eventCounts = new long[EntityType.values().length];
+
+    private static final long[] eventNanos = new long[EntityType.values().length];
+
+    private static long vmProcessingCalls;
+
+    private static long vmProcessingNanos;
+
+    /** Counted with adders, as the schedulers of a {@link ParallelDatacenter} update on many threads. */
+    private static final LongAdder schedulerUpdateCalls = new LongAdder();
+
+    private static final LongAdder schedulerUpdateNanos = new LongAdder();
+
+    private static long totalEvents;
+
+    private static int maxQueueSize;
+
+    /** The bytes allocated by the simulation thread before the run, or -1 if unknown. */
+    private static long startAllocatedBytes = -1;
+
+    private static long startNanos;
+
+    private static final double[] sampleClocks = new double[ENABLED ? SAMPLE_CAPACITY : 0];
+
+    private static final int[] sampleQueueSizes = new int[ENABLED ? SAMPLE_CAPACITY : 0];
+
+    private static final long[] sampleEvents = new long[ENABLED ? SAMPLE_CAPACITY : 0];
+
+    private static final long[] sampleAllocatedBytes = new long[ENABLED ? SAMPLE_CAPACITY : 0];
+
+    /** The number of samples taken, of which the last {@link #SAMPLE_CAPACITY} are kept. */
+    private static long samples;
+
+    private SimulationProfiler() {
+    }
+
+    /**
+     * Clears the counters before a run. Call it after the entities are created and before
+     * {@code CloudSim.startSimulation()}, on the thread that runs the simulation.
+     */
+    public static void start() {
+        if (!ENABLED) {
+            return;
+        }
+        for (int i = 0; i < eventCounts.length; i++) {
+            eventCounts[i] = 0;
+            eventNanos[i] = 0;
+        }
+        vmProcessingCalls = 0;
+        vmProcessingNanos = 0;
+        schedulerUpdateCalls.reset();
+        schedulerUpdateNanos.reset();
+        totalEvents = 0;
+        maxQueueSize = 0;
+        samples = 0;
+        startAllocatedBytes = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Counts an event processed by an entity.
+     * @param type the kind of entity
+     * @param startNanos the {@link System#nanoTime()} at which the entity started processing it
+     */
+    public static void recordEvent(EntityType type, long startNanos) {
+        eventNanos[type.ordinal()] += System.nanoTime() - startNanos;
+        eventCounts[type.ordinal()]++;
+        if (++totalEvents % SAMPLE_INTERVAL == 0) {
+            sample();
+        }
+    }
+
+    /**
+     * Counts a call of {@code Datacenter.updateCloudletProcessing()}.
+     * @param startNanos the {@link System#nanoTime()} at which the call started
+     */
+    public static void recordVmProcessing(long startNanos) {
+        vmProcessingNanos += System.nanoTime() - startNanos;
+        vmProcessingCalls++;
+    }
+
+    /**
+     * Counts a call of {@code CloudletScheduler.updateVmProcessing()}, from any thread.
+     * @param startNanos the {@link System#nanoTime()} at which the call started
+     */
+    public static void recordSchedulerUpdate(long startNanos) {
+        schedulerUpdateNanos.add(System.nanoTime() - startNanos);
+        schedulerUpdateCalls.increment();
+    }
+
+    /**
+     * Prints the counters, and writes the samples to the file named by the
+     * {@code cloudsim.profile.out} property, if set. Call it after
+     * {@code CloudSim.stopSimulation()}.
+     */
+    public static void dump() {
+        if (!ENABLED) {
+            return;
+        }
+        double wallTime = (System.nanoTime() - startNanos) / 1e9;
+        long allocated = startAllocatedBytes >= 0 ? allocatedBytes() - startAllocatedBytes : -1;
+        DecimalFormat dft = new DecimalFormat("###.##");
+
+        Log.printLine();
+        Log.printLine("========== PROFILE ==========");
+        Log.printLine("Wall time (s)" + INDENT + dft.format(wallTime) + INDENT + "Events" + INDENT + totalEvents
+                + INDENT + "Events/s" + INDENT + dft.format(wallTime > 0 ? totalEvents / wallTime : 0.0));
+        Log.printLine("Entity" + INDENT + "Events" + INDENT + "Time (ms)" + INDENT + "Mean (us)");
+        for (EntityType type : EntityType.values()) {
+            printTimer(type.toString(), eventCounts[type.ordinal()], eventNanos[type.ordinal()], dft);
+        }
+        printTimer("updateCloudletProcessing", vmProcessingCalls, vmProcessingNanos, dft);
+        printTimer("updateVmProcessing", schedulerUpdateCalls.sum(), schedulerUpdateNanos.sum(), dft);
+        if (allocated >= 0) {
+            Log.printLine("Allocated bytes" + INDENT + allocated + INDENT + "Bytes/event" + INDENT
+                    + dft.format(totalEvents > 0 ? (double) allocated / totalEvents : 0.0));
+        }
+        Log.printLine("Max future queue size" + INDENT + maxQueueSize + INDENT + "(sampled every " + SAMPLE_INTERVAL
+                + " events)");
+
+        String out = System.getProperty("cloudsim.profile.out");
+        if (out != null) {
+            try {
+                Writer writer = new FileWriter(out);
+                try {
+                    writeSamples(writer);
+                } finally {
+                    writer.close();
+                }
+                Log.printLine("Samples written to " + out);
+            } catch (IOException e) {
+                Log.printLine("Could not write the samples to " + out + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the kept samples as CSV, oldest first.
+     * @param writer where to write
+     * @throws IOException if writing fails
+     */
+    public static void writeSamples(Writer writer) throws IOException {
+        writer.write("clock,future_queue_size,events,allocated_bytes\n");
+        long first = Math.max(0, samples - SAMPLE_CAPACITY);
+        for (long sample = first; sample < samples; sample++) {
+            int i = (int) (sample % SAMPLE_CAPACITY);
+            writer.write(sampleClocks[i] + "," + sampleQueueSizes[i] + "," + sampleEvents[i] + ","
+                    + sampleAllocatedBytes[i] + "\n");
+        }
+    }
+
+    private static void sample() {
+        int i = (int) (samples++ % SAMPLE_CAPACITY);
+        int queueSize = FutureEventList.queueSize();
+        sampleClocks[i] = CloudSim.clock();
+        sampleQueueSizes[i] = queueSize;
+        sampleEvents[i] = totalEvents;
+        sampleAllocatedBytes[i] = startAllocatedBytes >= 0 ? allocatedBytes() - startAllocatedBytes : -1;
+        if (queueSize > maxQueueSize) {
+            maxQueueSize = queueSize;
+        }
+    }
+
+    private static void printTimer(String name, long calls, long nanos, DecimalFormat dft) {
+        Log.printLine(name + INDENT + calls + INDENT + dft.format(nanos / 1e6) + INDENT
+                + dft.format(calls > 0 ? nanos / 1e3 / calls : 0.0));
+    }
+
+    /**
+     * Gets the bytes allocated so far by the current thread, on JVMs that count them.
+     * @return the bytes, or -1 if they are not counted
+     */
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,68 @@
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * The state of a streaming simulation at a quiet point: a time at which its broker is about to
+ * submit a batch while no cloudlet is in flight and no other event is queued. At such a point the
+ * datacenters hold nothing but idle VMs, so the state of the run comes down to a few numbers: the
+ * clock, how far the source has been read, the ready time the broker predicts for each VM, and the
+ * times the datacenters and VM schedulers last updated. A simulation built from the same scenario
+ * reaches the same state by skipping the cloudlets read and restoring those times, and goes on
+ * exactly as the run the snapshot was taken from.
+ *
+ * A snapshot is not a serialisation of the whole simulation. It holds no future events, no
+ * cloudlets queued in a VM scheduler or a broker, and no broker but the one streaming broker of
+ * the run; it can only be taken when there are none of these to record. A run that is never quiet,
+ * because its VMs are always busy or its cloudlets always in flight, takes no snapshot at all, and
+ * one with several brokers cannot take any.
+ *
+ * @see DatacenterBrokerStreaming#resumeFrom(SimulationSnapshot)
+ * @see SnapshotFile
+ */
+public final class SimulationSnapshot {
+
+    private final double clock;
+
+    private final long cloudletsRead;
+
+    /** The ids of the VMs of the broker. */
+    final int[] vmIds;
+
+    /** The ready time the broker predicts for each VM. */
+    final double[] vmReadyTimes;
+
+    /** The time the cloudlet scheduler of each VM last updated. */
+    final double[] vmPreviousTimes;
+
+    /** The ids of the datacenters. */
+    final int[] datacenterIds;
+
+    /** The time each datacenter last updated its cloudlets. */
+    final double[] datacenterLastProcessTimes;
+
+    SimulationSnapshot(double clock, long cloudletsRead, int[] vmIds, double[] vmReadyTimes,
+            double[] vmPreviousTimes, int[] datacenterIds, double[] datacenterLastProcessTimes) {
+        this.clock = clock;
+        this.cloudletsRead = cloudletsRead;
+        this.vmIds = vmIds;
+        this.vmReadyTimes = vmReadyTimes;
+        this.vmPreviousTimes = vmPreviousTimes;
+        this.datacenterIds = datacenterIds;
+        this.datacenterLastProcessTimes = datacenterLastProcessTimes;
+    }
+
+    /**
+     * Gets the simulation time the snapshot was taken at.
+     * @return the time
+     */
+    public double getClock() {
+        return clock;
+    }
+
+    /**
+     * Gets the number of cloudlets read from the source before the snapshot.
+     * @return the number of cloudlets
+     */
+    public long getCloudletsRead() {
+        return cloudletsRead;
+    }
+}
@@ -0,0 +1,221 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * Runs a {@link SweepScenario} once per point of a {@link ParameterGrid}, on several threads.
+ *
+ * CloudSim keeps the simulation in static fields, so two simulations can't share a class loader.
+ * Each worker thread therefore loads CloudSim, the classes of this package and the scenario in a
+ * class loader of its own, and runs its points one after the other in it; {@code CloudSim.init}
+ * resets the simulation between them. Workers take the next point from a shared counter, so a
+ * slow point doesn't hold up the others, and store each result at the index of its point.
+ */
+public class SimulationSweep {
+
+    /** Classes whose names start with this are loaded once per worker. */
+    private static final String ISOLATED_PACKAGE = "org.cloudbus.cloudsim.";
+
+    private final String scenarioClassName;
+
+    /** The package of the scenario, also loaded once per worker. */
+    private final String scenarioPackage;
+
+    private final URL[] classPath;
+
+    private final int parallelism;
+
+    /**
+     * Creates a sweep with one worker per available processor.
+     * @param scenarioClass the scenario to run
+     */
+    public SimulationSweep(Class<? extends SweepScenario> scenarioClass) {
+        this(scenarioClass, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a sweep.
+     * @param scenarioClass the scenario to run
+     * @param parallelism the number of workers
+     */
+    public SimulationSweep(Class<? extends SweepScenario> scenarioClass, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.scenarioClassName = scenarioClass.getName();
+        String name = scenarioClass.getName();
+        this.scenarioPackage = name.substring(0, name.lastIndexOf('.') + 1);
+        this.parallelism = parallelism;
+
+        Set<URL> urls = new LinkedHashSet<URL>();
+        for (Class<?> c : new Class<?>[] { CloudSim.class, SimulationSweep.class, scenarioClass }) {
+            CodeSource source = c.getProtectionDomain().getCodeSource();
+            if (source != null && source.getLocation() != null) {
+                urls.add(source.getLocation());
+            }
+        }
+        this.classPath = urls.toArray(new URL[urls.size()]);
+    }
+
+    /**
+     * Runs every point of a grid.
+     * @param grid the grid
+     * @return the results of all points
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public SweepResults run(final ParameterGrid grid) throws InterruptedException {
+        final SweepResults results = new SweepResults(grid);
+        final AtomicInteger nextPoint = new AtomicInteger();
+        long start = System.nanoTime();
+
+        Thread[] workers = new Thread[Math.min(parallelism, Math.max(grid.size(), 1))];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runPoints(grid, results, nextPoint);
+                }
+            }, "sweep-" + w);
+            workers[w].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        results.setWallTime((System.nanoTime() - start) / 1e9);
+        return results;
+    }
+
+    /**
+     * Runs points in a class loader of their own until there are none left.
+     */
+    private void runPoints(ParameterGrid grid, SweepResults results, AtomicInteger nextPoint) {
+        IsolatedClassLoader loader = new IsolatedClassLoader(classPath, SimulationSweep.class.getClassLoader());
+        Thread.currentThread().setContextClassLoader(loader);
+        SweepScenario scenario = null;
+        Exception setupError = null;
+        try {
+            loader.loadClass(Log.class.getName()).getMethod("disable").invoke(null);
+            scenario = (SweepScenario) loader.loadClass(scenarioClassName).getConstructor().newInstance();
+        } catch (Exception e) {
+            setupError = e;
+        }
+
+        int size = grid.size();
+        for (int index = nextPoint.getAndIncrement(); index < size; index = nextPoint.getAndIncrement()) {
+            if (scenario == null) {
+                results.setError(index, setupError);
+                continue;
+            }
+            try {
+                results.setMetrics(index, scenario.run(grid.getPoint(index)));
+            } catch (Exception e) {
+                results.setError(index, e);
+            }
+        }
+
+        try {
+            loader.close();
+        } catch (IOException e) {
+            // the classes are already loaded
+        }
+    }
+
+    /**
+     * A class loader that loads CloudSim and the scenario itself instead of asking its parent,
+     * except for {@link SweepScenario} which the sweep and the scenarios must share.
+     */
+    private final class IsolatedClassLoader extends URLClassLoader {
+
+        IsolatedClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isIsolated(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    try {
+                        c = findClass(name);
+                    } catch (ClassNotFoundException e) {
+                        return super.loadClass(name, resolve);
+                    }
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+
+        private boolean isIsolated(String name) {
+            return (name.startsWith(ISOLATED_PACKAGE) || name.startsWith(scenarioPackage))
+                    && !name.equals(SweepScenario.class.getName());
+        }
+    }
+
+    /**
+     * Sweeps the {@link SjfScenario} over a grid given as {@code name=value1,value2,...} arguments,
+     * or over the constants of the examples when there are none. The single VM of some examples is
+     * left out of the default grid, as it can't serve two users. {@code --threads=N} sets the
+     * number of workers and {@code --out=file} writes the results as CSV.
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = null;
+        List<String> gridArgs = new ArrayList<String>();
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--out=")) {
+                out = arg.substring("--out=".length());
+            } else {
+                gridArgs.add(arg);
+            }
+        }
+
+        ParameterGrid grid;
+        if (gridArgs.isEmpty()) {
+            grid = new ParameterGrid().add("vmMips", 250, 600, 750, 1000).add("vms", 2, 5).add("datacenters", 1, 2)
+                    .add("users", 1, 2).add("cloudlets", 10, 100, 1000);
+        } else {
+            grid = ParameterGrid.parse(gridArgs.toArray(new String[gridArgs.size()]));
+        }
+
+        Log.printLine("Starting sweep of " + grid.size() + " points on " + threads + " threads...");
+        try {
+            SweepResults results = new SimulationSweep(SjfScenario.class, threads).run(grid);
+            if (out != null) {
+                Writer writer = new FileWriter(out);
+                try {
+                    results.writeCsv(writer);
+                } finally {
+                    writer.close();
+                }
+            }
+            results.printSummary();
+            Log.printLine("Sweep finished!");
+        } catch (Exception e) {
+            e.printStackTrace();
+            Log.printLine("The sweep has been terminated due to an unexpected error");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * The examples as one {@link SweepScenario}, with the constants they differ in as parameters:
+ * <ul>
+ * <li>{@code users}: the number of brokers, which VMs and cloudlets are dealt to in turn (1)</li>
+ * <li>{@code datacenters}: the number of datacenters, each with room for its share of the VMs (1)</li>
+ * <li>{@code vms}: the number of VMs (5)</li>
+ * <li>{@code vmMips}: the MIPS of each VM and host PE (1000)</li>
+ * <li>{@code hostPes}: the number of PEs of each host (1)</li>
+ * <li>{@code cloudlets}: the number of cloudlets (10)</li>
+ * <li>{@code length} and {@code lengthStep}: cloudlet i is {@code length + i * lengthStep} MI long
+ * (500 and 200, as in sjf6)</li>
+ * <li>{@code broker}: {@code sjf} for a {@link DatacenterBrokerSjf}, or {@code roundrobin} for a
+ * DatacenterBroker with the cloudlets bound to the VMs in turn (sjf)</li>
+ * <li>{@code scheduler}: {@code sjf} or {@code srtf} (sjf)</li>
+ * </ul>
+ * The metrics are the makespan, the mean and 99th percentile of the turnaround and waiting times
+ * and the number of successful cloudlets.
+ */
+public class SjfScenario implements SweepScenario {
+
+    private static final List<String> PARAMETERS = Arrays.asList("users", "datacenters", "vms", "vmMips", "hostPes",
+            "cloudlets", "length", "lengthStep", "broker", "scheduler");
+
+    @Override
+    public Map<String, Double> run(Map<String, String> parameters) throws Exception {
+        for (String name : parameters.keySet()) {
+            if (!PARAMETERS.contains(name)) {
+                throw new IllegalArgumentException("Unknown parameter " + name + ", expected one of " + PARAMETERS);
+            }
+        }
+        int users = intParameter(parameters, "users", 1);
+        int datacenters = intParameter(parameters, "datacenters", 1);
+        int vms = intParameter(parameters, "vms", 5);
+        int vmMips = intParameter(parameters, "vmMips", 1000);
+        int hostPes = intParameter(parameters, "hostPes", 1);
+        int cloudlets = intParameter(parameters, "cloudlets", 10);
+        long length = intParameter(parameters, "length", 500);
+        long lengthStep = intParameter(parameters, "lengthStep", 200);
+        boolean sjfBroker = choice(parameters, "broker", "sjf", "roundrobin");
+        boolean srtf = !choice(parameters, "scheduler", "sjf", "srtf");
+        if (vms < users) {
+            throw new IllegalArgumentException("Each of the " + users + " users needs a VM");
+        }
+
+        CloudSim.init(users, Calendar.getInstance(), false);
+
+        int vmsPerDatacenter = (vms + datacenters - 1) / datacenters;
+        for (int d = 0; d < datacenters; d++) {
+            createDatacenter("Datacenter_" + d, (vmsPerDatacenter + hostPes - 1) / hostPes, hostPes, vmMips);
+        }
+
+        CloudletResultStore results = new CloudletResultStore(cloudlets);
+        List<DatacenterBroker> brokers = new ArrayList<DatacenterBroker>();
+        for (int u = 0; u < users; u++) {
+            DatacenterBroker broker;
+            if (sjfBroker) {
+                DatacenterBrokerSjf sjf = new DatacenterBrokerSjf("Broker_" + u);
+                sjf.setResultStore(results);
+                broker = sjf;
+            } else {
+                broker = new DatacenterBroker("Broker_" + u);
+            }
+            brokers.add(broker);
+
+            List<Vm> vmList = new ArrayList<Vm>();
+            for (int id = u; id < vms; id += users) {
+                CloudletScheduler scheduler = srtf ? new CloudletSchedulerSrtf() : new CloudletSchedulerSjf();
+                vmList.add(new Vm(id, broker.getId(), vmMips, 1, 512, 1000, 10000, "Xen", scheduler));
+            }
+            broker.submitVmList(vmList);
+
+            List<Cloudlet> cloudletList = new ArrayList<Cloudlet>();
+            for (int id = u; id < cloudlets; id += users) {
+                Cloudlet cloudlet = CloudletTemplate.DEFAULT.createCloudlet(id, length + id * lengthStep);
+                cloudlet.setUserId(broker.getId());
+                if (!sjfBroker) {
+                    cloudlet.setVmId(vmList.get(cloudletList.size() % vmList.size()).getId());
+                }
+                cloudletList.add(cloudlet);
+            }
+            broker.submitCloudletList(cloudletList);
+        }
+
+        CloudSim.startSimulation();
+        CloudSim.stopSimulation();
+
+        if (!sjfBroker) {
+            for (DatacenterBroker broker : brokers) {
+                List<Cloudlet> received = broker.getCloudletReceivedList();
+                for (Cloudlet cloudlet : received) {
+                    results.record(cloudlet);
+                }
+            }
+        }
+
+        LatencyHistogram turnaround = new LatencyHistogram();
+        LatencyHistogram waiting = new LatencyHistogram();
+        for (int row = 0; row < results.size(); row++) {
+            if (results.getStatus(row) == Cloudlet.SUCCESS) {
+                turnaround.record(results.getTurnaroundTime(row));
+                waiting.record(results.getWaitingTime(row));
+            }
+        }
+
+        Map<String, Double> metrics = new LinkedHashMap<String, Double>();
+        metrics.put("makespan", results.getMakespan());
+        metrics.put("meanTurnaroundTime", results.getMeanTurnaroundTime());
+        metrics.put("p99TurnaroundTime", turnaround.getPercentile(99));
+        metrics.put("meanWaitingTime", results.getMeanWaitingTime());
+        metrics.put("p99WaitingTime", waiting.getPercentile(99));
+        metrics.put("successful", (double) results.countSuccessful());
+        return metrics;
+    }
+
+    private static int intParameter(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Reads a parameter that takes one of two values.
+     * @return true for the first value, which is the default
+     */
+    private static boolean choice(Map<String, String> parameters, String name, String first, String second) {
+        String value = parameters.get(name);
+        if (value == null || value.equals(first)) {
+            return true;
+        }
+        if (value.equals(second)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Parameter " + name + " must be " + first + " or " + second);
+    }
+
+    private static Datacenter createDatacenter(String name, int hosts, int hostPes, int mips) throws Exception {
+        List<Host> hostList = new ArrayList<Host>();
+        for (int hostId = 0; hostId < hosts; hostId++) {
+            List<Pe> peList = new ArrayList<Pe>();
+            for (int peId = 0; peId < hostPes; peId++) {
+                peList.add(new Pe(peId, new PeProvisionerSimple(mips)));
+            }
+            hostList.add(new Host(hostId, new RamProvisionerSimple(512 * hostPes),
+                    new BwProvisionerSimple(1000L * hostPes), 10000L * hostPes, peList, new VmSchedulerTimeShared(peList)));
+        }
+
+        DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen", hostList, 10.0,
+                3.0, 0.05, 0.001, 0.0);
+        return new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList), new LinkedList<Storage>(), 0);
+    }
+}
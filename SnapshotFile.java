@@ -0,0 +1,252 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of {@link SimulationSnapshot}s and of the results of the cloudlets returned
+ * before each one.
+ *
+ * The file starts with the int {@link #MAGIC}, followed by one record per snapshot: the length of
+ * its body as an int, the body, and the CRC-32 of the body as an int. The body holds the clock and
+ * the number of cloudlets read, the VMs with their ready and previous times, the datacenters with
+ * their last process times, and the rows of the result store added since the previous snapshot,
+ * in the 48-byte layout of {@link CloudletBinaryWriter}. A snapshot only writes what is new, so
+ * taking one costs the rows of one interval and a single write, however long the run has been.
+ *
+ * Opening an existing file reads every record back, the rows into a result store, and drops a
+ * record cut short by a crash, so the run resumes from the last complete snapshot.
+ */
+public class SnapshotFile implements Closeable {
+
+    /** The first four bytes of the file, "CKP1" in ASCII. */
+    public static final int MAGIC = 0x434B5031;
+
+    private final FileChannel channel;
+
+    /** The buffer records are encoded into, grown as needed. */
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    private final CRC32 crc = new CRC32();
+
+    /** The number of rows of the result store already in the file. */
+    private int rowsWritten;
+
+    private int snapshotCount;
+
+    private SimulationSnapshot lastSnapshot;
+
+    private SnapshotFile(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a snapshot file, creating it if it does not exist or is empty. The rows of the
+     * snapshots already in the file are added to the store, which must be empty.
+     * @param file the file
+     * @param results the store the rows are read into
+     * @return the open file, positioned after its last complete snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot file
+     */
+    public static SnapshotFile open(File file, CloudletResultStore results) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        SnapshotFile snapshots = new SnapshotFile(channel);
+        try {
+            if (channel.size() == 0) {
+                snapshots.buffer.putInt(MAGIC);
+                snapshots.writeBuffer();
+            } else {
+                snapshots.readAll(file, results);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return snapshots;
+    }
+
+    /**
+     * Appends a snapshot with the rows added to the store since the last one, and forces it to the
+     * storage device.
+     * @param snapshot the snapshot
+     * @param results the store holding the results of the run
+     * @throws IOException if the file cannot be written
+     */
+    public void write(SimulationSnapshot snapshot, CloudletResultStore results) throws IOException {
+        int rows = results.size() - rowsWritten;
+        int vms = snapshot.vmIds.length;
+        int datacenters = snapshot.datacenterIds.length;
+        int bodySize = 8 + 8 + 4 + vms * (4 + 8 + 8) + 4 + datacenters * (4 + 8) + 4
+                + rows * CloudletBinaryWriter.RECORD_SIZE;
+        ensureCapacity(4 + bodySize + 4);
+
+        buffer.putInt(bodySize);
+        int bodyStart = buffer.position();
+        buffer.putDouble(snapshot.getClock());
+        buffer.putLong(snapshot.getCloudletsRead());
+        buffer.putInt(vms);
+        for (int i = 0; i < vms; i++) {
+            buffer.putInt(snapshot.vmIds[i]);
+            buffer.putDouble(snapshot.vmReadyTimes[i]);
+            buffer.putDouble(snapshot.vmPreviousTimes[i]);
+        }
+        buffer.putInt(datacenters);
+        for (int i = 0; i < datacenters; i++) {
+            buffer.putInt(snapshot.datacenterIds[i]);
+            buffer.putDouble(snapshot.datacenterLastProcessTimes[i]);
+        }
+        buffer.putInt(rows);
+        for (int row = rowsWritten; row < results.size(); row++) {
+            buffer.putInt(results.getCloudletId(row));
+            buffer.putInt(results.getStatus(row));
+            buffer.putInt(results.getResourceId(row));
+            buffer.putInt(results.getVmId(row));
+            buffer.putDouble(results.getActualCPUTime(row));
+            buffer.putDouble(results.getExecStartTime(row));
+            buffer.putDouble(results.getFinishTime(row));
+            buffer.putDouble(results.getSubmissionTime(row));
+        }
+        buffer.putInt(checksum(bodyStart, bodySize));
+        writeBuffer();
+        channel.force(false);
+
+        rowsWritten = results.size();
+        snapshotCount++;
+        lastSnapshot = snapshot;
+    }
+
+    /**
+     * Gets the last snapshot written or read.
+     * @return the snapshot, or null if the file has none
+     */
+    public SimulationSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    /**
+     * Gets the number of snapshots in the file.
+     * @return the number of snapshots
+     */
+    public int getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads the records of the file into the store and truncates it after the last complete one.
+     */
+    private void readAll(File file, CloudletResultStore results) throws IOException {
+        long size = channel.size();
+        if (size < 4 || readFully(0, 4).getInt() != MAGIC) {
+            throw new IOException(file + " is not a snapshot file");
+        }
+
+        long position = 4;
+        while (position + 8 <= size) {
+            int bodySize = readFully(position, 4).getInt();
+            if (bodySize < 0 || position + 4 + bodySize + 4 > size) {
+                break;
+            }
+            ByteBuffer record = readFully(position + 4, bodySize + 4);
+            if (record.getInt(bodySize) != checksum(0, bodySize)) {
+                break;
+            }
+            lastSnapshot = readSnapshot(record, results);
+            snapshotCount++;
+            position += 4 + bodySize + 4;
+        }
+        rowsWritten = results.size();
+        channel.truncate(position);
+        channel.position(position);
+        buffer.clear();
+    }
+
+    /**
+     * Decodes the body of a record, adding its rows to the store.
+     */
+    private static SimulationSnapshot readSnapshot(ByteBuffer body, CloudletResultStore results) {
+        double clock = body.getDouble();
+        long cloudletsRead = body.getLong();
+        int vms = body.getInt();
+        int[] vmIds = new int[vms];
+        double[] vmReadyTimes = new double[vms];
+        double[] vmPreviousTimes = new double[vms];
+        for (int i = 0; i < vms; i++) {
+            vmIds[i] = body.getInt();
+            vmReadyTimes[i] = body.getDouble();
+            vmPreviousTimes[i] = body.getDouble();
+        }
+        int datacenters = body.getInt();
+        int[] datacenterIds = new int[datacenters];
+        double[] datacenterLastProcessTimes = new double[datacenters];
+        for (int i = 0; i < datacenters; i++) {
+            datacenterIds[i] = body.getInt();
+            datacenterLastProcessTimes[i] = body.getDouble();
+        }
+        int rows = body.getInt();
+        for (int row = 0; row < rows; row++) {
+            results.record(body.getInt(), body.getInt(), body.getInt(), body.getInt(), body.getDouble(),
+                    body.getDouble(), body.getDouble(), body.getDouble());
+        }
+        return new SimulationSnapshot(clock, cloudletsRead, vmIds, vmReadyTimes, vmPreviousTimes, datacenterIds,
+                datacenterLastProcessTimes);
+    }
+
+    /**
+     * Reads bytes of the file into the buffer.
+     * @return the buffer, flipped for reading
+     */
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        buffer.clear();
+        ensureCapacity(length);
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the snapshot file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Computes the CRC-32 of bytes of the buffer.
+     */
+    private int checksum(int offset, int length) {
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(offset + length).position(offset);
+        crc.reset();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Makes the empty buffer large enough for a given number of bytes.
+     */
+    private void ensureCapacity(int bytes) {
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, bytes));
+        }
+    }
+
+    /**
+     * Writes the buffered bytes at the position of the channel.
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
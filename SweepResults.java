@@ -0,0 +1,199 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Log;
+
+/**
+ * The merged results of a {@link SimulationSweep}: the metrics or the error of every point of the
+ * grid, by point index, so the merge does not depend on which worker ran which point.
+ */
+public class SweepResults {
+
+    private final ParameterGrid grid;
+
+    private final List<Map<String, Double>> metrics;
+
+    private final Throwable[] errors;
+
+    /** The wall-clock time of the sweep in seconds. */
+    private double wallTime;
+
+    SweepResults(ParameterGrid grid) {
+        this.grid = grid;
+        int size = grid.size();
+        this.metrics = new ArrayList<Map<String, Double>>(size);
+        for (int i = 0; i < size; i++) {
+            metrics.add(null);
+        }
+        this.errors = new Throwable[size];
+    }
+
+    void setMetrics(int index, Map<String, Double> pointMetrics) {
+        metrics.set(index, pointMetrics);
+    }
+
+    void setError(int index, Throwable error) {
+        errors[index] = error;
+    }
+
+    void setWallTime(double wallTime) {
+        this.wallTime = wallTime;
+    }
+
+    public int size() {
+        return errors.length;
+    }
+
+    public Map<String, String> getPoint(int index) {
+        return grid.getPoint(index);
+    }
+
+    /**
+     * Gets the metrics of a point.
+     * @param index the index of the point
+     * @return the metrics, or null if the run failed
+     */
+    public Map<String, Double> getMetrics(int index) {
+        return metrics.get(index);
+    }
+
+    /**
+     * Gets the error of a point.
+     * @param index the index of the point
+     * @return the error, or null if the run succeeded
+     */
+    public Throwable getError(int index) {
+        return errors[index];
+    }
+
+    public int countFailed() {
+        int failed = 0;
+        for (Throwable error : errors) {
+            if (error != null) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    public double getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Gets the names of all metrics, in the order they first appear.
+     * @return the metric names
+     */
+    public Set<String> getMetricNames() {
+        Set<String> names = new LinkedHashSet<String>();
+        for (Map<String, Double> pointMetrics : metrics) {
+            if (pointMetrics != null) {
+                names.addAll(pointMetrics.keySet());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Gets the mean of a metric over the points that report it.
+     * @param metric the metric name
+     * @return the mean, or NaN if no point reports it
+     */
+    public double getMean(String metric) {
+        double total = 0.0;
+        int count = 0;
+        for (Map<String, Double> pointMetrics : metrics) {
+            Double value = pointMetrics == null ? null : pointMetrics.get(metric);
+            if (value != null) {
+                total += value;
+                count++;
+            }
+        }
+        return count > 0 ? total / count : Double.NaN;
+    }
+
+    /**
+     * Gets the index of the point with the lowest value of a metric.
+     * @param metric the metric name
+     * @return the index, or -1 if no point reports it
+     */
+    public int getBestPoint(String metric) {
+        int best = -1;
+        double bestValue = Double.MAX_VALUE;
+        for (int i = 0; i < metrics.size(); i++) {
+            Double value = metrics.get(i) == null ? null : metrics.get(i).get(metric);
+            if (value != null && (best < 0 || value < bestValue)) {
+                best = i;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Writes one CSV line per point: the parameters, the metrics and the error message if any.
+     * @param out the writer
+     * @throws IOException if writing fails
+     */
+    public void writeCsv(Writer out) throws IOException {
+        List<String> parameterNames = grid.getNames();
+        Set<String> metricNames = getMetricNames();
+        StringBuilder line = new StringBuilder();
+        for (String name : parameterNames) {
+            line.append(name).append(',');
+        }
+        for (String name : metricNames) {
+            line.append(name).append(',');
+        }
+        out.write(line.append("error\n").toString());
+
+        for (int i = 0; i < size(); i++) {
+            line.setLength(0);
+            for (String value : grid.getPoint(i).values()) {
+                line.append(value).append(',');
+            }
+            Map<String, Double> pointMetrics = metrics.get(i);
+            for (String name : metricNames) {
+                Double value = pointMetrics == null ? null : pointMetrics.get(name);
+                if (value != null) {
+                    line.append(value);
+                }
+                line.append(',');
+            }
+            if (errors[i] != null) {
+                line.append('"').append(String.valueOf(errors[i]).replace("\"", "\"\"")).append('"');
+            }
+            out.write(line.append('\n').toString());
+        }
+        out.flush();
+    }
+
+    /**
+     * Prints the number of points, the failures and the mean of each metric.
+     */
+    public void printSummary() {
+        Log.printLine("========== SWEEP ==========");
+        Log.printLine(size() + " points in " + String.format("%.2f", wallTime) + " s, " + countFailed() + " failed");
+        for (String metric : getMetricNames()) {
+            int best = getBestPoint(metric);
+            Log.printLine("mean " + metric + ": " + getMean(metric) + ", lowest at " + grid.getPoint(best));
+        }
+        for (int i = 0; i < size(); i++) {
+            if (errors[i] != null) {
+                StringWriter trace = new StringWriter();
+                errors[i].printStackTrace(new PrintWriter(trace));
+                Log.printLine("first failure at " + grid.getPoint(i) + ": " + trace);
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Map;
+
+/**
+ * A simulation run once per point of a {@link ParameterGrid} by a {@link SimulationSweep}.
+ *
+ * Each worker of a sweep loads its own copy of CloudSim and of the scenario, so {@link #run(Map)}
+ * may call {@code CloudSim.init} and use its static state as a main method would. Only JDK types
+ * cross between the sweep and the scenario. Implementations need a public no-argument constructor.
+ */
+public interface SweepScenario {
+
+    /**
+     * Runs one simulation.
+     * @param parameters the values of the point, by parameter name
+     * @return the metrics of the run, by name
+     * @throws Exception if the simulation fails
+     */
+    Map<String, Double> run(Map<String, String> parameters) throws Exception;
+}
@@ -0,0 +1,220 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.VmSchedulerSpaceShared;
+
+/**
+ * A VM allocation policy that keeps its hosts in a sorted index of their free PEs, so a VM is
+ * placed in O(log H) for H hosts instead of the scan of VmAllocationPolicySimple.
+ *
+ * In {@link Fit#WORST} mode the VM goes to the host with the most free PEs, the lowest-numbered
+ * one among equals, which is the choice VmAllocationPolicySimple makes. In {@link Fit#BEST} mode it
+ * goes to the host with the fewest free PEs that are enough for it, which keeps whole hosts free
+ * for large VMs. When a host turns the VM down for lack of MIPS, RAM, bandwidth or storage, the
+ * next host in the index is tried.
+ *
+ * Free PEs bound the hosts a VM can go to only on hosts with a VmSchedulerSpaceShared. A
+ * VmSchedulerTimeShared lets VMs share a PE while MIPS remain, so its free PEs, counted the same
+ * way, can fall to zero or below with room left. When no host with enough free PEs takes the VM,
+ * best fit goes on to the time-shared hosts below them, most free PEs first. When every host is
+ * space-shared, both modes stop at the first host with too few free PEs, so a VM that fits nowhere
+ * costs no more than the hosts that had room for it.
+ *
+ * VMs are also found by a numeric key rather than the string uid VmAllocationPolicySimple builds,
+ * so looking up the host of a cloudlet's VM allocates nothing.
+ */
+public class VmAllocationPolicyIndexed extends VmAllocationPolicy {
+
+    /** The ways a host is chosen. */
+    public enum Fit {
+        /** The host with the most free PEs. */
+        WORST,
+        /** The host with the fewest free PEs that are enough for the VM. */
+        BEST
+    }
+
+    private final Fit fit;
+
+    /** The hosts, by index. */
+    private final Host[] hosts;
+
+    /** The free PEs of each host, by index. */
+    private final int[] freePes;
+
+    /** Whether each host, by index, runs its VMs on PEs of their own. */
+    private final boolean[] spaceShared;
+
+    /** The number of hosts whose VMs share PEs. */
+    private final int timeSharedHosts;
+
+    /**
+     * The hosts sorted by free PEs then index: the free PEs in the high 32 bits and the index in
+     * the low ones, inverted in worst-fit mode so the lowest index sorts last among equals.
+     */
+    private final NavigableSet<Long> index = new TreeSet<Long>();
+
+    /** The placement of each VM, by user id in the high bits and VM id in the low bits. */
+    private final Map<Long, Placement> placements = new HashMap<Long, Placement>();
+
+    /**
+     * Creates a new VmAllocationPolicyIndexed object.
+     * @param list the hosts
+     * @param fit the way hosts are chosen
+     */
+    public VmAllocationPolicyIndexed(List<? extends Host> list, Fit fit) {
+        super(list);
+        this.fit = fit;
+        this.hosts = list.toArray(new Host[list.size()]);
+        this.freePes = new int[hosts.length];
+        this.spaceShared = new boolean[hosts.length];
+        int shared = 0;
+        for (int i = 0; i < hosts.length; i++) {
+            freePes[i] = hosts[i].getNumberOfPes();
+            spaceShared[i] = hosts[i].getVmScheduler() instanceof VmSchedulerSpaceShared;
+            if (!spaceShared[i]) {
+                shared++;
+            }
+            index.add(key(i));
+        }
+        this.timeSharedHosts = shared;
+    }
+
+    @Override
+    public boolean allocateHostForVm(Vm vm) {
+        long vmKey = vmKey(vm.getUserId(), vm.getId());
+        if (placements.containsKey(vmKey)) {
+            return false;
+        }
+        int requiredPes = vm.getNumberOfPes();
+        long bound = (long) requiredPes << 32;
+        // the hosts with enough free PEs, best or worst first, then the ones without
+        Iterator<Long> candidates = fit == Fit.WORST ? index.descendingIterator()
+                : index.tailSet(bound).iterator();
+        if (tryHosts(vm, vmKey, candidates, bound)) {
+            return true;
+        }
+        return fit == Fit.BEST
+                && tryHosts(vm, vmKey, index.headSet(bound, false).descendingIterator(), bound);
+    }
+
+    @Override
+    public boolean allocateHostForVm(Vm vm, Host host) {
+        for (int i = 0; i < hosts.length; i++) {
+            if (hosts[i] == host) {
+                if (!host.vmCreate(vm)) {
+                    return false;
+                }
+                place(vmKey(vm.getUserId(), vm.getId()), i, vm.getNumberOfPes());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
+        return null;
+    }
+
+    @Override
+    public void deallocateHostForVm(Vm vm) {
+        Placement placement = placements.remove(vmKey(vm.getUserId(), vm.getId()));
+        if (placement != null) {
+            hosts[placement.hostIndex].vmDestroy(vm);
+            updateFreePes(placement.hostIndex, freePes[placement.hostIndex] + placement.pes);
+        }
+    }
+
+    @Override
+    public Host getHost(Vm vm) {
+        return getHost(vm.getId(), vm.getUserId());
+    }
+
+    @Override
+    public Host getHost(int vmId, int userId) {
+        Placement placement = placements.get(vmKey(userId, vmId));
+        return placement == null ? null : hosts[placement.hostIndex];
+    }
+
+    /**
+     * Gets the free PEs of a host as the policy counts them.
+     * @param hostIndex the index of the host in the host list
+     * @return the free PEs
+     */
+    public int getFreePes(int hostIndex) {
+        return freePes[hostIndex];
+    }
+
+    public Fit getFit() {
+        return fit;
+    }
+
+    /**
+     * Offers a VM to hosts in turn, skipping the space-shared hosts with too few free PEs, or
+     * stopping at the first of them when there is no time-shared host to go on to.
+     */
+    private boolean tryHosts(Vm vm, long vmKey, Iterator<Long> candidates, long bound) {
+        while (candidates.hasNext()) {
+            long key = candidates.next();
+            int i = hostIndex(key);
+            if (key < bound && spaceShared[i]) {
+                if (timeSharedHosts == 0) {
+                    return false;
+                }
+                continue;
+            }
+            if (hosts[i].vmCreate(vm)) {
+                place(vmKey, i, vm.getNumberOfPes());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void place(long vmKey, int hostIndex, int pes) {
+        placements.put(vmKey, new Placement(hostIndex, pes));
+        updateFreePes(hostIndex, freePes[hostIndex] - pes);
+    }
+
+    private void updateFreePes(int hostIndex, int pes) {
+        index.remove(key(hostIndex));
+        freePes[hostIndex] = pes;
+        index.add(key(hostIndex));
+    }
+
+    private long key(int hostIndex) {
+        int order = fit == Fit.WORST ? ~hostIndex : hostIndex;
+        return ((long) freePes[hostIndex] << 32) | (order & 0xFFFFFFFFL);
+    }
+
+    private int hostIndex(long key) {
+        int order = (int) key;
+        return fit == Fit.WORST ? ~order : order;
+    }
+
+    private static long vmKey(int userId, int vmId) {
+        return ((long) userId << 32) | (vmId & 0xFFFFFFFFL);
+    }
+
+    /** The host of a VM and the PEs it takes. */
+    private static final class Placement {
+
+        final int hostIndex;
+
+        final int pes;
+
+        Placement(int hostIndex, int pes) {
+            this.hostIndex = hostIndex;
+            this.pes = pes;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.SplittableRandom;
+
+/**
+ * A distribution that cloudlet lengths, or any other workload quantity, are drawn from. Samples
+ * are taken from a {@link SplittableRandom} owned by the caller, so a distribution holds no state
+ * and can be shared by any number of generators and threads.
+ *
+ * @see WorkloadGenerator
+ */
+public abstract class WorkloadDistribution {
+
+    /**
+     * Draws a sample.
+     * @param random the generator to draw from
+     * @return the sample
+     */
+    public abstract double sample(SplittableRandom random);
+
+    /**
+     * Gets the mean of the distribution.
+     * @return the mean, or {@link Double#POSITIVE_INFINITY} if it has none
+     */
+    public abstract double getMean();
+
+    /**
+     * Gets a distribution that always gives the same value.
+     * @param value the value
+     * @return the distribution
+     */
+    public static WorkloadDistribution constant(final double value) {
+        return new WorkloadDistribution() {
+            @Override
+            public double sample(SplittableRandom random) {
+                return value;
+            }
+
+            @Override
+            public double getMean() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Gets a uniform distribution.
+     * @param min the smallest value
+     * @param max the bound of the values, which is not drawn
+     * @return the distribution
+     */
+    public static WorkloadDistribution uniform(final double min, final double max) {
+        if (!(min < max)) {
+            throw new IllegalArgumentException("The minimum must be below the maximum");
+        }
+        return new WorkloadDistribution() {
+            @Override
+            public double sample(SplittableRandom random) {
+                return min + random.nextDouble() * (max - min);
+            }
+
+            @Override
+            public double getMean() {
+                return (min + max) / 2;
+            }
+        };
+    }
+
+    /**
+     * Gets an exponential distribution.
+     * @param mean the mean
+     * @return the distribution
+     */
+    public static WorkloadDistribution exponential(final double mean) {
+        if (!(mean > 0)) {
+            throw new IllegalArgumentException("The mean must be positive");
+        }
+        return new WorkloadDistribution() {
+            @Override
+            public double sample(SplittableRandom random) {
+                return exponentialSample(random, mean);
+            }
+
+            @Override
+            public double getMean() {
+                return mean;
+            }
+        };
+    }
+
+    /**
+     * Gets a Pareto distribution, where a value exceeds x with probability {@code (scale / x)^shape}.
+     * A shape of at most 1 has no mean and at most 2 no variance; shapes between 1 and 2 give the
+     * heavy tails seen in real job traces, where a few jobs hold most of the work.
+     * @param scale the smallest value
+     * @param shape the tail index
+     * @return the distribution
+     */
+    public static WorkloadDistribution pareto(final double scale, final double shape) {
+        if (!(scale > 0) || !(shape > 0)) {
+            throw new IllegalArgumentException("The scale and shape must be positive");
+        }
+        return new WorkloadDistribution() {
+            @Override
+            public double sample(SplittableRandom random) {
+                // 1 - nextDouble() is in (0, 1], so the sample is finite
+                return scale * Math.pow(1.0 - random.nextDouble(), -1.0 / shape);
+            }
+
+            @Override
+            public double getMean() {
+                return shape > 1 ? shape * scale / (shape - 1) : Double.POSITIVE_INFINITY;
+            }
+        };
+    }
+
+    /**
+     * Gets a Pareto distribution cut off at a largest value, so that no single job outlasts the
+     * simulation.
+     * @param min the smallest value
+     * @param max the largest value
+     * @param shape the tail index
+     * @return the distribution
+     */
+    public static WorkloadDistribution boundedPareto(final double min, final double max, final double shape) {
+        if (!(min > 0) || !(min < max) || !(shape > 0)) {
+            throw new IllegalArgumentException("Expected 0 < min < max and a positive shape");
+        }
+        final double tail = Math.pow(min / max, shape);
+        return new WorkloadDistribution() {
+            @Override
+            public double sample(SplittableRandom random) {
+                return min * Math.pow(1.0 - random.nextDouble() * (1.0 - tail), -1.0 / shape);
+            }
+
+            @Override
+            public double getMean() {
+                if (shape == 1) {
+                    return min * Math.log(max / min) / (1.0 - tail);
+                }
+                return shape * min * (1.0 - Math.pow(min / max, shape - 1)) / ((shape - 1) * (1.0 - tail));
+            }
+        };
+    }
+
+    /**
+     * Gets a mix of short and long jobs.
+     * @param shortJobs the distribution of the short jobs
+     * @param longJobs the distribution of the long jobs
+     * @param longFraction the probability of a long job
+     * @return the distribution
+     */
+    public static WorkloadDistribution bimodal(final WorkloadDistribution shortJobs,
+            final WorkloadDistribution longJobs, final double longFraction) {
+        if (!(longFraction >= 0 && longFraction <= 1)) {
+            throw new IllegalArgumentException("The fraction of long jobs must be between 0 and 1");
+        }
+        return new WorkloadDistribution() {
+            @Override
+            public double sample(SplittableRandom random) {
+                return random.nextDouble() < longFraction ? longJobs.sample(random) : shortJobs.sample(random);
+            }
+
+            @Override
+            public double getMean() {
+                double mean = 0.0;
+                if (longFraction > 0) {
+                    mean += longFraction * longJobs.getMean();
+                }
+                if (longFraction < 1) {
+                    mean += (1.0 - longFraction) * shortJobs.getMean();
+                }
+                return mean;
+            }
+        };
+    }
+
+    /**
+     * Draws from an exponential distribution.
+     * @param random the generator to draw from
+     * @param mean the mean
+     * @return the sample
+     */
+    static double exponentialSample(SplittableRandom random, double mean) {
+        return -mean * Math.log(1.0 - random.nextDouble());
+    }
+}
@@ -0,0 +1,215 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+
+/**
+ * A synthetic workload whose cloudlets are generated one at a time as they are read, so a
+ * workload of any size can be simulated without holding its cloudlets in memory. Lengths are drawn
+ * from a {@link WorkloadDistribution}, or taken in order from a given list, and submit times from
+ * an {@link ArrivalProcess}.
+ *
+ * The same seed always gives the same workload. Lengths and arrivals are drawn from two separate
+ * streams split from the seed, so changing the arrival process keeps the lengths and the other
+ * way round. A workload can be {@link #split(int) split} into parts that are generated
+ * independently, on as many threads, and still come out the same on every run.
+ */
+public class WorkloadGenerator implements CloudletSource {
+
+    private final long count;
+
+    private final WorkloadDistribution lengths;
+
+    /** The lengths of the cloudlets by id, or null if they are drawn from the distribution. */
+    private final long[] lengthList;
+
+    private final ArrivalProcess arrivals;
+
+    /** The seed the parts of the workload are split from. */
+    private final long partSeed;
+
+    private final SplittableRandom lengthRandom;
+
+    private final ArrivalProcess.Clock clock;
+
+    private final int firstId;
+
+    /** The shapes of the cloudlets, dealt out to them in turn by id. */
+    private CloudletTemplate[] templates = { CloudletTemplate.DEFAULT };
+
+    /** The number of cloudlets generated so far. */
+    private long generated;
+
+    /** The submit time of the next cloudlet. */
+    private double nextSubmitTime;
+
+    /**
+     * Creates a workload with cloudlet ids counted from 0.
+     * @param count the number of cloudlets
+     * @param lengths the distribution of the lengths in MI, rounded and at least 1
+     * @param arrivals the submit times
+     * @param seed the seed of the workload
+     */
+    public WorkloadGenerator(long count, WorkloadDistribution lengths, ArrivalProcess arrivals, long seed) {
+        this(count, lengths, null, arrivals, new SplittableRandom(seed), 0);
+    }
+
+    /**
+     * Creates a workload of cloudlets of given lengths, with ids counted from 0, cloudlet i being
+     * lengths[i] long. Only the submit times are drawn.
+     * @param lengths the lengths in MI
+     * @param arrivals the submit times
+     * @param seed the seed of the workload
+     */
+    public WorkloadGenerator(long[] lengths, ArrivalProcess arrivals, long seed) {
+        this(lengths.length, null, lengths, arrivals, new SplittableRandom(seed), 0);
+    }
+
+    private WorkloadGenerator(long count, WorkloadDistribution lengths, long[] lengthList, ArrivalProcess arrivals,
+            SplittableRandom seed, int firstId) {
+        if (count < 0 || firstId + count - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The cloudlet ids must fit in an int");
+        }
+        this.count = count;
+        this.lengths = lengths;
+        this.lengthList = lengthList;
+        this.arrivals = arrivals;
+        this.firstId = firstId;
+        this.lengthRandom = seed.split();
+        this.clock = arrivals.start(seed.split());
+        this.partSeed = seed.nextLong();
+        this.nextSubmitTime = count > 0 ? clock.next() : Double.MAX_VALUE;
+    }
+
+    /**
+     * Splits this workload into parts, for instance one per user or per thread. The cloudlets are
+     * dealt out in ranges of ids, and each part draws from a stream of its own split from the seed
+     * of this workload and has arrivals of its own from the same process. The parts do not add up
+     * to this workload, but they are the same on every run whichever thread generates them.
+     * The parts share the cloudlet templates of this workload, and its list of lengths if it has one.
+     * @param parts the number of parts
+     * @return the parts
+     */
+    public WorkloadGenerator[] split(int parts) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("A workload splits into at least one part");
+        }
+        SplittableRandom random = new SplittableRandom(partSeed);
+        WorkloadGenerator[] generators = new WorkloadGenerator[parts];
+        int id = firstId;
+        for (int i = 0; i < parts; i++) {
+            long partCount = count / parts + (i < count % parts ? 1 : 0);
+            generators[i] = new WorkloadGenerator(partCount, lengths, lengthList, arrivals, random.split(), id);
+            generators[i].templates = templates;
+            id += partCount;
+        }
+        return generators;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return generated < count;
+    }
+
+    @Override
+    public double peekSubmitTime() {
+        return nextSubmitTime;
+    }
+
+    @Override
+    public Cloudlet next() {
+        if (generated >= count) {
+            return null;
+        }
+        int id = (int) (firstId + generated);
+        long length = lengthList != null ? lengthList[id] : Math.max(1L, Math.round(lengths.sample(lengthRandom)));
+        Cloudlet cloudlet = templates[id % templates.length].createCloudlet(id, length);
+        generated++;
+        nextSubmitTime = generated < count ? clock.next() : Double.MAX_VALUE;
+        return cloudlet;
+    }
+
+    @Override
+    public int readBatch(List<? super Cloudlet> batch, double until, int maxSize) {
+        int read = 0;
+        while (read < maxSize && generated < count && nextSubmitTime <= until) {
+            batch.add(next());
+            read++;
+        }
+        return read;
+    }
+
+    /**
+     * Gets the number of cloudlets not generated yet.
+     * @return the remaining cloudlets
+     */
+    public long getRemaining() {
+        return count - generated;
+    }
+
+    /**
+     * Gets the mean work submitted per unit of time, which a datacenter must be able to process to
+     * keep up with the workload.
+     * @return the offered load in MIPS
+     */
+    public double getOfferedLoad() {
+        return getMeanLength() * arrivals.getMeanRate();
+    }
+
+    private double getMeanLength() {
+        if (lengthList == null) {
+            return lengths.getMean();
+        }
+        double total = 0;
+        for (long length : lengthList) {
+            total += length;
+        }
+        return lengthList.length > 0 ? total / lengthList.length : 0.0;
+    }
+
+    /**
+     * Sets the shape of the cloudlets, {@link CloudletTemplate#DEFAULT} unless set.
+     * @param template the template
+     */
+    public void setTemplate(CloudletTemplate template) {
+        this.templates = new CloudletTemplate[] { template };
+    }
+
+    /**
+     * Sets several shapes, dealt out to the cloudlets in turn by id, for workloads of mixed widths.
+     * @param templates the templates, at least one
+     */
+    public void setTemplates(CloudletTemplate... templates) {
+        if (templates.length == 0) {
+            throw new IllegalArgumentException("A workload needs at least one cloudlet template");
+        }
+        this.templates = templates.clone();
+    }
+
+    /**
+     * Gets the shape of the cloudlets, the first one if there are several.
+     * @return the template
+     */
+    public CloudletTemplate getTemplate() {
+        return templates[0];
+    }
+
+    public void setPes(int pes) {
+        setTemplate(getTemplate().withPes(pes));
+    }
+
+    public void setFileSize(long fileSize) {
+        setTemplate(getTemplate().withSizes(fileSize, getTemplate().getOutputSize()));
+    }
+
+    public void setOutputSize(long outputSize) {
+        setTemplate(getTemplate().withSizes(getTemplate().getFileSize(), outputSize));
+    }
+
+    public void setUtilizationModel(UtilizationModel utilizationModel) {
+        setTemplate(getTemplate().withUtilizationModel(utilizationModel));
+    }
+}
@@ -0,0 +1,257 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.VmSchedulerSpaceShared;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.examples.VmAllocationPolicyIndexed;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Places a fleet of VMs of 1, 2 and 4 PEs on hosts of 16 PEs, four VMs per host, then removes
+ * them all, with VmAllocationPolicySimple and with {@link VmAllocationPolicyIndexed} in each mode.
+ * The simple policy scans every host per VM, so at 10^4 hosts it runs about 10^9 steps per
+ * placement of the fleet.
+ *
+ * Before measuring, each trial checks that both modes of the indexed policy pick the host a scan
+ * of every host would, over random sequences of placements and removals on small fleets of
+ * time-shared hosts, space-shared hosts and a mix of the two, with VMs that some hosts turn down
+ * for lack of MIPS or RAM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllocationBenchmark {
+
+    /** The policies compared. */
+    public enum Policy {
+        SIMPLE, WORST_FIT, BEST_FIT
+    }
+
+    /** The PEs of the VMs, in turn. */
+    private static final int[] VM_PES = { 1, 2, 4, 1 };
+
+    private static final int HOST_PES = 16;
+
+    @Param({ "SIMPLE", "WORST_FIT", "BEST_FIT" })
+    public Policy policy;
+
+    @Param({ "1000", "10000" })
+    public int hosts;
+
+    private List<Vm> vms;
+
+    private VmAllocationPolicy allocationPolicy;
+
+    /** The number of random placements and removals in each run of the check. */
+    private static final int CHECK_STEPS = 2000;
+
+    @Setup(Level.Trial)
+    public void verify() {
+        for (VmAllocationPolicyIndexed.Fit fit : VmAllocationPolicyIndexed.Fit.values()) {
+            for (int mix = 0; mix < 3; mix++) {
+                for (long seed = 1; seed <= 5; seed++) {
+                    verify(fit, mix, seed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a random sequence of placements and removals on two copies of a fleet, one under the
+     * indexed policy and one placed by a scan, and throws if they put a VM on different hosts.
+     * @param mix 0 for time-shared hosts only, 1 for space-shared only, 2 for a random mix
+     */
+    private static void verify(VmAllocationPolicyIndexed.Fit fit, int mix, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int hostCount = 8 + random.nextInt(24);
+        int[] hostPes = new int[hostCount];
+        int[] hostRam = new int[hostCount];
+        boolean[] spaceShared = new boolean[hostCount];
+        for (int i = 0; i < hostCount; i++) {
+            hostPes[i] = 1 << random.nextInt(4);
+            hostRam[i] = 512 * (1 + random.nextInt(8));
+            spaceShared[i] = mix == 1 || (mix == 2 && random.nextBoolean());
+        }
+        List<Host> indexedHosts = checkHosts(hostPes, hostRam, spaceShared);
+        List<Host> scannedHosts = checkHosts(hostPes, hostRam, spaceShared);
+        VmAllocationPolicyIndexed indexed = new VmAllocationPolicyIndexed(indexedHosts, fit);
+
+        int[] freePes = hostPes.clone();
+        Map<Integer, Integer> scannedPlacements = new HashMap<>();
+        List<Vm> indexedVms = new ArrayList<>();
+        List<Vm> scannedVms = new ArrayList<>();
+        for (int step = 0; step < CHECK_STEPS; step++) {
+            if (!indexedVms.isEmpty() && random.nextInt(3) == 0) {
+                int k = random.nextInt(indexedVms.size());
+                Vm vm = scannedVms.get(k);
+                int host = scannedPlacements.remove(vm.getId());
+                scannedHosts.get(host).vmDestroy(vm);
+                freePes[host] += vm.getNumberOfPes();
+                indexed.deallocateHostForVm(indexedVms.get(k));
+                indexedVms.set(k, indexedVms.get(indexedVms.size() - 1));
+                indexedVms.remove(indexedVms.size() - 1);
+                scannedVms.set(k, scannedVms.get(scannedVms.size() - 1));
+                scannedVms.remove(scannedVms.size() - 1);
+                continue;
+            }
+            int pes = 1 << random.nextInt(3);
+            double mips = 250 * (1 + random.nextInt(4));
+            int ram = 256 * (1 + random.nextInt(4));
+            Vm indexedVm = new Vm(step, 0, mips, pes, ram, 0, 0, "Xen", new CloudletSchedulerTimeShared());
+            Vm scannedVm = new Vm(step, 0, mips, pes, ram, 0, 0, "Xen", new CloudletSchedulerTimeShared());
+
+            int expected = scan(fit, scannedHosts, freePes, spaceShared, scannedVm);
+            int actual = indexed.allocateHostForVm(indexedVm)
+                    ? indexedHosts.indexOf(indexed.getHost(indexedVm)) : -1;
+            if (actual != expected) {
+                throw new IllegalStateException(fit + " fit put VM " + step + " on host " + actual
+                        + " where a scan puts it on host " + expected + " (mix " + mix + ", seed "
+                        + seed + ")");
+            }
+            if (expected >= 0) {
+                scannedPlacements.put(step, expected);
+                freePes[expected] -= pes;
+                indexedVms.add(indexedVm);
+                scannedVms.add(scannedVm);
+            }
+        }
+    }
+
+    /**
+     * Places a VM on the first host, in the order of the fit, that takes it: for worst fit the
+     * most free PEs first, the lowest index among equals; for best fit the fewest free PEs that are
+     * enough for the VM, the lowest index among equals, then the time-shared hosts with fewer, most
+     * free PEs and highest index first. Space-shared hosts with too few free PEs are never tried.
+     * @return the index of the host, or -1 if none takes the VM
+     */
+    private static int scan(VmAllocationPolicyIndexed.Fit fit, List<Host> hosts, int[] freePes,
+            boolean[] spaceShared, Vm vm) {
+        int required = vm.getNumberOfPes();
+        boolean[] tried = new boolean[hosts.size()];
+        while (true) {
+            int next = -1;
+            for (int i = 0; i < hosts.size(); i++) {
+                if (tried[i] || (spaceShared[i] && freePes[i] < required)) {
+                    continue;
+                }
+                if (next < 0 || precedes(fit, required, freePes[i], i, freePes[next], next)) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                return -1;
+            }
+            tried[next] = true;
+            if (hosts.get(next).vmCreate(vm)) {
+                return next;
+            }
+        }
+    }
+
+    private static boolean precedes(VmAllocationPolicyIndexed.Fit fit, int required, int free, int i,
+            int otherFree, int other) {
+        if (fit == VmAllocationPolicyIndexed.Fit.WORST) {
+            return free > otherFree || (free == otherFree && i < other);
+        }
+        boolean fits = free >= required;
+        if (fits != (otherFree >= required)) {
+            return fits;
+        }
+        if (fits) {
+            return free < otherFree || (free == otherFree && i < other);
+        }
+        return free > otherFree || (free == otherFree && i > other);
+    }
+
+    private static List<Host> checkHosts(int[] hostPes, int[] hostRam, boolean[] spaceShared) {
+        List<Host> hostList = new ArrayList<>(hostPes.length);
+        for (int hostId = 0; hostId < hostPes.length; hostId++) {
+            List<Pe> peList = new ArrayList<>(hostPes[hostId]);
+            for (int peId = 0; peId < hostPes[hostId]; peId++) {
+                peList.add(new Pe(peId, new PeProvisionerSimple(1000)));
+            }
+            VmScheduler vmScheduler = spaceShared[hostId] ? new VmSchedulerSpaceShared(peList)
+                    : new VmSchedulerTimeShared(peList);
+            hostList.add(new Host(hostId, new RamProvisionerSimple(hostRam[hostId]),
+                    new BwProvisionerSimple(1000L * hostPes[hostId]), 10000L * hostPes[hostId], peList,
+                    vmScheduler));
+        }
+        return hostList;
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Log.disable();
+        List<Host> hostList = new ArrayList<>(hosts);
+        for (int hostId = 0; hostId < hosts; hostId++) {
+            List<Pe> peList = new ArrayList<>(HOST_PES);
+            for (int peId = 0; peId < HOST_PES; peId++) {
+                peList.add(new Pe(peId, new PeProvisionerSimple(1000)));
+            }
+            hostList.add(new Host(hostId, new RamProvisionerSimple(2048 * HOST_PES),
+                    new BwProvisionerSimple(1000L * HOST_PES), 10000L * HOST_PES, peList,
+                    new VmSchedulerTimeShared(peList)));
+        }
+        switch (policy) {
+        case WORST_FIT:
+            allocationPolicy = new VmAllocationPolicyIndexed(hostList, VmAllocationPolicyIndexed.Fit.WORST);
+            break;
+        case BEST_FIT:
+            allocationPolicy = new VmAllocationPolicyIndexed(hostList, VmAllocationPolicyIndexed.Fit.BEST);
+            break;
+        default:
+            allocationPolicy = new VmAllocationPolicySimple(hostList);
+        }
+
+        vms = new ArrayList<>(hosts * 4);
+        for (int id = 0; id < hosts * 4; id++) {
+            vms.add(new Vm(id, 0, 1000, VM_PES[id % VM_PES.length], 512, 100, 1000, "Xen",
+                    new CloudletSchedulerTimeShared()));
+        }
+    }
+
+    @Benchmark
+    public int allocate() {
+        int placed = 0;
+        for (Vm vm : vms) {
+            if (allocationPolicy.allocateHostForVm(vm)) {
+                placed++;
+            }
+        }
+        for (Vm vm : vms) {
+            allocationPolicy.deallocateHostForVm(vm);
+        }
+        return placed;
+    }
+}
@@ -0,0 +1,74 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.cloudbus.cloudsim.examples.FutureEventList;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The sjf6 topology, scaled up, with the SJF broker sending one event per cloudlet and one batch
+ * per VM. JMH reports the {@code events} counter as the events queued per simulation, which is
+ * what batches cut; the results are the same either way.
+ *
+ * Try {@code -p cloudlets=1000000} for the scale where per-cloudlet events flood the queue.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchSubmissionBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean batchSubmission;
+
+    @Param({ "10000", "100000" })
+    public int cloudlets;
+
+    @Param({ "64", "1024" })
+    public int vms;
+
+    private long[] lengths;
+
+    /** The events queued, which JMH reports per simulation. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Events {
+
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Log.disable();
+        lengths = LengthDistribution.UNIFORM.lengths(cloudlets, 42);
+    }
+
+    @Benchmark
+    public CloudletResultStore simulate(Events counters) throws Exception {
+        CloudletResultStore results = Topology.SJF6.run(vms, 1, lengths, Topology.SJF6.getPlacement(),
+                FutureEventList.TREE, batchSubmission);
+        counters.events += FutureEventList.eventCount();
+        return results;
+    }
+}
@@ -0,0 +1,88 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Round-robin binding with {@code bindCloudletToVm} against setting the VM ids up front and against
+ * the earliest-finish placement of {@code DatacenterBrokerSjf}, on the same topology and workload.
+ * JMH reports the {@code makespan} and {@code meanTurnaroundTime} counters of each placement in
+ * simulated seconds, as placing faster is only worth it if the schedule stays as good.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BindingBenchmark {
+
+    @Param({ "SJF2" })
+    public Topology topology;
+
+    @Param({ "BIND_ROUND_ROBIN", "ROUND_ROBIN", "EARLIEST_FINISH" })
+    public Topology.Placement placement;
+
+    @Param({ "1000", "10000" })
+    public int cloudlets;
+
+    @Param({ "2", "16", "128" })
+    public int vms;
+
+    @Param({ "1", "8" })
+    public int hostPes;
+
+    @Param({ "UNIFORM", "EXPONENTIAL", "BIMODAL" })
+    public LengthDistribution distribution;
+
+    private long[] lengths;
+
+    /**
+     * The makespan and mean turnaround time in simulated seconds. Every simulation of a trial runs
+     * the same workload to the same schedule, so the counters hold the result of the last one
+     * rather than a sum.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Schedule {
+
+        public long makespan;
+
+        public long meanTurnaroundTime;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            makespan = 0;
+            meanTurnaroundTime = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Log.disable();
+        lengths = distribution.lengths(cloudlets, 42);
+    }
+
+    @Benchmark
+    public CloudletResultStore place(Schedule schedule) throws Exception {
+        CloudletResultStore results = topology.run(vms, hostPes, lengths, placement);
+        schedule.makespan = Math.round(results.getMakespan());
+        schedule.meanTurnaroundTime = Math.round(results.getMeanTurnaroundTime());
+        return results;
+    }
+}
@@ -0,0 +1,114 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.cloudbus.cloudsim.examples.DatacenterBrokerSjf;
+import org.cloudbus.cloudsim.examples.FutureEventList;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The bytes the simulation thread allocates per cloudlet and per event on the sjf6 topology, with
+ * the default broker and with a {@link DatacenterBrokerSjf} recording into a result store. Each
+ * invocation runs the workload and its first half, and JMH reports the {@code bytesPerCloudlet}
+ * and {@code bytesPerEvent} counters of the difference, so the fixed cost of building the
+ * entities cancels out. What is left is the steady state: the Cloudlet itself with its row in the
+ * result store, its ResCloudlet, the events CloudSim creates for it and whatever the broker and
+ * scheduler add. The default broker also grows its submitted and received lists, and formats a
+ * log line per cloudlet even with the log disabled.
+ *
+ * The counters need a JVM that counts the bytes each thread allocates, such as HotSpot; elsewhere
+ * they stay at zero.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BrokerAllocationBenchmark {
+
+    private static final int VMS = 16;
+
+    @Param({ "ROUND_ROBIN", "EARLIEST_FINISH" })
+    public Topology.Placement placement;
+
+    @Param({ "10000", "100000" })
+    public int cloudlets;
+
+    private long[] lengths;
+
+    private long[] halfLengths;
+
+    /**
+     * The bytes allocated per cloudlet and per event. Allocation barely varies between runs of the
+     * same workload, so the counters hold the last invocation rather than a sum.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Allocation {
+
+        public long bytesPerCloudlet;
+
+        public long bytesPerEvent;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerCloudlet = 0;
+            bytesPerEvent = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Log.disable();
+        lengths = LengthDistribution.UNIFORM.lengths(cloudlets, 42);
+        halfLengths = Arrays.copyOf(lengths, cloudlets / 2);
+    }
+
+    @Benchmark
+    public CloudletResultStore simulate(Allocation allocation) throws Exception {
+        long start = allocatedBytes();
+        Topology.SJF6.run(VMS, 1, halfLengths, placement);
+        long halfBytes = allocatedBytes() - start;
+        long halfEvents = FutureEventList.eventCount();
+
+        start = allocatedBytes();
+        CloudletResultStore results = Topology.SJF6.run(VMS, 1, lengths, placement);
+        long bytes = allocatedBytes() - start - halfBytes;
+        long events = FutureEventList.eventCount() - halfEvents;
+
+        allocation.bytesPerCloudlet = bytes / (lengths.length - halfLengths.length);
+        allocation.bytesPerEvent = events > 0 ? bytes / events : 0;
+        return results;
+    }
+
+    /**
+     * Gets the bytes allocated so far by the current thread, or 0 if the JVM does not count them.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled()) {
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return 0;
+    }
+}
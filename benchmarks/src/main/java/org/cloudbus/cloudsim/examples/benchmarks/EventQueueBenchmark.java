@@ -0,0 +1,80 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.cloudbus.cloudsim.examples.FutureEventList;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The example topologies run on each queue of future events. Besides simulations per second, JMH
+ * reports the {@code events} counter as the events queued per second, which is the rate the
+ * engine goes through its queue.
+ *
+ * The more VMs, the more events wait in the queue at once; try
+ * {@code -p vms=1024,8192 -p futureQueue=TREE,CALENDAR}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventQueueBenchmark {
+
+    @Param({ "TREE", "CALENDAR" })
+    public FutureEventList futureQueue;
+
+    @Param({ "SJF", "SJF2", "SJF6" })
+    public Topology topology;
+
+    @Param({ "10000" })
+    public int cloudlets;
+
+    @Param({ "64", "1024" })
+    public int vms;
+
+    @Param({ "UNIFORM", "BIMODAL" })
+    public LengthDistribution distribution;
+
+    private long[] lengths;
+
+    /** The events queued, which JMH reports per second. */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Events {
+
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Log.disable();
+        lengths = distribution.lengths(cloudlets, 42);
+    }
+
+    @Benchmark
+    public CloudletResultStore simulate(Events counters) throws Exception {
+        CloudletResultStore results = topology.run(vms, 1, lengths, topology.getPlacement(), futureQueue);
+        counters.events += FutureEventList.eventCount();
+        return results;
+    }
+}
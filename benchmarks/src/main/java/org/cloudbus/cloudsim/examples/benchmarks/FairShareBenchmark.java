@@ -0,0 +1,293 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.cloudbus.cloudsim.examples.CloudletSchedulerFairShare;
+import org.cloudbus.cloudsim.examples.CloudletTemplate;
+import org.cloudbus.cloudsim.examples.FutureEventList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The sjf1 topology with every cloudlet of a VM running at once, on CloudletSchedulerTimeShared
+ * and on {@link CloudletSchedulerFairShare}. The time-shared scheduler updates every cloudlet of a
+ * VM on each event and works out the share of each one from the whole list, so a VM of n
+ * cloudlets costs it about n^3 steps, over a minute for 1000; the fair-share one costs
+ * O(n log n). Both give the same finish times.
+ *
+ * Before measuring, each trial checks that claim: it runs both schedulers on one VM through the
+ * same random workloads, with cloudlets of mixed widths arriving over time, some of them with a
+ * file transfer time or paused and resumed while they run, and throws unless every cloudlet
+ * finishes at the same time and in the same place in the order of both.
+ *
+ * Try {@code -p scheduler=FAIR_SHARE -p cloudletsPerVm=10000} for the scale the time-shared
+ * scheduler cannot reach.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FairShareBenchmark {
+
+    /** The schedulers compared. */
+    public enum Scheduler {
+        TIME_SHARED {
+            @Override
+            CloudletScheduler create() {
+                return new CloudletSchedulerTimeShared();
+            }
+        },
+        FAIR_SHARE {
+            @Override
+            CloudletScheduler create() {
+                return new CloudletSchedulerFairShare();
+            }
+        };
+
+        abstract CloudletScheduler create();
+    }
+
+    private static final int VMS = 4;
+
+    @Param({ "TIME_SHARED", "FAIR_SHARE" })
+    public Scheduler scheduler;
+
+    @Param({ "100", "300" })
+    public int cloudletsPerVm;
+
+    /** The number of random workloads the check runs on each scheduler. */
+    private static final int CHECK_WORKLOADS = 200;
+
+    private long[] lengths;
+
+    @Setup(Level.Trial)
+    public void verify() {
+        Log.disable();
+        for (long seed = 1; seed <= CHECK_WORKLOADS; seed++) {
+            Workload workload = new Workload(new SplittableRandom(seed));
+            VmRun timeShared = VmRun.run(new CloudletSchedulerTimeShared(), workload);
+            VmRun fairShare = VmRun.run(new CloudletSchedulerFairShare(), workload);
+            for (int id = 0; id < workload.lengths.length; id++) {
+                if (timeShared.finishTimes[id] != fairShare.finishTimes[id]
+                        || timeShared.finishOrder[id] != fairShare.finishOrder[id]) {
+                    throw new IllegalStateException("Cloudlet " + id + " of workload " + seed
+                            + " finishes " + fairShare.finishOrder[id] + " at " + fairShare.finishTimes[id]
+                            + " with CloudletSchedulerFairShare, but " + timeShared.finishOrder[id] + " at "
+                            + timeShared.finishTimes[id] + " with CloudletSchedulerTimeShared");
+                }
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Log.disable();
+        lengths = LengthDistribution.UNIFORM.lengths(VMS * cloudletsPerVm, 42);
+    }
+
+    @Benchmark
+    public CloudletResultStore simulate() throws Exception {
+        return Topology.SJF1.run(VMS, 1, lengths, Topology.Placement.ROUND_ROBIN, FutureEventList.TREE, false,
+                scheduler::create);
+    }
+
+    /**
+     * A random workload for one VM: its PEs and their MIPS, and cloudlets of 1 to that many PEs
+     * arriving over 100 seconds. A third of the cloudlets bring a file transfer time, and a quarter
+     * are paused some time after they arrive and resumed later.
+     */
+    private static final class Workload {
+
+        final int pes;
+
+        final double mips;
+
+        final long[] lengths;
+
+        final int[] cloudletPes;
+
+        final double[] submitTimes;
+
+        final double[] fileTransferTimes;
+
+        /** The time each cloudlet is paused, or NaN. */
+        final double[] pauseTimes;
+
+        final double[] resumeTimes;
+
+        Workload(SplittableRandom random) {
+            pes = 1 << random.nextInt(3);
+            // an odd rating, so shares do not divide evenly
+            mips = random.nextBoolean() ? 1000 : 333;
+            int cloudlets = 1 + random.nextInt(40);
+            lengths = new long[cloudlets];
+            cloudletPes = new int[cloudlets];
+            submitTimes = new double[cloudlets];
+            fileTransferTimes = new double[cloudlets];
+            pauseTimes = new double[cloudlets];
+            resumeTimes = new double[cloudlets];
+            for (int id = 0; id < cloudlets; id++) {
+                lengths[id] = 1000 + random.nextInt(50000);
+                cloudletPes[id] = 1 + random.nextInt(pes);
+                // tenths of a second, so that some cloudlets arrive together
+                submitTimes[id] = random.nextInt(1000) / 10.0;
+                fileTransferTimes[id] = random.nextInt(3) == 0 ? random.nextInt(50) / 10.0 : 0.0;
+                pauseTimes[id] = Double.NaN;
+                if (random.nextInt(4) == 0) {
+                    pauseTimes[id] = submitTimes[id] + random.nextInt(300) / 10.0;
+                    resumeTimes[id] = pauseTimes[id] + random.nextInt(300) / 10.0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a workload on a VM with a given scheduler, as a one-host datacenter that handles the
+     * submissions, pauses, resumes and updates as Datacenter does, and records when and in which
+     * order the cloudlets finish.
+     */
+    private static final class VmRun extends SimEntity {
+
+        private final CloudletScheduler scheduler;
+
+        private final Workload workload;
+
+        private final List<Double> mipsShare;
+
+        private double lastProcessTime;
+
+        private int finished;
+
+        final double[] finishTimes;
+
+        final int[] finishOrder;
+
+        private VmRun(CloudletScheduler scheduler, Workload workload) {
+            super("VmRun");
+            this.scheduler = scheduler;
+            this.workload = workload;
+            this.mipsShare = new ArrayList<Double>();
+            for (int pe = 0; pe < workload.pes; pe++) {
+                mipsShare.add(workload.mips);
+            }
+            finishTimes = new double[workload.lengths.length];
+            finishOrder = new int[workload.lengths.length];
+            Arrays.fill(finishTimes, Double.NaN);
+            Arrays.fill(finishOrder, -1);
+        }
+
+        /**
+         * Runs a workload in a simulation of its own.
+         */
+        static VmRun run(CloudletScheduler scheduler, Workload workload) {
+            CloudSim.init(1, Calendar.getInstance(), false);
+            VmRun run = new VmRun(scheduler, workload);
+            CloudSim.startSimulation();
+            CloudSim.stopSimulation();
+            return run;
+        }
+
+        @Override
+        public void startEntity() {
+            scheduler.updateVmProcessing(0.0, mipsShare);
+            for (int id = 0; id < workload.lengths.length; id++) {
+                schedule(getId(), workload.submitTimes[id], CloudSimTags.CLOUDLET_SUBMIT, id);
+                if (!Double.isNaN(workload.pauseTimes[id])) {
+                    schedule(getId(), workload.pauseTimes[id], CloudSimTags.CLOUDLET_PAUSE, id);
+                    schedule(getId(), workload.resumeTimes[id], CloudSimTags.CLOUDLET_RESUME, id);
+                }
+            }
+        }
+
+        @Override
+        public void processEvent(SimEvent ev) {
+            switch (ev.getTag()) {
+            case CloudSimTags.CLOUDLET_SUBMIT:
+                submit((Integer) ev.getData());
+                break;
+            case CloudSimTags.CLOUDLET_PAUSE:
+                scheduler.cloudletPause((Integer) ev.getData());
+                break;
+            case CloudSimTags.CLOUDLET_RESUME:
+                // Datacenter schedules the update at the time the resumed cloudlet would finish,
+                // passed as a delay
+                double eventTime = scheduler.cloudletResume((Integer) ev.getData());
+                if (eventTime > 0.0 && eventTime > CloudSim.clock()) {
+                    schedule(getId(), eventTime, CloudSimTags.VM_DATACENTER_EVENT);
+                }
+                break;
+            default:
+                updateProcessing();
+                collectFinished();
+            }
+        }
+
+        @Override
+        public void shutdownEntity() {
+        }
+
+        private void submit(int id) {
+            updateProcessing();
+            Cloudlet cloudlet = CloudletTemplate.DEFAULT.withPes(workload.cloudletPes[id])
+                    .createCloudlet(id, workload.lengths[id]);
+            cloudlet.setResourceParameter(getId(), 0.0, 0.0);
+            double fileTransferTime = workload.fileTransferTimes[id];
+            double estimatedFinishTime = scheduler.cloudletSubmit(cloudlet, fileTransferTime);
+            if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+                schedule(getId(), estimatedFinishTime + fileTransferTime, CloudSimTags.VM_DATACENTER_EVENT);
+            }
+            collectFinished();
+        }
+
+        private void updateProcessing() {
+            double now = CloudSim.clock();
+            double minTime = CloudSim.getMinTimeBetweenEvents();
+            if (now >= 0.111 && now <= lastProcessTime + minTime) {
+                return;
+            }
+            double nextEvent = scheduler.updateVmProcessing(now, mipsShare);
+            double smallerTime = nextEvent > 0.0 ? nextEvent : Double.MAX_VALUE;
+            if (smallerTime < now + minTime + 0.01) {
+                smallerTime = now + minTime + 0.01;
+            }
+            if (smallerTime != Double.MAX_VALUE) {
+                schedule(getId(), smallerTime - now, CloudSimTags.VM_DATACENTER_EVENT);
+            }
+            lastProcessTime = now;
+        }
+
+        private void collectFinished() {
+            while (scheduler.isFinishedCloudlets()) {
+                int id = scheduler.getNextFinishedCloudlet().getCloudletId();
+                finishTimes[id] = CloudSim.clock();
+                finishOrder[id] = finished++;
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.Random;
+
+/**
+ * The distributions of cloudlet lengths the benchmarks run with. All lengths are in MI and the
+ * random ones are drawn from a seeded generator, so every run sees the same workload.
+ */
+public enum LengthDistribution {
+
+    /** Lengths drawn uniformly from 1,000 to 100,000 MI. */
+    UNIFORM {
+        @Override
+        long length(int index, int count, Random random) {
+            return 1000 + (long) (random.nextDouble() * 99000);
+        }
+    },
+
+    /** Exponential lengths with a mean of 20,000 MI. */
+    EXPONENTIAL {
+        @Override
+        long length(int index, int count, Random random) {
+            return 1 + (long) (-Math.log(1.0 - random.nextDouble()) * 20000);
+        }
+    },
+
+    /** Nine short cloudlets of 1,000 to 5,000 MI for each long one of 100,000 to 200,000 MI. */
+    BIMODAL {
+        @Override
+        long length(int index, int count, Random random) {
+            if (random.nextInt(10) == 0) {
+                return 100000 + (long) (random.nextDouble() * 100000);
+            }
+            return 1000 + (long) (random.nextDouble() * 4000);
+        }
+    },
+
+    /** The lengths of sjf6, growing by 200 MI from 500 MI, so the list is already sorted. */
+    ASCENDING {
+        @Override
+        long length(int index, int count, Random random) {
+            return 500 + index * 200L;
+        }
+    },
+
+    /** The lengths of sjf7, longest first, so every cloudlet has to be reordered. */
+    DESCENDING {
+        @Override
+        long length(int index, int count, Random random) {
+            return 500 + (count - 1 - index) * 200L;
+        }
+    };
+
+    /**
+     * Gets the length of a cloudlet.
+     * @param index the index of the cloudlet
+     * @param count the number of cloudlets
+     * @param random the generator of the workload
+     * @return the length in MI
+     */
+    abstract long length(int index, int count, Random random);
+
+    /**
+     * Gets the lengths of a workload.
+     * @param count the number of cloudlets
+     * @param seed the seed of the generator
+     * @return the lengths in MI, in submission order
+     */
+    public long[] lengths(int count, long seed) {
+        Random random = new Random(seed);
+        long[] lengths = new long[count];
+        for (int i = 0; i < count; i++) {
+            lengths[i] = length(i, count, random);
+        }
+        return lengths;
+    }
+}
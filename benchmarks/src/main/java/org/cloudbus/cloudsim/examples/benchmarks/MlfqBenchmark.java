@@ -0,0 +1,108 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.cloudbus.cloudsim.examples.CloudletSchedulerMlfq;
+import org.cloudbus.cloudsim.examples.CloudletSchedulerSjf;
+import org.cloudbus.cloudsim.examples.FutureEventList;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The sjf6 topology, scaled up, with VMs that know the cloudlet lengths, {@link CloudletSchedulerSjf},
+ * and VMs that do not: {@link CloudletSchedulerMlfq} and CloudletSchedulerSpaceShared, which runs
+ * cloudlets in the order they arrive. JMH reports the {@code meanTurnaroundTime} counter in
+ * simulated seconds per simulation, which is what the schedulers are compared on.
+ *
+ * Cloudlets are dealt to the VMs in turn rather than by the SJF broker, which sorts them by length
+ * before submitting them and would hand every scheduler the shortest first. For the same reason,
+ * the ascending lengths of sjf6 itself are left out: they arrive shortest first, so running them
+ * in order is already SJF.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MlfqBenchmark {
+
+    /** The schedulers compared. */
+    public enum Scheduler {
+        SJF {
+            @Override
+            CloudletScheduler create() {
+                return new CloudletSchedulerSjf();
+            }
+        },
+        MLFQ {
+            @Override
+            CloudletScheduler create() {
+                return new CloudletSchedulerMlfq();
+            }
+        },
+        SPACE_SHARED {
+            @Override
+            CloudletScheduler create() {
+                return new CloudletSchedulerSpaceShared();
+            }
+        };
+
+        abstract CloudletScheduler create();
+    }
+
+    private static final int VMS = 8;
+
+    @Param({ "SJF", "MLFQ", "SPACE_SHARED" })
+    public Scheduler scheduler;
+
+    @Param({ "UNIFORM", "EXPONENTIAL", "BIMODAL" })
+    public LengthDistribution distribution;
+
+    @Param({ "1000", "10000" })
+    public int cloudlets;
+
+    private long[] lengths;
+
+    /** The mean turnaround time in simulated seconds, which JMH reports per simulation. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Turnaround {
+
+        public long meanTurnaroundTime;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            meanTurnaroundTime = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Log.disable();
+        lengths = distribution.lengths(cloudlets, 42);
+    }
+
+    @Benchmark
+    public CloudletResultStore simulate(Turnaround counters) throws Exception {
+        CloudletResultStore results = Topology.SJF6.run(VMS, 1, lengths, Topology.Placement.ROUND_ROBIN,
+                FutureEventList.TREE, false, scheduler::create);
+        counters.meanTurnaroundTime += Math.round(results.getMeanTurnaroundTime());
+        return results;
+    }
+}
@@ -0,0 +1,150 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.examples.CloudletBinaryWriter;
+import org.cloudbus.cloudsim.examples.CloudletCsvWriter;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.cloudbus.cloudsim.examples.CloudletTableWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code printCloudletList}: the {@link Log} and {@link DecimalFormat} loop of the examples against
+ * the result sinks, all writing the results of one SJF6 simulation to a stream that drops them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int cloudlets;
+
+    @Param({ "8" })
+    public int vms;
+
+    @Param({ "UNIFORM" })
+    public LengthDistribution distribution;
+
+    private CloudletResultStore results;
+
+    private CloudletTableWriter tableWriter;
+
+    private CloudletCsvWriter csvWriter;
+
+    private CloudletBinaryWriter binaryWriter;
+
+    /** A stream that drops what is written to it. */
+    private final OutputStream discard = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    /** A channel that drops what is written to it. */
+    private final WritableByteChannel discardChannel = new WritableByteChannel() {
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            src.position(src.limit());
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Setup
+    public void setUp() throws Exception {
+        Log.disable();
+        results = Topology.SJF6.run(vms, 1, distribution.lengths(cloudlets, 42));
+        Log.setOutput(discard);
+        Log.enable();
+
+        tableWriter = new CloudletTableWriter(Channels.newChannel(discard), true);
+        csvWriter = new CloudletCsvWriter(discardChannel);
+        binaryWriter = new CloudletBinaryWriter(discardChannel);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Log.setOutput(System.out);
+    }
+
+    /**
+     * The loop of sjf2, kept here as the baseline.
+     */
+    @Benchmark
+    public void legacyPrint() {
+        int size = results.size();
+
+        String indent = "    ";
+        Log.printLine();
+        Log.printLine("========== OUTPUT ==========");
+        Log.printLine("Cloudlet ID" + indent + "STATUS" + indent + "Data center ID" + indent + "VM ID" + indent + "Time"
+                + indent + "Start Time" + indent + "Finish Time" + indent + "Turn Around Time" + indent + "Waiting Time");
+
+        DecimalFormat dft = new DecimalFormat("###.##");
+        for (int i = 0; i < size; i++) {
+            Log.print(indent + results.getCloudletId(i) + indent + indent);
+
+            if (results.getStatus(i) == Cloudlet.SUCCESS) {
+                Log.print("SUCCESS");
+
+                Log.printLine(indent + indent + results.getResourceId(i) + indent + indent + indent
+                        + results.getVmId(i) + indent + indent + dft.format(results.getActualCPUTime(i)) + indent
+                        + indent + dft.format(results.getExecStartTime(i)) + indent + indent
+                        + dft.format(results.getFinishTime(i)) + indent + indent
+                        + dft.format(results.getTurnaroundTime(i)) + indent + indent
+                        + dft.format(results.getWaitingTime(i)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void tableWriter() throws IOException {
+        tableWriter.writeAll(results);
+    }
+
+    @Benchmark
+    public void csvWriter() throws IOException {
+        csvWriter.writeAll(results);
+    }
+
+    @Benchmark
+    public void binaryWriter() throws IOException {
+        binaryWriter.writeAll(results);
+    }
+}
@@ -0,0 +1,65 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A whole {@code CloudSim.startSimulation()} of each example topology, scaled up. Each run builds
+ * the simulation from scratch, so the time includes creating the entities and cloudlets.
+ *
+ * SJF3 and SJF5 bind cloudlets with {@code bindCloudletToVm}, which searches the cloudlet list, so
+ * they are quadratic in the number of cloudlets; run 10^6 cloudlets with
+ * {@code -p cloudlets=1000000 -p topology=SJF,SJF1,SJF2,SJF4,SJF6}.
+ *
+ * With {@code -prof gc}, {@code gc.alloc.rate.norm} gives the bytes allocated per simulation;
+ * divided by the number of cloudlets, it shows what each cloudlet costs the collector.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+
+    @Param({ "SJF", "SJF1", "SJF2", "SJF3", "SJF4", "SJF5", "SJF6" })
+    public Topology topology;
+
+    @Param({ "1000", "10000", "100000" })
+    public int cloudlets;
+
+    @Param({ "8", "64" })
+    public int vms;
+
+    @Param({ "1", "8" })
+    public int hostPes;
+
+    @Param({ "UNIFORM", "BIMODAL" })
+    public LengthDistribution distribution;
+
+    private long[] lengths;
+
+    @Setup
+    public void setUp() {
+        Log.disable();
+        lengths = distribution.lengths(cloudlets, 42);
+    }
+
+    @Benchmark
+    public CloudletResultStore simulate() throws Exception {
+        return topology.run(vms, hostPes, lengths);
+    }
+}
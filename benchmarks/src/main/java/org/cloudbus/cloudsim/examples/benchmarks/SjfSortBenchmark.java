@@ -0,0 +1,99 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.examples.CloudletTemplate;
+import org.cloudbus.cloudsim.examples.ExternalSjfSorter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The SJF sort step: sorting the cloudlet list by length as the examples did, against the
+ * {@link ExternalSjfSorter} with the workload in memory and spilled to eight runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SjfSortBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int cloudlets;
+
+    @Param({ "UNIFORM", "EXPONENTIAL", "BIMODAL", "ASCENDING", "DESCENDING" })
+    public LengthDistribution distribution;
+
+    private List<Cloudlet> cloudletList;
+
+    private File tempDir;
+
+    private final ExternalSjfSorter.CloudletFactory factory = CloudletTemplate.DEFAULT;
+
+    @Setup
+    public void setUp() throws IOException {
+        long[] lengths = distribution.lengths(cloudlets, 42);
+        cloudletList = new ArrayList<>(cloudlets);
+        for (int id = 0; id < cloudlets; id++) {
+            cloudletList.add(factory.createCloudlet(id, lengths[id]));
+        }
+        tempDir = Files.createTempDirectory("sjf-sort").toFile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        tempDir.delete();
+    }
+
+    @Benchmark
+    public List<Cloudlet> collectionsSort() {
+        List<Cloudlet> sorted = new ArrayList<>(cloudletList);
+        Collections.sort(sorted, Comparator.comparingLong(Cloudlet::getCloudletLength));
+        return sorted;
+    }
+
+    @Benchmark
+    public void externalSortInMemory(Blackhole blackhole) throws IOException {
+        externalSort(cloudlets, blackhole);
+    }
+
+    @Benchmark
+    public void externalSortSpilled(Blackhole blackhole) throws IOException {
+        externalSort(Math.max(cloudlets / 8, 1), blackhole);
+    }
+
+    private void externalSort(int runSize, Blackhole blackhole) throws IOException {
+        ExternalSjfSorter sorter = new ExternalSjfSorter(tempDir, runSize, factory);
+        try {
+            for (Cloudlet cloudlet : cloudletList) {
+                sorter.add(cloudlet);
+            }
+            sorter.sort();
+            while (sorter.hasNext()) {
+                blackhole.consume(sorter.next());
+            }
+        } finally {
+            sorter.close();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.cloudbus.cloudsim.examples.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.examples.BatchingDatacenter;
+import org.cloudbus.cloudsim.examples.CloudletResultStore;
+import org.cloudbus.cloudsim.examples.CloudletSchedulerSjf;
+import org.cloudbus.cloudsim.examples.CloudletTemplate;
+import org.cloudbus.cloudsim.examples.DatacenterBrokerSjf;
+import org.cloudbus.cloudsim.examples.FutureEventList;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * The topologies of the examples sjf to sjf6, scaled to any number of VMs, host PEs and cloudlets.
+ * Each keeps the VM MIPS ratings of its example, repeated over the VMs, the way its example places
+ * cloudlets and its number of brokers. Hosts have one PE per VM they can hold, as fast as the
+ * fastest VM, and VMs run a {@link CloudletSchedulerSjf} unless another scheduler is given.
+ */
+public enum Topology {
+
+    SJF(Placement.ROUND_ROBIN, 1, 250),
+    SJF1(Placement.ROUND_ROBIN, 1, 1000),
+    SJF2(Placement.EARLIEST_FINISH, 1, 600, 1200),
+    SJF3(Placement.BIND_ROUND_ROBIN, 1, 750, 1500),
+    SJF4(Placement.EARLIEST_FINISH, 1, 250),
+    SJF5(Placement.BIND_ROUND_ROBIN, 2, 250),
+    SJF6(Placement.EARLIEST_FINISH, 1, 1000);
+
+    /** The ways cloudlets are placed on VMs. */
+    public enum Placement {
+        /** {@link DatacenterBroker#bindCloudletToVm(int, int)} on each cloudlet in turn, as sjf3 does. */
+        BIND_ROUND_ROBIN,
+        /** The VM ids are set on the cloudlets before they are submitted, as sjf does. */
+        ROUND_ROBIN,
+        /** A {@link DatacenterBrokerSjf} places each cloudlet on the VM that finishes it first. */
+        EARLIEST_FINISH
+    }
+
+    private final Placement placement;
+
+    private final int brokers;
+
+    private final int[] vmMips;
+
+    Topology(Placement placement, int brokers, int... vmMips) {
+        this.placement = placement;
+        this.brokers = brokers;
+        this.vmMips = vmMips;
+    }
+
+    public Placement getPlacement() {
+        return placement;
+    }
+
+    /**
+     * Runs a simulation of the topology with the placement of its example.
+     * @param vms the number of VMs
+     * @param hostPes the number of PEs of each host
+     * @param lengths the cloudlet lengths in MI
+     * @return the results of the returned cloudlets
+     * @throws Exception if CloudSim fails
+     */
+    public CloudletResultStore run(int vms, int hostPes, long[] lengths) throws Exception {
+        return run(vms, hostPes, lengths, placement);
+    }
+
+    /**
+     * Runs a simulation of the topology.
+     * @param vms the number of VMs, at least one per broker
+     * @param hostPes the number of PEs of each host
+     * @param lengths the cloudlet lengths in MI
+     * @param placement the way cloudlets are placed on VMs
+     * @return the results of the returned cloudlets
+     * @throws Exception if CloudSim fails
+     */
+    public CloudletResultStore run(int vms, int hostPes, long[] lengths, Placement placement) throws Exception {
+        return run(vms, hostPes, lengths, placement, FutureEventList.TREE);
+    }
+
+    /**
+     * Runs a simulation of the topology on a given queue of future events.
+     * @param vms the number of VMs, at least one per broker
+     * @param hostPes the number of PEs of each host
+     * @param lengths the cloudlet lengths in MI
+     * @param placement the way cloudlets are placed on VMs
+     * @param futureQueue the queue of future events
+     * @return the results of the returned cloudlets
+     * @throws Exception if CloudSim fails
+     */
+    public CloudletResultStore run(int vms, int hostPes, long[] lengths, Placement placement,
+            FutureEventList futureQueue) throws Exception {
+        return run(vms, hostPes, lengths, placement, futureQueue, false);
+    }
+
+    /**
+     * Runs a simulation of the topology on a given queue of future events, with the cloudlets of
+     * each VM submitted in one event if the broker is a {@link DatacenterBrokerSjf}.
+     * @param vms the number of VMs, at least one per broker
+     * @param hostPes the number of PEs of each host
+     * @param lengths the cloudlet lengths in MI
+     * @param placement the way cloudlets are placed on VMs
+     * @param futureQueue the queue of future events
+     * @param batchSubmission whether the SJF broker submits batches
+     * @return the results of the returned cloudlets
+     * @throws Exception if CloudSim fails
+     */
+    public CloudletResultStore run(int vms, int hostPes, long[] lengths, Placement placement,
+            FutureEventList futureQueue, boolean batchSubmission) throws Exception {
+        return run(vms, hostPes, lengths, placement, futureQueue, batchSubmission, CloudletSchedulerSjf::new);
+    }
+
+    /**
+     * Runs a simulation of the topology with VMs running the given cloudlet scheduler.
+     * @param vms the number of VMs, at least one per broker
+     * @param hostPes the number of PEs of each host
+     * @param lengths the cloudlet lengths in MI
+     * @param placement the way cloudlets are placed on VMs
+     * @param futureQueue the queue of future events
+     * @param batchSubmission whether the SJF broker submits batches
+     * @param schedulers creates the scheduler of each VM
+     * @return the results of the returned cloudlets
+     * @throws Exception if CloudSim fails
+     */
+    public CloudletResultStore run(int vms, int hostPes, long[] lengths, Placement placement,
+            FutureEventList futureQueue, boolean batchSubmission, Supplier<? extends CloudletScheduler> schedulers)
+            throws Exception {
+        CloudSim.init(brokers, Calendar.getInstance(), false);
+        futureQueue.install();
+
+        int peMips = 0;
+        for (int mips : vmMips) {
+            peMips = Math.max(peMips, mips);
+        }
+        createDatacenter("Datacenter_0", (vms + hostPes - 1) / hostPes, hostPes, peMips);
+
+        // the SJF brokers record their cloudlets as they return, the default ones keep them
+        CloudletResultStore results = new CloudletResultStore(lengths.length);
+        List<DatacenterBroker> brokerList = new ArrayList<>();
+        for (int b = 0; b < brokers; b++) {
+            DatacenterBroker broker;
+            if (placement == Placement.EARLIEST_FINISH) {
+                DatacenterBrokerSjf sjfBroker = new DatacenterBrokerSjf("Broker" + b);
+                sjfBroker.setBatchSubmission(batchSubmission);
+                sjfBroker.setResultStore(results);
+                broker = sjfBroker;
+            } else {
+                broker = new DatacenterBroker("Broker" + b);
+            }
+            brokerList.add(broker);
+
+            // VMs and cloudlets are dealt to the brokers in turn
+            List<Vm> vmList = new ArrayList<>();
+            for (int id = b; id < vms; id += brokers) {
+                vmList.add(new Vm(id, broker.getId(), vmMips[id % vmMips.length], 1, 512, 1000, 10000, "Xen",
+                        schedulers.get()));
+            }
+            broker.submitVmList(vmList);
+
+            List<Cloudlet> cloudletList = new ArrayList<>();
+            for (int id = b; id < lengths.length; id += brokers) {
+                Cloudlet cloudlet = CloudletTemplate.DEFAULT.createCloudlet(id, lengths[id]);
+                cloudlet.setUserId(broker.getId());
+                if (placement == Placement.ROUND_ROBIN) {
+                    cloudlet.setVmId(vmList.get(cloudletList.size() % vmList.size()).getId());
+                }
+                cloudletList.add(cloudlet);
+            }
+            broker.submitCloudletList(cloudletList);
+
+            if (placement == Placement.BIND_ROUND_ROBIN) {
+                for (int i = 0; i < cloudletList.size(); i++) {
+                    broker.bindCloudletToVm(cloudletList.get(i).getCloudletId(), vmList.get(i % vmList.size()).getId());
+                }
+            }
+        }
+
+        CloudSim.startSimulation();
+        CloudSim.stopSimulation();
+
+        for (DatacenterBroker broker : brokerList) {
+            List<Cloudlet> received = broker.getCloudletReceivedList();
+            for (Cloudlet cloudlet : received) {
+                results.record(cloudlet);
+            }
+        }
+        return results;
+    }
+
+    private static Datacenter createDatacenter(String name, int hosts, int hostPes, int mips) throws Exception {
+        List<Host> hostList = new ArrayList<>();
+        for (int hostId = 0; hostId < hosts; hostId++) {
+            List<Pe> peList = new ArrayList<>();
+            for (int peId = 0; peId < hostPes; peId++) {
+                peList.add(new Pe(peId, new PeProvisionerSimple(mips)));
+            }
+            hostList.add(new Host(hostId, new RamProvisionerSimple(512 * hostPes),
+                    new BwProvisionerSimple(1000L * hostPes), 10000L * hostPes, peList, new VmSchedulerTimeShared(peList)));
+        }
+
+        DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen", hostList, 10.0,
+                3.0, 0.05, 0.001, 0.0);
+        return new BatchingDatacenter(name, characteristics, new VmAllocationPolicySimple(hostList),
+                new LinkedList<Storage>(), 0);
+    }
+}
@@ -1,200 +1,12 @@
 package org.cloudbus.cloudsim.examples;
 
-import java.text.DecimalFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
-import java.util.List;
-
-import org.cloudbus.cloudsim.Cloudlet;
-import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
-import org.cloudbus.cloudsim.Datacenter;
-import org.cloudbus.cloudsim.DatacenterBroker;
-import org.cloudbus.cloudsim.DatacenterCharacteristics;
-import org.cloudbus.cloudsim.Host;
-import org.cloudbus.cloudsim.Log;
-import org.cloudbus.cloudsim.Pe;
-import org.cloudbus.cloudsim.Storage;
-import org.cloudbus.cloudsim.UtilizationModel;
-import org.cloudbus.cloudsim.UtilizationModelFull;
-import org.cloudbus.cloudsim.Vm;
-import org.cloudbus.cloudsim.VmAllocationPolicySimple;
-import org.cloudbus.cloudsim.VmSchedulerTimeShared;
-import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
-
+/**
+ * One cloudlet on one VM.
+ * The scenario is described in scenarios/sjf1.json and run by {@link ScenarioRunner}.
+ */
 public class sjf1 {
 
-    private static List<Cloudlet> cloudletList;
-    private static List<Vm> vmlist;
-
     public static void main(String[] args) {
-
-        Log.printLine("Starting sjf1...");
-
-        try {
-            int num_user = 1; // number of cloud users
-            Calendar calendar = Calendar.getInstance();
-            boolean trace_flag = false; // mean trace events
-
-            // Initialize the CloudSim library
-            CloudSim.init(num_user, calendar, trace_flag);
-
-            // Create Datacenter
-            Datacenter datacenter0 = createDatacenter("Datacenter_0");
-
-            // Create Broker
-            DatacenterBroker broker = createBroker();
-            int brokerId = broker.getId();
-
-            // Create VMs
-            vmlist = new ArrayList<>();
-            int vmid = 0;
-            int mips = 1000;
-            long size = 10000; // image size (MB)
-            int ram = 512; // vm memory (MB)
-            long bw = 1000;
-            int pesNumber = 1; // number of CPUs
-            String vmm = "Xen"; // VMM name
-
-            Vm vm = new Vm(vmid, brokerId, mips, pesNumber, ram, bw, size, vmm, new CloudletSchedulerTimeShared());
-            vmlist.add(vm);
-
-            // Submit VM list to broker
-            broker.submitVmList(vmlist);
-
-            // Create Cloudlets
-            cloudletList = new ArrayList<>();
-
-            // Cloudlet configuration remains as in the original application
-            int numCloudlets = 1;
-            for (int id = 0; id < numCloudlets; id++) {
-                long length = 100000 + id * 1000; // Increasing length for demonstration
-                long fileSize = 300;
-                long outputSize = 300;
-                UtilizationModel utilizationModel = new UtilizationModelFull();
-
-                Cloudlet cloudlet = new Cloudlet(id, length, pesNumber, fileSize, outputSize, utilizationModel, utilizationModel, utilizationModel);
-                cloudlet.setUserId(brokerId);
-                cloudlet.setVmId(vmid);
-
-                cloudletList.add(cloudlet);
-            }
-
-            // Sort cloudlets by length (SJF)
-            Collections.sort(cloudletList, Comparator.comparingLong(Cloudlet::getCloudletLength));
-
-            // Submit Cloudlet list to broker
-            broker.submitCloudletList(cloudletList);
-
-            // Start the simulation
-            CloudSim.startSimulation();
-
-            // Stop the simulation
-            CloudSim.stopSimulation();
-
-            // Print results
-            List<Cloudlet> newList = broker.getCloudletReceivedList();
-            printCloudletList(newList);
-
-            Log.printLine("sjf1 finished!");
-        } catch (Exception e) {
-            e.printStackTrace();
-            Log.printLine("Unwanted errors happen");
-        }
-    }
-
-    private static Datacenter createDatacenter(String name) {
-        List<Host> hostList = new ArrayList<>();
-
-        List<Pe> peList = new ArrayList<>();
-        int mips = 1000;
-
-        peList.add(new Pe(0, new PeProvisionerSimple(mips))); // Need to store Pe ID and MIPS Rating
-
-        int hostId = 0;
-        int ram = 2048; // host memory (MB)
-        long storage = 1000000; // host storage
-        int bw = 10000;
-
-        hostList.add(new Host(
-                hostId,
-                new RamProvisionerSimple(ram),
-                new BwProvisionerSimple(bw),
-                storage,
-                peList,
-                new VmSchedulerTimeShared(peList)
-        ));
-
-        String arch = "x86"; // system architecture
-        String os = "Linux"; // operating system
-        String vmm = "Xen";
-        double time_zone = 10.0; // time zone this resource located
-        double cost = 3.0; // the cost of using processing in this resource
-        double costPerMem = 0.05; // the cost of using memory in this resource
-        double costPerStorage = 0.001; // the cost of using storage in this resource
-        double costPerBw = 0.0; // the cost of using bw in this resource
-        LinkedList<Storage> storageList = new LinkedList<>(); // No SAN devices
-
-        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
-                arch, os, vmm, hostList, time_zone, cost, costPerMem,
-                costPerStorage, costPerBw);
-
-        Datacenter datacenter = null;
-        try {
-            datacenter = new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList), storageList, 0);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return datacenter;
-    }
-
-    private static DatacenterBroker createBroker() {
-        DatacenterBroker broker = null;
-        try {
-            broker = new DatacenterBroker("Broker");
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return broker;
-    }
-
-    private static void printCloudletList(List<Cloudlet> list) {
-        int size = list.size();
-        Cloudlet cloudlet;
-
-        String indent = "    ";
-        Log.printLine();
-        Log.printLine("========== OUTPUT ==========");
-        Log.printLine("Cloudlet ID" + indent + "STATUS" + indent
-                + "Data center ID" + indent + "VM ID" + indent + "Time" + indent
-                + "Start Time" + indent + "Finish Time" + indent + "Turn Around Time" + indent + "Waiting Time");
-
-        DecimalFormat dft = new DecimalFormat("###.##");
-        for (int i = 0; i < size; i++) {
-            cloudlet = list.get(i);
-            Log.print(indent + cloudlet.getCloudletId() + indent + indent);
-
-            if (cloudlet.getCloudletStatus() == Cloudlet.SUCCESS) {
-                double finishTime = cloudlet.getFinishTime();
-                double turnAroundTime = finishTime - cloudlet.getSubmissionTime();
-                double waitingTime = turnAroundTime - cloudlet.getActualCPUTime();
-
-                Log.print("SUCCESS");
-
-                Log.printLine(indent + indent + cloudlet.getResourceId()
-                        + indent + indent + indent + cloudlet.getVmId()
-                        + indent + indent + dft.format(cloudlet.getActualCPUTime()) + indent
-                        + indent + dft.format(cloudlet.getExecStartTime())
-                        + indent + indent + dft.format(finishTime)
-                        + indent + indent + dft.format(turnAroundTime)
-                        + indent + indent + dft.format(waitingTime));
-            }
-        }
+        ScenarioRunner.main(new String[] { "scenarios/sjf1.json" });
     }
 }
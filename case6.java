@@ -1,177 +1,20 @@
 package org.cloudbus.cloudsim.examples;
 
-import java.text.DecimalFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
-import java.util.List;
-
-import org.cloudbus.cloudsim.Cloudlet;
-import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
-import org.cloudbus.cloudsim.Datacenter;
-import org.cloudbus.cloudsim.DatacenterBroker;
-import org.cloudbus.cloudsim.DatacenterCharacteristics;
-import org.cloudbus.cloudsim.Host;
-import org.cloudbus.cloudsim.Log;
-import org.cloudbus.cloudsim.Pe;
-import org.cloudbus.cloudsim.Storage;
-import org.cloudbus.cloudsim.UtilizationModel;
-import org.cloudbus.cloudsim.UtilizationModelFull;
-import org.cloudbus.cloudsim.Vm;
-import org.cloudbus.cloudsim.VmAllocationPolicySimple;
-import org.cloudbus.cloudsim.VmSchedulerTimeShared;
-import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
-
+/**
+ * Ten cloudlets placed shortest first on five VMs by the SJF broker. A trace file given as
+ * argument is streamed instead of generating the cloudlets, sorted shortest first on disk when
+ * followed by {@code --sort}.
+ * The scenario is described in scenarios/sjf6.json and run by {@link ScenarioRunner}.
+ */
 public class sjf6 {
 
-    /** The cloudlet list. */
-    private static List<Cloudlet> cloudletList;
-
-    /** The VM list. */
-    private static List<Vm> vmlist;
-
-    private static List<Vm> createVM(int userId, int vms) {
-        LinkedList<Vm> list = new LinkedList<>();
-
-        long size = 10000; // image size (MB)
-        int ram = 512; // VM memory (MB)
-        int mips = 1000;
-        long bw = 1000; // bandwidth
-        int pesNumber = 1; // number of CPUs
-        String vmm = "Xen"; // VMM name
-
-        // Create VMs
-        for (int i = 0; i < vms; i++) {
-            Vm vm = new Vm(i, userId, mips, pesNumber, ram, bw, size, vmm, new CloudletSchedulerTimeShared());
-            list.add(vm);
-        }
-
-        return list;
-    }
-
-    private static List<Cloudlet> createCloudlet(int userId, int cloudlets) {
-        LinkedList<Cloudlet> list = new LinkedList<>();
-
-        long length = 1000; // cloudlet length
-        long fileSize = 300; // cloudlet file size
-        long outputSize = 300; // cloudlet output size
-        int pesNumber = 1; // number of CPUs
-        UtilizationModel utilizationModel = new UtilizationModelFull();
-
-        for (int i = 0; i < cloudlets; i++) {
-            length = 500 + (i * 200); // varying lengths for SJF demonstration
-            Cloudlet cloudlet = new Cloudlet(i, length, pesNumber, fileSize, outputSize, utilizationModel, utilizationModel, utilizationModel);
-            cloudlet.setUserId(userId);
-            list.add(cloudlet);
-        }
-
-        // Sort the cloudlets by their length (Shortest Job First)
-        Collections.sort(list, Comparator.comparingLong(Cloudlet::getCloudletLength));
-
-        return list;
-    }
-
     public static void main(String[] args) {
-        Log.printLine("Starting sjf6...");
-
-        try {
-            int numUser = 1; // number of users
-            Calendar calendar = Calendar.getInstance();
-            boolean traceFlag = false; // trace events
-
-            CloudSim.init(numUser, calendar, traceFlag);
-
-            Datacenter datacenter0 = createDatacenter("Datacenter_0");
-
-            DatacenterBroker broker = createBroker();
-            int brokerId = broker.getId();
-
-            vmlist = createVM(brokerId, 5); // create 5 VMs
-            cloudletList = createCloudlet(brokerId, 10); // create 10 cloudlets
-
-            broker.submitVmList(vmlist);
-            broker.submitCloudletList(cloudletList);
-
-            CloudSim.startSimulation();
-
-            List<Cloudlet> newList = broker.getCloudletReceivedList();
-            CloudSim.stopSimulation();
-
-            printCloudletList(newList);
-
-            Log.printLine("sjf6 finished!");
-        } catch (Exception e) {
-            e.printStackTrace();
-            Log.printLine("The simulation has been terminated due to an unexpected error");
-        }
-    }
-
-    private static Datacenter createDatacenter(String name) {
-        List<Host> hostList = new ArrayList<>();
-
-        List<Pe> peList = new ArrayList<>();
-        int mips = 1000;
-        peList.add(new Pe(0, new PeProvisionerSimple(mips)));
-
-        int hostId = 0;
-        int ram = 2048; // host memory (MB)
-        long storage = 1000000; // host storage
-        int bw = 10000;
-
-        hostList.add(new Host(hostId, new RamProvisionerSimple(ram), new BwProvisionerSimple(bw), storage, peList, new VmSchedulerTimeShared(peList)));
-
-        String arch = "x86"; // system architecture
-        String os = "Linux"; // operating system
-        String vmm = "Xen";
-        double timeZone = 10.0;
-        double costPerSec = 3.0;
-        double costPerMem = 0.05;
-        double costPerStorage = 0.001;
-        double costPerBw = 0.0;
-
-        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(arch, os, vmm, hostList, timeZone, costPerSec, costPerMem, costPerStorage, costPerBw);
-
-        Datacenter datacenter = null;
-        try {
-            datacenter = new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList), new LinkedList<Storage>(), 0);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return datacenter;
-    }
-
-    private static DatacenterBroker createBroker() {
-        DatacenterBroker broker = null;
-        try {
-            broker = new DatacenterBroker("Broker");
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
-        return broker;
-    }
-
-    private static void printCloudletList(List<Cloudlet> list) {
-        String indent = "    ";
-        Log.printLine();
-        Log.printLine("========== OUTPUT ==========");
-        Log.printLine("Cloudlet ID" + indent + "STATUS" + indent + "Datacenter ID" + indent + "VM ID" + indent + "Time" + indent + "Start Time" + indent + "Finish Time");
-
-        DecimalFormat dft = new DecimalFormat("###.##");
-        for (Cloudlet cloudlet : list) {
-            Log.print(indent + cloudlet.getCloudletId() + indent + indent);
-
-            if (cloudlet.getStatus() == Cloudlet.SUCCESS) {
-                Log.print("SUCCESS");
-
-                Log.printLine(indent + indent + cloudlet.getResourceId() + indent + indent + cloudlet.getVmId() + indent + indent + dft.format(cloudlet.getActualCPUTime()) + indent + indent + dft.format(cloudlet.getExecStartTime()) + indent + indent + dft.format(cloudlet.getFinishTime()));
-            }
+        if (args.length > 1 && args[1].equals("--sort")) {
+            ScenarioRunner.main(new String[] { "scenarios/sjf6.json", "--trace=" + args[0], "--sort" });
+        } else if (args.length > 0) {
+            ScenarioRunner.main(new String[] { "scenarios/sjf6.json", "--trace=" + args[0] });
+        } else {
+            ScenarioRunner.main(new String[] { "scenarios/sjf6.json" });
         }
     }
 }
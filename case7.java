@@ -0,0 +1,14 @@
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * Ten cloudlets arrive longest first and run shortest remaining time first on five VMs. Each of
+ * the last five is shorter than what is left of the cloudlet running where it lands, so it takes
+ * that cloudlet's PE.
+ * The scenario is described in scenarios/sjf7.json and run by {@link ScenarioRunner}.
+ */
+public class sjf7 {
+
+    public static void main(String[] args) {
+        ScenarioRunner.main(new String[] { "scenarios/sjf7.json" });
+    }
+}